@@ -36,5 +36,15 @@ public interface OfflineNetworkPlayer {
      */
     long getPlaytime();
 
+    /**
+     * Stale players are answered from the last known state while the player service is unreachable.
+     *
+     * @return true if the player has not been confirmed by the player service.
+     * @since 1.6
+     */
+    default boolean isStale() {
+        return false;
+    }
+
 
 }
@@ -3,7 +3,9 @@ package it.einjojo.playerapi;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -62,8 +64,52 @@ public interface PlayerApi {
 
     CompletableFuture<@Nullable UUID> getUniqueId(String playerName);
 
+    /**
+     * Gets many offline players with a single request.
+     *
+     * @param playerUUIDs the players' UUIDs
+     * @return a map of the requested UUIDs to their players. Unknown players are absent.
+     * @since 1.6
+     */
+    CompletableFuture<Map<UUID, OfflineNetworkPlayer>> getOfflinePlayers(Collection<UUID> playerUUIDs);
+
+    /**
+     * Gets many online players at once.
+     *
+     * @param playerUUIDs the players' UUIDs
+     * @return a map of the requested UUIDs to their players. Players that are not online are absent.
+     * @since 1.6
+     */
+    CompletableFuture<Map<UUID, NetworkPlayer>> getOnlinePlayers(Collection<UUID> playerUUIDs);
+
+    /**
+     * Gets the unique ids of many players with a single request.
+     *
+     * @param playerNames the players' names
+     * @return a map of the requested names to their UUIDs. Unknown names are absent.
+     * @since 1.6
+     */
+    CompletableFuture<Map<String, UUID>> getUniqueIds(Collection<String> playerNames);
+
     LocalOnlinePlayerAccessor getLocalOnlinePlayerAccessor();
 
+    /**
+     * The api is ready once the player service has answered a request. Until then, requests may pay for the
+     * connection setup or fail if the service is unreachable.
+     *
+     * @return whether the player service has been reached.
+     * @since 1.6
+     */
+    boolean isReady();
+
+    /**
+     * getter
+     *
+     * @return a future that completes when the api is ready.
+     * @since 1.6
+     */
+    CompletableFuture<Void> whenReady();
+
 
     /**
      * Subscribe to all player logins
@@ -81,4 +127,43 @@ public interface PlayerApi {
      */
     Closeable subscribeLogout(Consumer<OfflineNetworkPlayer> offlinePlayerConsumer);
 
+    /**
+     * Subscribe to the logins on some proxies only. Only the matching notifications are received from redis.
+     *
+     * @param proxyFilter    the name of the proxy, may contain the wildcards {@code *}, {@code ?} and {@code [...]}
+     * @param playerConsumer the consumer that will be called when a player logs in.
+     * @return a {@link Closeable} that can be used to unsubscribe from the event.
+     * @since 1.6
+     */
+    Closeable subscribeLogin(String proxyFilter, Consumer<NetworkPlayer> playerConsumer);
+
+    /**
+     * Subscribe to the logouts on some proxies only. Only the matching notifications are received from redis.
+     *
+     * @param proxyFilter           the name of the proxy, may contain the wildcards {@code *}, {@code ?} and {@code [...]}
+     * @param offlinePlayerConsumer the consumer that will be called when a player logs out.
+     * @return a {@link Closeable} that can be used to unsubscribe from the event.
+     * @since 1.6
+     */
+    Closeable subscribeLogout(String proxyFilter, Consumer<OfflineNetworkPlayer> offlinePlayerConsumer);
+
+    /**
+     * Subscribe to all server switches, published by the proxies.
+     *
+     * @param switchConsumer the consumer that will be called when a player has switched servers.
+     * @return a {@link Closeable} that can be used to unsubscribe from the event.
+     * @since 1.6
+     */
+    Closeable subscribeServerSwitch(Consumer<ServerSwitch> switchConsumer);
+
+    /**
+     * Subscribe to the server switches to some servers only. Only the matching notifications are received from redis.
+     *
+     * @param serverFilter   the name of the target server, may contain the wildcards {@code *}, {@code ?} and {@code [...]}
+     * @param switchConsumer the consumer that will be called when a player has switched to a matching server.
+     * @return a {@link Closeable} that can be used to unsubscribe from the event.
+     * @since 1.6
+     */
+    Closeable subscribeServerSwitch(String serverFilter, Consumer<ServerSwitch> switchConsumer);
+
 }
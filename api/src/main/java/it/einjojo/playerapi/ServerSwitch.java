@@ -0,0 +1,46 @@
+package it.einjojo.playerapi;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A player has switched servers.
+ *
+ * @since 1.6
+ */
+public interface ServerSwitch {
+    /**
+     * getter
+     *
+     * @return the unique id of the player.
+     */
+    UUID getUniqueId();
+
+    /**
+     * getter
+     *
+     * @return the name of the player.
+     */
+    String getName();
+
+    /**
+     * getter
+     *
+     * @return the server the player has left, empty for the first server after the login.
+     */
+    Optional<String> getPreviousServerName();
+
+    /**
+     * getter
+     *
+     * @return the server the player is connected to now.
+     */
+    String getServerName();
+
+    /**
+     * getter
+     *
+     * @return the proxy name of the player.
+     */
+    String getProxyName();
+}
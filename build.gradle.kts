@@ -68,6 +68,11 @@ subprojects {
             archiveClassifier.set("")
             archiveBaseName.set("playerapi-${project.name}")
             relocate("io.grpc", "it.einjojo.playerapi.libs.grpc")
+            // netty loads its native transport by the package it was relocated to, the library has to be renamed alike
+            relocate(
+                "META-INF/native/libio_grpc_netty_shaded_",
+                "META-INF/native/libit_einjojo_playerapi_libs_grpc_netty_shaded_"
+            )
             relocate("com.google.protobuf", "it.einjojo.playerapi.libs.protobuf")
             relocate("io.lettuce", "it.einjojo.playerapi.libs.lettuce")
             mergeServiceFiles()
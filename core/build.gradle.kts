@@ -9,13 +9,17 @@ plugins {
 
 dependencies {
     api(project(":api"))
-    runtimeOnly("io.grpc:grpc-netty-shaded:1.74.0")
+    implementation("io.grpc:grpc-netty-shaded:1.74.0") // shared event loops
     api("io.grpc:grpc-protobuf:1.74.0")
     api("io.grpc:grpc-stub:1.74.0")
+    runtimeOnly("io.grpc:grpc-services:1.74.0") // client-side health checking
     compileOnly("org.apache.tomcat:annotations-api:6.0.53")
     compileOnly("com.google.code.gson:gson:2.11.0") // provided by either paper or velocity
     compileOnly("io.lettuce:lettuce-core:6.8.1.RELEASE")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
+    testImplementation("io.grpc:grpc-inprocess:1.74.0")
+    testImplementation("io.lettuce:lettuce-core:6.8.1.RELEASE")
+    testImplementation("com.google.code.gson:gson:2.11.0")
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -49,4 +53,6 @@ protobuf {
 
 tasks.test {
     useJUnitPlatform()
+    // benchmarks are skipped unless the build is run with -Dbenchmark=true
+    systemProperty("benchmark", System.getProperty("benchmark", "false"))
 }
\ No newline at end of file
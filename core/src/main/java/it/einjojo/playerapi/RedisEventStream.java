@@ -0,0 +1,247 @@
+package it.einjojo.playerapi;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import it.einjojo.playerapi.config.StreamConfiguration;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reads the login, logout and server switch events from a redis stream, the reliable counterpart of the pub sub
+ * notifications.
+ * <p>Each entry has a single field, the type of the event ({@code li}, {@code lo} or {@code sw}), with the serialized
+ * notification as value. The reader remembers the id of the last entry it has read. When a read fails, for example
+ * because the connection blips, it resumes from that id and only replays the events it has missed. After a failure
+ * and after a full batch, it checks whether some of them have already been trimmed, and tells the listeners to
+ * resynchronize instead.</p>
+ * <p>Every reader needs every event, so consumer groups, which split the entries between their consumers, are not
+ * used. XREAD blocks its connection, so the reader has a dedicated one.</p>
+ */
+public class RedisEventStream implements Closeable {
+    static final byte[] LOGIN = "li".getBytes(StandardCharsets.UTF_8);
+    static final byte[] LOGOUT = "lo".getBytes(StandardCharsets.UTF_8);
+    static final byte[] SERVER_SWITCH = "sw".getBytes(StandardCharsets.UTF_8);
+    private static final Logger log = LoggerFactory.getLogger(RedisEventStream.class);
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private final Supplier<CompletableFuture<StatefulRedisConnection<byte[], byte[]>>> connector;
+    private final Executor executor;
+    private final byte[] key;
+    private final XReadArgs readArgs;
+    private final int batchSize;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+    // guarded by lock
+    private @Nullable CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connection;
+    private @Nullable String lastId;
+    private boolean started;
+    private boolean closed;
+    // only touched by the read loop, which runs one step at a time
+    private long backoffMillis = MIN_BACKOFF_MILLIS;
+    private boolean failed;
+    private boolean checkGap;
+
+    /**
+     * Constructor for RedisEventStream.
+     *
+     * @param connector     opens a connection of its own on the shared redis client, called again if it fails
+     * @param executor      runs the listeners, one batch after another
+     * @param configuration config
+     */
+    public RedisEventStream(Supplier<CompletableFuture<StatefulRedisConnection<byte[], byte[]>>> connector, Executor executor,
+                            @NotNull StreamConfiguration configuration) {
+        this.connector = connector;
+        this.executor = executor;
+        this.key = key(configuration);
+        this.batchSize = configuration.batchSize();
+        this.readArgs = XReadArgs.Builder.block(configuration.blockMillis()).count(batchSize);
+    }
+
+    static byte[] key(StreamConfiguration configuration) {
+        return configuration.key().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Adds a listener. The stream is read from the first listener on, earlier events are not replayed.
+     *
+     * @param listener receives the events in order
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        synchronized (lock) {
+            if (started || closed) return;
+            started = true;
+        }
+        executor.execute(this::read);
+    }
+
+    /**
+     * getter
+     *
+     * @return the id of the last read entry or null if nothing has been read yet.
+     */
+    public @Nullable String getLastId() {
+        synchronized (lock) {
+            return lastId;
+        }
+    }
+
+    private void read() {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connecting;
+        String from;
+        synchronized (lock) {
+            if (closed) return;
+            if (connection == null || connection.isCompletedExceptionally()) {
+                try {
+                    connection = connector.get();
+                } catch (RuntimeException e) {
+                    connection = CompletableFuture.failedFuture(e);
+                }
+            }
+            connecting = connection;
+            from = lastId;
+        }
+        boolean verify = checkGap;
+        connecting.thenCompose(open -> {
+                    var commands = open.async();
+                    return position(commands, from, verify).thenCompose(id -> {
+                        synchronized (lock) {
+                            lastId = id;
+                        }
+                        return commands.xread(readArgs, XReadArgs.StreamOffset.from(key, id)).toCompletableFuture();
+                    });
+                })
+                .whenCompleteAsync((messages, throwable) -> {
+                    if (throwable != null) {
+                        retry(throwable);
+                        return;
+                    }
+                    failed = false;
+                    backoffMillis = MIN_BACKOFF_MILLIS;
+                    // a full batch means the reader lags behind, the stream may have been trimmed past it meanwhile
+                    checkGap = messages.size() >= batchSize;
+                    for (StreamMessage<byte[], byte[]> message : messages) {
+                        handle(message);
+                        synchronized (lock) {
+                            lastId = message.getId();
+                        }
+                    }
+                    read();
+                }, executor);
+    }
+
+    /**
+     * Finds the id the next XREAD starts after. Entries are trimmed oldest first, so if the entry that was read last
+     * is still in the stream, nothing after it has been trimmed. Otherwise, the events after it may be lost and the
+     * listeners resynchronize. That is also reported if only the last read entry itself has been trimmed, which
+     * happens when the reader lags by about the length of the stream anyway.
+     */
+    private CompletableFuture<String> position(RedisAsyncCommands<byte[], byte[]> commands, @Nullable String from, boolean verify) {
+        if (from == null) {
+            // start after the newest entry, an empty stream starts at the beginning
+            return commands.xrevrange(key, Range.unbounded(), Limit.from(1)).toCompletableFuture()
+                    .thenApply(entries -> entries.isEmpty() ? "0-0" : entries.getFirst().getId());
+        }
+        if (!verify || from.equals("0-0")) {
+            return CompletableFuture.completedFuture(from);
+        }
+        return commands.xrange(key, Range.from(Range.Boundary.including(from), Range.Boundary.unbounded()), Limit.from(1)).toCompletableFuture()
+                .thenApply(entries -> {
+                    if (entries.isEmpty() || !entries.getFirst().getId().equals(from)) {
+                        log.warn("Events after {} have been trimmed from the stream, resynchronizing", from);
+                        listeners.forEach(Listener::handleGap);
+                    }
+                    return from;
+                });
+    }
+
+    private void retry(Throwable throwable) {
+        synchronized (lock) {
+            if (closed) return;
+        }
+        if (!failed) {
+            log.warn("Reading the event stream failed, resuming after {}: {}", getLastId(), throwable.getMessage());
+        }
+        failed = true;
+        checkGap = true;
+        long delay = backoffMillis;
+        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(this::read);
+    }
+
+    private void handle(StreamMessage<byte[], byte[]> message) {
+        for (Map.Entry<byte[], byte[]> field : message.getBody().entrySet()) {
+            try {
+                dispatch(field.getKey(), field.getValue());
+            } catch (InvalidProtocolBufferException e) {
+                log.error("Failed to parse stream entry {}", message.getId(), e);
+            } catch (Exception e) {
+                log.error("Exception during stream entry processing", e);
+            }
+        }
+    }
+
+    private void dispatch(byte[] type, byte[] value) throws InvalidProtocolBufferException {
+        if (Arrays.equals(type, LOGIN)) {
+            LoginNotify notify = LoginNotify.parseFrom(value);
+            listeners.forEach(listener -> listener.handleLogin(notify));
+        } else if (Arrays.equals(type, LOGOUT)) {
+            LogoutNotify notify = LogoutNotify.parseFrom(value);
+            listeners.forEach(listener -> listener.handleLogout(notify));
+        } else if (Arrays.equals(type, SERVER_SWITCH)) {
+            ServerSwitchNotify notify = ServerSwitchNotify.parseFrom(value);
+            listeners.forEach(listener -> listener.handleServerSwitch(notify));
+        }
+    }
+
+    @Override
+    public void close() {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> open;
+        synchronized (lock) {
+            closed = true;
+            open = connection;
+            connection = null;
+        }
+        if (open != null) {
+            open.thenAccept(StatefulRedisConnection::closeAsync);
+        }
+    }
+
+    /**
+     * Receives the events of the stream in order.
+     */
+    public interface Listener {
+
+        void handleLogin(LoginNotify notify);
+
+        void handleLogout(LogoutNotify notify);
+
+        void handleServerSwitch(ServerSwitchNotify notify);
+
+        /**
+         * Events have been missed and cannot be replayed, local state built from the events has to be fetched again.
+         */
+        void handleGap();
+    }
+}
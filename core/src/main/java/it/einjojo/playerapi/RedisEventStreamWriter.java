@@ -0,0 +1,67 @@
+package it.einjojo.playerapi;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import it.einjojo.playerapi.config.StreamConfiguration;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stand-in writer of the stream read by {@link RedisEventStream}, for setups where the player service does not append
+ * the events itself.
+ * <p>Each append trims the stream to about {@link StreamConfiguration#maxLength()} entries. The trimming is approximate,
+ * which lets redis drop whole nodes of the stream instead of single entries.</p>
+ */
+public class RedisEventStreamWriter implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RedisEventStreamWriter.class);
+    private final StatefulRedisConnection<byte[], byte[]> connection;
+    private final byte[] key;
+    private final XAddArgs addArgs;
+
+    /**
+     * Constructor for RedisEventStreamWriter.
+     *
+     * @param client        the redis client
+     * @param configuration config
+     */
+    public RedisEventStreamWriter(RedisClient client, @NotNull StreamConfiguration configuration) {
+        this.connection = client.connect(ByteArrayCodec.INSTANCE);
+        this.key = RedisEventStream.key(configuration);
+        this.addArgs = XAddArgs.Builder.maxlen(configuration.maxLength()).approximateTrimming();
+    }
+
+    public CompletableFuture<String> append(LoginNotify notify) {
+        return append(RedisEventStream.LOGIN, notify.toByteArray());
+    }
+
+    public CompletableFuture<String> append(LogoutNotify notify) {
+        return append(RedisEventStream.LOGOUT, notify.toByteArray());
+    }
+
+    public CompletableFuture<String> append(ServerSwitchNotify notify) {
+        return append(RedisEventStream.SERVER_SWITCH, notify.toByteArray());
+    }
+
+    private CompletableFuture<String> append(byte[] type, byte[] value) {
+        return connection.async().xadd(key, addArgs, Map.of(type, value)).toCompletableFuture().whenComplete((id, throwable) -> {
+            if (throwable != null) {
+                log.warn("Failed to append event to the stream: {}", throwable.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
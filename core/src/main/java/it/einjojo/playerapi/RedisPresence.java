@@ -0,0 +1,198 @@
+package it.einjojo.playerapi;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisConnectionException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import it.einjojo.playerapi.config.PresenceConfiguration;
+import it.einjojo.playerapi.impl.LazyNetworkPlayer;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reads the presence of players from redis instead of asking the player service.
+ * <p>The presence hash maps the 16 byte UUID (most significant bits first) to the serialized
+ * {@link OnlinePlayerDefinition}, and the name index maps the lower case name to the UUID. A player is online if and
+ * only if the hash has an entry for them. Offline profiles are not stored, they are still requested with gRPC.</p>
+ * <p>Reads use a dedicated connection, separate from the pub sub connection. Lettuce pipelines the commands of
+ * concurrent lookups on it, so single lookups are sent as pipelined HGETs and bulk lookups as one HMGET.</p>
+ * <p>The connection is opened asynchronously on the first lookup. Lookups fail fast while it is being opened and for a
+ * second after it could not be opened, so callers fall back to the player service instead of waiting for redis.</p>
+ */
+public class RedisPresence implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RedisPresence.class);
+    private static final long RECONNECT_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final Supplier<CompletableFuture<StatefulRedisConnection<byte[], byte[]>>> connector;
+    private final byte[] presenceKey;
+    private final byte[] namesKey;
+    private final Object connectionLock = new Object();
+    private @Nullable CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connection;
+    private volatile long failedAt;
+    private boolean closed;
+
+    /**
+     * Constructor for RedisPresence.
+     *
+     * @param connector     opens a connection of its own on the shared redis client, called again if it fails
+     * @param configuration config
+     */
+    public RedisPresence(Supplier<CompletableFuture<StatefulRedisConnection<byte[], byte[]>>> connector, @NotNull PresenceConfiguration configuration) {
+        this.connector = connector;
+        this.presenceKey = presenceKey(configuration);
+        this.namesKey = namesKey(configuration);
+    }
+
+    static byte[] presenceKey(PresenceConfiguration configuration) {
+        return configuration.hashKey().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] namesKey(PresenceConfiguration configuration) {
+        return (configuration.hashKey() + ":names").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] field(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static byte[] field(String name) {
+        return name.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static @Nullable NetworkPlayer decode(byte @Nullable [] value) {
+        if (value == null) return null;
+        try {
+            return new LazyNetworkPlayer(OnlinePlayerDefinition.parseFrom(value));
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Failed to parse presence entry", e);
+            return null;
+        }
+    }
+
+    /**
+     * Looks up an online player.
+     *
+     * @param uuid the player's UUID
+     * @return the player or null if the player is not online
+     */
+    public CompletableFuture<NetworkPlayer> getOnlinePlayer(UUID uuid) {
+        return commands().hget(presenceKey, field(uuid)).thenApply(RedisPresence::decode).toCompletableFuture();
+    }
+
+    /**
+     * Looks up an online player by name, which takes a second round trip for the name index.
+     *
+     * @param name the player's name
+     * @return the player or null if the player is not online
+     */
+    public CompletableFuture<NetworkPlayer> getOnlinePlayer(String name) {
+        RedisAsyncCommands<byte[], byte[]> commands = commands();
+        return commands.hget(namesKey, field(name)).thenCompose(uuid -> uuid == null
+                ? CompletableFuture.<NetworkPlayer>completedFuture(null)
+                : commands.hget(presenceKey, uuid).thenApply(RedisPresence::decode)).toCompletableFuture();
+    }
+
+    /**
+     * Looks up many online players with a single HMGET.
+     *
+     * @param uuids the players' UUIDs
+     * @return the online players by UUID, offline players are absent
+     */
+    public CompletableFuture<Map<UUID, NetworkPlayer>> getOnlinePlayers(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        byte[][] fields = new byte[uuids.size()][];
+        int i = 0;
+        for (UUID uuid : uuids) {
+            fields[i++] = field(uuid);
+        }
+        CompletionStage<List<KeyValue<byte[], byte[]>>> values = commands().hmget(presenceKey, fields);
+        return values.thenApply(entries -> {
+            Map<UUID, NetworkPlayer> players = new HashMap<>(entries.size());
+            for (KeyValue<byte[], byte[]> entry : entries) {
+                NetworkPlayer player = entry.hasValue() ? decode(entry.getValue()) : null;
+                if (player != null) {
+                    players.put(player.getUniqueId(), player);
+                }
+            }
+            return Collections.unmodifiableMap(players);
+        }).toCompletableFuture();
+    }
+
+    public CompletableFuture<Boolean> isOnline(UUID uuid) {
+        return commands().hexists(presenceKey, field(uuid)).toCompletableFuture();
+    }
+
+    public CompletableFuture<Boolean> isOnline(String name) {
+        return commands().hexists(namesKey, field(name)).toCompletableFuture();
+    }
+
+    /**
+     * Gets the commands of the open connection, and opens it if it is not open yet.
+     *
+     * @return the commands
+     * @throws RedisConnectionException if the connection is being opened or could not be opened
+     */
+    private RedisAsyncCommands<byte[], byte[]> commands() {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connecting;
+        synchronized (connectionLock) {
+            if (closed) throw new RedisConnectionException("The presence reader is closed");
+            if (connection == null || (connection.isCompletedExceptionally() && System.nanoTime() - failedAt >= RECONNECT_DELAY_NANOS)) {
+                connection = connect();
+            }
+            connecting = connection;
+        }
+        if (connecting.isCompletedExceptionally()) {
+            throw new RedisConnectionException("Failed to open the connection to the redis presence hash", connecting.exceptionNow());
+        }
+        StatefulRedisConnection<byte[], byte[]> open = connecting.getNow(null);
+        if (open == null) {
+            throw new RedisConnectionException("The connection to the redis presence hash is being opened");
+        }
+        return open.async();
+    }
+
+    private CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connect() {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connecting;
+        try {
+            connecting = connector.get();
+        } catch (RuntimeException e) {
+            connecting = CompletableFuture.failedFuture(e);
+        }
+        return connecting.whenComplete((open, throwable) -> {
+            if (throwable != null) {
+                failedAt = System.nanoTime();
+                log.warn("Failed to open the connection to the redis presence hash: {}", throwable.getMessage());
+            } else {
+                log.info("Opened connection to the redis presence hash");
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> open;
+        synchronized (connectionLock) {
+            closed = true;
+            open = connection;
+            connection = null;
+        }
+        if (open != null) {
+            open.thenAccept(StatefulRedisConnection::closeAsync);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package it.einjojo.playerapi;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import it.einjojo.playerapi.config.PresenceConfiguration;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Stand-in writer of the presence hashes read by {@link RedisPresence}, for setups where the player service does not
+ * maintain them (tests, the reference service or a service that predates the hashes).
+ * <p>Each change is one MULTI/EXEC transaction, so the presence hash and the name index never disagree for readers.
+ * Server changes only touch the presence hash and are applied with a compare-and-set script instead.
+ * Entries of a proxy that dies without logging its players out stay until they are overwritten.</p>
+ */
+public class RedisPresenceWriter implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RedisPresenceWriter.class);
+    private static final String COMPARE_AND_SET = """
+            if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then
+                redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])
+                return 1
+            end
+            return 0
+            """;
+    private static final int MAX_MOVE_ATTEMPTS = 3;
+    private final StatefulRedisConnection<byte[], byte[]> connection;
+    private final byte[] presenceKey;
+    private final byte[] namesKey;
+
+    /**
+     * Constructor for RedisPresenceWriter. Transactions need a connection of their own.
+     *
+     * @param client        the redis client
+     * @param configuration config
+     */
+    public RedisPresenceWriter(RedisClient client, @NotNull PresenceConfiguration configuration) {
+        this(client.connect(ByteArrayCodec.INSTANCE), configuration);
+    }
+
+    RedisPresenceWriter(StatefulRedisConnection<byte[], byte[]> connection, @NotNull PresenceConfiguration configuration) {
+        this.connection = connection;
+        this.presenceKey = RedisPresence.presenceKey(configuration);
+        this.namesKey = RedisPresence.namesKey(configuration);
+    }
+
+    /**
+     * Stores a player that has logged in or changed.
+     *
+     * @param player the online player
+     * @return a future that completes when the entry has been written
+     */
+    public synchronized CompletableFuture<Void> put(OnlinePlayerDefinition player) {
+        UUID uuid = UUID.fromString(player.getUniqueId());
+        var commands = connection.async();
+        commands.multi();
+        commands.hset(presenceKey, RedisPresence.field(uuid), player.toByteArray());
+        commands.hset(namesKey, RedisPresence.field(player.getUsername()), RedisPresence.field(uuid));
+        return commands.exec().thenAccept(result -> {
+        }).toCompletableFuture().whenComplete(this::logFailure);
+    }
+
+    /**
+     * Updates the server of a stored player. The entry is read, changed and written back with a compare-and-set script,
+     * so a concurrent logout is not undone and a concurrent change is not overwritten. If the entry changed in between,
+     * the update is retried on the new entry. Commands are sent under the lock, so they never end up inside the
+     * transaction of another change.
+     *
+     * @param uuid       the player's UUID
+     * @param serverName the new server or null if the player is not connected to one
+     * @return a future that completes when the entry has been written, nothing is written if the player is not stored
+     */
+    public CompletableFuture<Void> moveTo(UUID uuid, @Nullable String serverName) {
+        return moveTo(uuid, serverName, MAX_MOVE_ATTEMPTS).whenComplete(this::logFailure);
+    }
+
+    private CompletableFuture<Void> moveTo(UUID uuid, @Nullable String serverName, int attempts) {
+        byte[] field = RedisPresence.field(uuid);
+        CompletionStage<byte[]> current;
+        synchronized (this) {
+            current = connection.async().hget(presenceKey, field);
+        }
+        return current.thenCompose(value -> {
+            if (value == null) return CompletableFuture.<Void>completedFuture(null);
+            byte[] updated;
+            try {
+                updated = OnlinePlayerDefinition.parseFrom(value).toBuilder()
+                        .setConnectedServerName(serverName == null ? "" : serverName)
+                        .build().toByteArray();
+            } catch (InvalidProtocolBufferException e) {
+                return CompletableFuture.<Void>failedFuture(e);
+            }
+            CompletionStage<Long> swapped;
+            synchronized (this) {
+                swapped = connection.async().eval(COMPARE_AND_SET, ScriptOutputType.INTEGER, new byte[][]{presenceKey}, field, value, updated);
+            }
+            return swapped.thenCompose(result -> {
+                if (result == 1) return CompletableFuture.<Void>completedFuture(null);
+                if (attempts <= 1) {
+                    log.warn("Gave up moving {} to {} after {} attempts, the presence entry kept changing", uuid, serverName, MAX_MOVE_ATTEMPTS);
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                return moveTo(uuid, serverName, attempts - 1);
+            });
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Removes a player that has logged out.
+     *
+     * @param uuid the player's UUID
+     * @param name the player's name
+     * @return a future that completes when the entry has been removed
+     */
+    public synchronized CompletableFuture<Void> remove(UUID uuid, String name) {
+        var commands = connection.async();
+        commands.multi();
+        commands.hdel(presenceKey, RedisPresence.field(uuid));
+        commands.hdel(namesKey, RedisPresence.field(name));
+        return commands.exec().thenAccept(result -> {
+        }).toCompletableFuture().whenComplete(this::logFailure);
+    }
+
+    private void logFailure(Void ignored, Throwable throwable) {
+        if (throwable != null) {
+            log.warn("Failed to write presence entry: {}", throwable.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
@@ -1,9 +1,12 @@
 package it.einjojo.playerapi;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Parser;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.resource.ClientResources;
 import io.lettuce.core.pubsub.RedisPubSubAdapter;
 import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import it.einjojo.playerapi.config.RedisConnectionConfiguration;
@@ -11,6 +14,7 @@ import it.einjojo.protocol.player.ConnectRequest;
 import it.einjojo.protocol.player.ConnectResponse;
 import it.einjojo.protocol.player.LoginNotify;
 import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.ServerSwitchNotify;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -18,31 +22,61 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
-import java.util.Arrays;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * @author EinjoJo
  * <p>Lazy redis handler. Stays inactive as long as no consumers are registered.</p>
- * <p>Listens to playerapi:login and playerapi:logout channels and dispatch the received protobuf messages to the provided consumers.</p>
+ * <p>Listens to the login, logout and server switch channels and dispatch the received protobuf messages to the provided consumers.</p>
+ * <p>Nothing blocks: the connection is opened and the channels are (un)subscribed asynchronously. A channel is
+ * unsubscribed when its last consumer leaves, and the pub sub connection is closed when no channel is left. A failed
+ * connect or SUBSCRIBE is retried with a growing backoff for as long as the channel has consumers.</p>
+ * <p>Notifications can also be sharded by proxy, e.g. {@code plapi:li:proxy-1}, and server switches by server, e.g.
+ * {@code plapi:sw:lobby-3}. Filtered subscriptions only subscribe
+ * to the matching shards (with PSUBSCRIBE if the filter contains wildcards), so a backend only receives and parses
+ * the notifications it cares about. Login and logout shards are published by the proxies unless
+ * {@code notifications.publishShards} is turned off.</p>
  */
 public class RedisPubSubHandler extends RedisPubSubAdapter<byte[], byte[]> implements Closeable {
     protected static final byte[] LOGIN_NOTIFY_CHANNEL = "plapi:li".getBytes();
     protected static final byte[] LOGOUT_NOTIFY_CHANNEL = "plapi:lo".getBytes();
+    protected static final byte[] SERVER_SWITCH_CHANNEL = "plapi:sw".getBytes();
     protected static final byte[] CONNECT_REQ_CHANNEL = "plapi:co".getBytes();
     protected static final byte[] CONNECT_RES_CHANNEL = "plapi:rco".getBytes();
     private static final Logger log = LoggerFactory.getLogger(RedisPubSubHandler.class);
+    private static final long MIN_RETRY_MILLIS = 500;
+    private static final long MAX_RETRY_MILLIS = 30_000;
     private final RedisURI redisUri;
     private final Executor executor;
-    private @Nullable List<Consumer<LoginNotify>> loginNotifyConsumers;
-    private @Nullable List<Consumer<LogoutNotify>> logoutNotifyConsumers;
-    private @Nullable Consumer<ConnectRequest> connectRequestConsumer;
-    private @Nullable Consumer<ConnectResponse> connectResponseConsumer;
+    private final ClientResources clientResources;
+    private final Topic<LoginNotify> loginNotify = new Topic<>(LOGIN_NOTIFY_CHANNEL, "login notify", LoginNotify.parser());
+    private final Topic<LogoutNotify> logoutNotify = new Topic<>(LOGOUT_NOTIFY_CHANNEL, "logout notify", LogoutNotify.parser());
+    private final Topic<ServerSwitchNotify> serverSwitchNotify = new Topic<>(SERVER_SWITCH_CHANNEL, "server switch notify", ServerSwitchNotify.parser());
+    private final Topic<ConnectRequest> connectRequest = new Topic<>(CONNECT_REQ_CHANNEL, "connect request", ConnectRequest.parser());
+    private final Topic<ConnectResponse> connectResponse = new Topic<>(CONNECT_RES_CHANNEL, "connect response", ConnectResponse.parser());
+    // keyed by the wrapped channel name (or pattern), so a message is routed with one lookup
+    private final Map<ByteBuffer, Topic<?>> topics = new ConcurrentHashMap<>(Map.of(
+            ByteBuffer.wrap(LOGIN_NOTIFY_CHANNEL), loginNotify,
+            ByteBuffer.wrap(LOGOUT_NOTIFY_CHANNEL), logoutNotify,
+            ByteBuffer.wrap(SERVER_SWITCH_CHANNEL), serverSwitchNotify,
+            ByteBuffer.wrap(CONNECT_REQ_CHANNEL), connectRequest,
+            ByteBuffer.wrap(CONNECT_RES_CHANNEL), connectResponse
+    ));
+    private final Map<ByteBuffer, Topic<?>> patternTopics = new ConcurrentHashMap<>();
     private @Nullable RedisClient client;
-    private @Nullable StatefulRedisPubSubConnection<byte[], byte[]> connection;
+    // guarded by connectionLock
+    private @Nullable CompletableFuture<StatefulRedisPubSubConnection<byte[], byte[]>> connectionFuture;
+    private @Nullable CompletableFuture<StatefulRedisConnection<byte[], byte[]>> commandConnectionFuture;
+    private volatile @Nullable StatefulRedisPubSubConnection<byte[], byte[]> connection;
     private final Object connectionLock = new Object();
 
 
@@ -51,147 +85,291 @@ public class RedisPubSubHandler extends RedisPubSubAdapter<byte[], byte[]> imple
      *
      * @param redisConnectionConfiguration config
      * @param executor                     avoid blocking Event-Loop in Pub Sub Listener
+     * @param clientResources              event loops shared by the redis clients of the plugin, not closed by this handler
      */
-    public RedisPubSubHandler(@NotNull RedisConnectionConfiguration redisConnectionConfiguration, Executor executor) {
+    public RedisPubSubHandler(@NotNull RedisConnectionConfiguration redisConnectionConfiguration, Executor executor, ClientResources clientResources) {
         this.redisUri = redisConnectionConfiguration.createUri("playerapi");
         this.executor = executor;
+        this.clientResources = clientResources;
     }
 
 
-    public Closeable subscribeLogin(Consumer<LoginNotify> consumer) {
-        var connection = getOpenConnection();
-        if (loginNotifyConsumers == null) {
-            loginNotifyConsumers = new LinkedList<>();
-            connection.sync().subscribe(LOGIN_NOTIFY_CHANNEL);
-            log.info("Subscribed to login notify channel");
-        }
-        loginNotifyConsumers.add(consumer);
-        log.info("Registered login notify consumer");
-        return () -> loginNotifyConsumers.remove(consumer);
+    /**
+     * Consumers can be added and removed from any thread, also while a message is dispatched. A dispatch iterates
+     * over the consumers that were registered when it started.
+     *
+     * @param consumer receives the login notifications
+     * @return the subscription, close it to unsubscribe
+     */
+    public RedisSubscription subscribeLogin(Consumer<LoginNotify> consumer) {
+        return subscribe(loginNotify, consumer);
     }
 
 
-    public Closeable subscribeLogout(Consumer<LogoutNotify> consumer) {
-        var connection = getOpenConnection();
-        if (logoutNotifyConsumers == null) {
-            logoutNotifyConsumers = new LinkedList<>();
-            connection.sync().subscribe(LOGOUT_NOTIFY_CHANNEL);
-            log.info("Subscribed to logout notify channel");
-        }
-        logoutNotifyConsumers.add(consumer);
-        log.info("Registered logout notify consumer");
-        return () -> logoutNotifyConsumers.remove(consumer);
+    public RedisSubscription subscribeLogout(Consumer<LogoutNotify> consumer) {
+        return subscribe(logoutNotify, consumer);
     }
 
-    @ApiStatus.Internal
-    protected void setConnectRequestConsumer(Consumer<ConnectRequest> consumer) {
-        var connection = getOpenConnection();
-        if (connectRequestConsumer == null) {
-            connection.sync().subscribe(CONNECT_REQ_CHANNEL);
-            log.info("Subscribed to connect request channel");
+    /**
+     * Subscribes to the login notifications of some proxies only.
+     *
+     * @param proxyFilter name of the proxy, may contain the glob wildcards {@code *}, {@code ?} and {@code [...]}
+     * @param consumer    receives the login notifications
+     * @return the subscription, close it to unsubscribe
+     */
+    public RedisSubscription subscribeLogin(String proxyFilter, Consumer<LoginNotify> consumer) {
+        return subscribeShard(LOGIN_NOTIFY_CHANNEL, proxyFilter, "login notify", LoginNotify.parser(), consumer);
+    }
+
+    /**
+     * Subscribes to the logout notifications of some proxies only.
+     *
+     * @param proxyFilter name of the proxy, may contain the glob wildcards {@code *}, {@code ?} and {@code [...]}
+     * @param consumer    receives the logout notifications
+     * @return the subscription, close it to unsubscribe
+     */
+    public RedisSubscription subscribeLogout(String proxyFilter, Consumer<LogoutNotify> consumer) {
+        return subscribeShard(LOGOUT_NOTIFY_CHANNEL, proxyFilter, "logout notify", LogoutNotify.parser(), consumer);
+    }
+
+    public RedisSubscription subscribeServerSwitch(Consumer<ServerSwitchNotify> consumer) {
+        return subscribe(serverSwitchNotify, consumer);
+    }
+
+    /**
+     * Subscribes to the server switches to some servers only.
+     *
+     * @param serverFilter name of the target server, may contain the glob wildcards {@code *}, {@code ?} and {@code [...]}
+     * @param consumer     receives the server switch notifications
+     * @return the subscription, close it to unsubscribe
+     */
+    public RedisSubscription subscribeServerSwitch(String serverFilter, Consumer<ServerSwitchNotify> consumer) {
+        return subscribeShard(SERVER_SWITCH_CHANNEL, serverFilter, "server switch notify", ServerSwitchNotify.parser(), consumer);
+    }
+
+    /**
+     * getter
+     *
+     * @param channel the channel of all notifications
+     * @param shard   the name of the proxy or server
+     * @return the channel of the notifications of the shard, like {@code plapi:li:proxy-1}
+     */
+    public static byte[] shardChannel(byte[] channel, String shard) {
+        return (new String(channel, StandardCharsets.UTF_8) + ":" + shard).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The topic is looked up and the consumer added under the lock, otherwise the last consumer of the topic could
+     * leave in between and remove it.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> RedisSubscription subscribeShard(byte[] channel, String filter, String kind, Parser<T> parser, Consumer<T> consumer) {
+        boolean pattern = filter.indexOf('*') >= 0 || filter.indexOf('?') >= 0 || filter.indexOf('[') >= 0;
+        byte[] name = shardChannel(channel, filter);
+        Map<ByteBuffer, Topic<?>> map = pattern ? patternTopics : topics;
+        synchronized (connectionLock) {
+            Topic<T> topic = (Topic<T>) map.computeIfAbsent(ByteBuffer.wrap(name), key -> new Topic<>(name, kind + " " + filter, parser, pattern, true));
+            return subscribe(topic, consumer);
         }
-        connectRequestConsumer = consumer;
     }
 
     @ApiStatus.Internal
-    protected void setConnectResponseConsumer(Consumer<ConnectResponse> consumer) {
-        var connection = getOpenConnection();
-        if (connectResponseConsumer == null) {
-            connection.sync().subscribe(CONNECT_RES_CHANNEL);
-            log.info("Subscribed to connect response channel");
-        }
-        connectResponseConsumer = consumer;
+    protected RedisSubscription setConnectRequestConsumer(Consumer<ConnectRequest> consumer) {
+        return replace(connectRequest, consumer);
     }
 
-    public @NotNull StatefulRedisPubSubConnection<byte[], byte[]> getOpenConnection() {
+    @ApiStatus.Internal
+    protected RedisSubscription setConnectResponseConsumer(Consumer<ConnectResponse> consumer) {
+        return replace(connectResponse, consumer);
+    }
 
-        if (connection != null) {
-            return connection;
+    private <T> RedisSubscription replace(Topic<T> topic, Consumer<T> consumer) {
+        synchronized (connectionLock) {
+            // the channel stays subscribed while the consumer is swapped
+            topic.consumers.clear();
+            return subscribe(topic, consumer);
         }
+    }
 
+    private <T> RedisSubscription subscribe(Topic<T> topic, Consumer<T> consumer) {
+        CompletableFuture<Void> subscribed;
         synchronized (connectionLock) {
-            if (connection == null) {
-                if (client == null) {
-                    client = RedisClient.create(redisUri);
-                    log.info("Created redis client");
-                }
-                this.connection = client.connectPubSub(ByteArrayCodec.INSTANCE);
-                this.connection.addListener(this);
+            topic.consumers.add(consumer);
+            if (topic.subscribed == null) {
+                topic.subscribed = new CompletableFuture<>();
+                trySubscribe(topic, topic.subscribed, MIN_RETRY_MILLIS);
             }
+            subscribed = topic.subscribed;
         }
+        log.info("Registered {} consumer", topic.kind);
+        // a future of its own, so a caller that cancels it does not fail the subscription of the others
+        return new RedisSubscription(subscribed.thenApply(ignored -> null), () -> unsubscribe(topic, consumer));
+    }
 
-        log.info("Opened connection to redis pub sub");
-        return connection;
+    /**
+     * Subscribes the channel of the topic and tries again with a growing backoff as long as the topic keeps its
+     * consumers, that is as long as {@code cycle} is the current subscription of the topic. Called under the lock.
+     */
+    private void trySubscribe(Topic<?> topic, CompletableFuture<Void> cycle, long backoffMillis) {
+        CompletableFuture<Void> attempt = openConnection().thenCompose(connection -> (topic.pattern
+                ? connection.async().psubscribe(topic.channel)
+                : connection.async().subscribe(topic.channel)).toCompletableFuture());
+        topic.attempt = attempt;
+        attempt.whenComplete((ignored, throwable) -> {
+            synchronized (connectionLock) {
+                // unsubscribed in the meantime
+                if (topic.subscribed != cycle) return;
+            }
+            if (throwable == null) {
+                log.info("Subscribed to {} channel", topic.kind);
+                cycle.complete(null);
+                return;
+            }
+            log.warn("Failed to subscribe to {} channel, retrying in {} ms: {}", topic.kind, backoffMillis, throwable.getMessage());
+            CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS, executor).execute(() -> {
+                synchronized (connectionLock) {
+                    if (topic.subscribed != cycle) return;
+                    trySubscribe(topic, cycle, Math.min(backoffMillis * 2, MAX_RETRY_MILLIS));
+                }
+            });
+        });
     }
 
-    @Override
-    public void message(byte[] channel, byte[] message) {
-        // pass to executor to avoid any unpurposed blocking calls inside this Pub/Sub callback
-        if (loginNotifyConsumers != null && Arrays.equals(channel, LOGIN_NOTIFY_CHANNEL)) {
-            try {
-                LoginNotify notify = LoginNotify.parseFrom(message);
-                // capture the list reference to avoid races where the field is cleared while the runnable is queued
-                var consumers = loginNotifyConsumers;
-                if (consumers == null) return;
-                executor.execute(() -> {
-                    for (Consumer<LoginNotify> consumer : consumers) {
-                        try {
-                            consumer.accept(notify);
-                        } catch (Exception e) {
-                            log.error("Exception during login notify consumer processing", e);
-                        }
-                    }
-                });
-            } catch (InvalidProtocolBufferException e) {
-                log.error("Failed to parse LoginNotify message", e);
+    private <T> void unsubscribe(Topic<T> topic, Consumer<T> consumer) {
+        synchronized (connectionLock) {
+            if (!topic.consumers.remove(consumer) || !topic.consumers.isEmpty()) return;
+            if (topic.dynamic) {
+                (topic.pattern ? patternTopics : topics).remove(ByteBuffer.wrap(topic.channel));
             }
-        } else if (logoutNotifyConsumers != null && Arrays.equals(channel, LOGOUT_NOTIFY_CHANNEL)) {
-            try {
-                LogoutNotify logoutNotify = LogoutNotify.parseFrom(message);
-                var consumers = logoutNotifyConsumers;
-                if (consumers == null) return;
-                executor.execute(() -> {
-                    for (Consumer<LogoutNotify> consumer : consumers) {
-                        try {
-                            consumer.accept(logoutNotify);
-                        } catch (Exception e) {
-                            log.error("Exception during logout notify consumer processing", e);
+            if (topic.subscribed == null) return;
+            // stops the retries, the handles of the consumers see the cancellation
+            topic.subscribed.cancel(false);
+            CompletableFuture<?> attempt = topic.attempt;
+            topic.subscribed = null;
+            topic.attempt = null;
+            var open = connectionFuture;
+            if (open == null) return;
+            CompletableFuture<?> unsubscribed = attempt.handle((ignored, throwable) -> null)
+                    .thenCompose(ignored -> open)
+                    .thenCompose(connection -> (topic.pattern
+                            ? connection.async().punsubscribe(topic.channel)
+                            : connection.async().unsubscribe(topic.channel)).toCompletableFuture())
+                    .whenComplete((ignored, throwable) -> {
+                        if (throwable == null) log.info("Unsubscribed from {} channel", topic.kind);
+                    });
+            if (topics.values().stream().allMatch(t -> t.subscribed == null) && patternTopics.isEmpty()) {
+                // nothing left to listen to, stop receiving and parsing every notification
+                connectionFuture = null;
+                connection = null;
+                unsubscribed.handle((ignored, throwable) -> null)
+                        .thenCompose(ignored -> open)
+                        .thenCompose(StatefulRedisPubSubConnection::closeAsync)
+                        .whenComplete((ignored, throwable) -> log.info("Closed idle redis pub sub connection"));
+            }
+        }
+    }
+
+    private CompletableFuture<StatefulRedisPubSubConnection<byte[], byte[]>> openConnection() {
+        synchronized (connectionLock) {
+            if (connectionFuture == null) {
+                CompletableFuture<StatefulRedisPubSubConnection<byte[], byte[]>> opening = connectPubSub()
+                        .thenApply(created -> {
+                            created.addListener(this);
+                            log.info("Opened connection to redis pub sub");
+                            return created;
+                        });
+                connectionFuture = opening;
+                opening.whenComplete((created, throwable) -> {
+                    synchronized (connectionLock) {
+                        // closed while it was opened
+                        if (connectionFuture != opening) return;
+                        if (throwable != null) {
+                            connectionFuture = null;
+                        } else {
+                            connection = created;
                         }
                     }
                 });
-            } catch (InvalidProtocolBufferException e) {
-                log.error("Failed to parse LogoutNotify message", e);
             }
-        } else if (connectRequestConsumer != null && Arrays.equals(channel, CONNECT_REQ_CHANNEL)) {
-            try {
-                ConnectRequest connectRequest = ConnectRequest.parseFrom(message);
-                var consumer = connectRequestConsumer;
-                if (consumer == null) return;
-                executor.execute(() -> {
-                    try {
-                        consumer.accept(connectRequest);
-                    } catch (Exception ex) {
-                        log.error("Exception during connect request consumer processing", ex);
-                    }
-                });
-            } catch (InvalidProtocolBufferException e) {
-                log.error("Failed to parse ConnectRequest message", e);
+            return connectionFuture;
+        }
+    }
+
+    /**
+     * Opens a new pub sub connection, replaced by tests that run without redis.
+     *
+     * @return a future that completes with the connection
+     */
+    CompletableFuture<StatefulRedisPubSubConnection<byte[], byte[]>> connectPubSub() {
+        return getOpenClient().connectPubSubAsync(ByteArrayCodec.INSTANCE, redisUri).toCompletableFuture();
+    }
+
+    /**
+     * Publishing needs a regular connection, which is opened on the first publish and kept.
+     *
+     * @param channel the channel
+     * @param message the message
+     * @return the amount of clients that received the message
+     */
+    public CompletableFuture<Long> publish(byte[] channel, byte[] message) {
+        return openCommandConnection().thenCompose(connection -> connection.async().publish(channel, message).toCompletableFuture());
+    }
+
+    /**
+     * getter
+     *
+     * @return the reply of the redis server to a PING.
+     */
+    public CompletableFuture<String> ping() {
+        return openCommandConnection().thenCompose(connection -> connection.async().ping().toCompletableFuture());
+    }
+
+    private CompletableFuture<StatefulRedisConnection<byte[], byte[]>> openCommandConnection() {
+        synchronized (connectionLock) {
+            if (commandConnectionFuture == null || commandConnectionFuture.isCompletedExceptionally()) {
+                commandConnectionFuture = connectAsync();
             }
-        } else if (connectResponseConsumer != null && Arrays.equals(channel, CONNECT_RES_CHANNEL)) {
-            try {
-                ConnectResponse connectResponse = ConnectResponse.parseFrom(message);
-                var consumer = connectResponseConsumer;
-                if (consumer == null) return;
-                executor.execute(() -> {
-                    try {
-                        consumer.accept(connectResponse);
-                    } catch (Exception e) {
-                        log.error("Exception during connect response consumer processing", e);
-                    }
-                });
-            } catch (InvalidProtocolBufferException e) {
-                log.error("Failed to parse ConnectResponse message", e);
+            return commandConnectionFuture;
+        }
+    }
+
+    /**
+     * Opens a regular connection of its own, for features that block or transact on their connection.
+     *
+     * @return a future that completes with the connection
+     */
+    public CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connectAsync() {
+        return getOpenClient().connectAsync(ByteArrayCodec.INSTANCE, redisUri).toCompletableFuture();
+    }
+
+    /**
+     * The client is shared with other redis features, which open their own connections on it.
+     *
+     * @return the redis client, created if it does not exist yet.
+     */
+    public @NotNull RedisClient getOpenClient() {
+        synchronized (connectionLock) {
+            if (client == null) {
+                client = RedisClient.create(clientResources, redisUri);
+                log.info("Created redis client");
             }
+            return client;
+        }
+    }
+
+    @Override
+    public void message(byte[] channel, byte[] message) {
+        Topic<?> topic = topics.get(ByteBuffer.wrap(channel));
+        if (topic != null) {
+            topic.handle(message);
+        }
+    }
+
+    @Override
+    public void message(byte[] pattern, byte[] channel, byte[] message) {
+        Topic<?> topic = patternTopics.get(ByteBuffer.wrap(pattern));
+        if (topic != null) {
+            topic.handle(message);
         }
     }
 
@@ -199,17 +377,91 @@ public class RedisPubSubHandler extends RedisPubSubAdapter<byte[], byte[]> imple
         return client;
     }
 
+    /**
+     * getter
+     *
+     * @return the pub sub connection or null if it is not open, because no channel is subscribed.
+     */
     public @Nullable StatefulRedisPubSubConnection<byte[], byte[]> getConnection() {
         return connection;
     }
 
     @Override
     public void close() {
-        if (connection != null) {
-            connection.close();
+        synchronized (connectionLock) {
+            // stops pending retries from opening a new connection
+            for (Map<ByteBuffer, Topic<?>> map : List.of(topics, patternTopics)) {
+                for (Topic<?> topic : map.values()) {
+                    if (topic.subscribed != null) topic.subscribed.cancel(false);
+                    topic.subscribed = null;
+                    topic.attempt = null;
+                }
+            }
+            if (connectionFuture != null) {
+                connectionFuture.thenAccept(StatefulRedisPubSubConnection::close);
+                connectionFuture = null;
+            }
+            if (commandConnectionFuture != null) {
+                commandConnectionFuture.thenAccept(StatefulRedisConnection::close);
+                commandConnectionFuture = null;
+            }
+            connection = null;
         }
         if (client != null) {
             client.close();
         }
     }
+
+    /**
+     * A channel with its message type and consumers.
+     */
+    private final class Topic<T> {
+        private final byte[] channel;
+        private final String kind;
+        private final Parser<T> parser;
+        private final boolean pattern;
+        // created for a filter and removed with its last consumer
+        private final boolean dynamic;
+        private final List<Consumer<T>> consumers = new CopyOnWriteArrayList<>();
+        // guarded by connectionLock, null while the topic has no consumers, completes once the channel is subscribed
+        private @Nullable CompletableFuture<Void> subscribed;
+        // guarded by connectionLock, the running or last failed SUBSCRIBE of the current subscription
+        private @Nullable CompletableFuture<?> attempt;
+
+        private Topic(byte[] channel, String kind, Parser<T> parser) {
+            this(channel, kind, parser, false, false);
+        }
+
+        private Topic(byte[] channel, String kind, Parser<T> parser, boolean pattern, boolean dynamic) {
+            this.channel = channel;
+            this.kind = kind;
+            this.parser = parser;
+            this.pattern = pattern;
+            this.dynamic = dynamic;
+        }
+
+        /**
+         * Passes the message to the executor to avoid any unpurposed blocking calls inside the Pub/Sub callback.
+         * Iterating a copy-on-write list never sees concurrent changes, so no copy is needed here.
+         */
+        private void handle(byte[] message) {
+            if (consumers.isEmpty()) return;
+            T parsed;
+            try {
+                parsed = parser.parseFrom(message);
+            } catch (InvalidProtocolBufferException e) {
+                log.error("Failed to parse {} message", kind, e);
+                return;
+            }
+            executor.execute(() -> {
+                for (Consumer<T> consumer : consumers) {
+                    try {
+                        consumer.accept(parsed);
+                    } catch (Exception e) {
+                        log.error("Exception during {} consumer processing", kind, e);
+                    }
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package it.einjojo.playerapi;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A consumer registered at the {@link RedisPubSubHandler}. Registering does not wait for redis, the future tells when
+ * the channel is subscribed.
+ */
+public class RedisSubscription implements Closeable {
+    private final CompletableFuture<Void> subscribed;
+    private final Runnable unsubscribe;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Constructor for RedisSubscription.
+     *
+     * @param subscribed  completes when the channel is subscribed
+     * @param unsubscribe removes the consumer
+     */
+    public RedisSubscription(CompletableFuture<Void> subscribed, Runnable unsubscribe) {
+        this.subscribed = subscribed;
+        this.unsubscribe = unsubscribe;
+    }
+
+    /**
+     * getter
+     *
+     * @return a future that completes when the channel is subscribed, messages published before are not received.
+     */
+    public CompletableFuture<Void> subscribed() {
+        return subscribed;
+    }
+
+    /**
+     * Removes the consumer. The channel is unsubscribed if it was the last one, without waiting for redis.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            unsubscribe.run();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for collecting concurrent single lookups into batch requests.
+ *
+ * @param enabled      whether single offline player lookups by UUID are batched
+ * @param windowMicros microseconds a batch collects lookups before it is sent
+ * @param maxBatchSize amount of lookups after which a batch is sent immediately
+ */
+public record BatchingConfiguration(boolean enabled, long windowMicros, int maxBatchSize) {
+    public static final BatchingConfiguration DEFAULT = new BatchingConfiguration(false, 2_000, 64);
+
+    public BatchingConfiguration {
+        if (windowMicros <= 0) windowMicros = 2_000;
+        if (maxBatchSize <= 0) maxBatchSize = 64;
+    }
+}
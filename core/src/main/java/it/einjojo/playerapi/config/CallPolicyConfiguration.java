@@ -0,0 +1,138 @@
+package it.einjojo.playerapi.config;
+
+import io.grpc.MethodDescriptor;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for deadlines, hedging and retries of the calls to the player service.
+ * <p>The policy is installed as the gRPC service config of the channel. Hedges and retries share one token bucket
+ * ({@code retryThrottling}): every failed attempt takes a token, every success returns {@code retryTokenRatio} tokens,
+ * and no further attempts are sent while less than half of the tokens are left.</p>
+ *
+ * @param enabled            whether the call policy is installed, otherwise calls have no deadline and are never retried
+ * @param readTimeoutMillis  deadline of single player lookups
+ * @param bulkTimeoutMillis  deadline of online player lists and batch lookups
+ * @param writeTimeoutMillis deadline of login, logout and connection updates
+ * @param hedgingEnabled     whether single player lookups are hedged, otherwise they are retried. Off by default, as
+ *                           every hedge is an additional request to the service
+ * @param hedgingDelayMillis milliseconds after which another attempt of a pending lookup is sent
+ * @param maxAttempts        maximum attempts per call, including the first one
+ * @param retryMaxTokens     size of the token bucket
+ * @param retryTokenRatio    tokens returned to the bucket per successful call
+ */
+public record CallPolicyConfiguration(boolean enabled, long readTimeoutMillis, long bulkTimeoutMillis,
+                                      long writeTimeoutMillis, boolean hedgingEnabled, long hedgingDelayMillis,
+                                      int maxAttempts, int retryMaxTokens, double retryTokenRatio) {
+    public static final CallPolicyConfiguration DEFAULT = new CallPolicyConfiguration(true, 2_000, 5_000, 3_000, false, 50, 3, 10, 0.1);
+    /**
+     * Idempotent single player lookups, hedged if enabled.
+     */
+    public static final List<MethodDescriptor<?, ?>> SINGLE_READS = List.of(
+            PlayerServiceGrpc.getGetOfflinePlayerByUniqueIdMethod(),
+            PlayerServiceGrpc.getGetOnlinePlayerByUniqueIdMethod(),
+            PlayerServiceGrpc.getGetOfflinePlayerByNameMethod(),
+            PlayerServiceGrpc.getGetOnlinePlayerByNameMethod(),
+            PlayerServiceGrpc.getGetUniqueIdByNameMethod()
+    );
+    /**
+     * Idempotent reads with larger responses, retried if the service is unavailable.
+     */
+    public static final List<MethodDescriptor<?, ?>> BULK_READS = List.of(
+            PlayerServiceGrpc.getGetOnlinePlayersMethod(),
+            PlayerServiceGrpc.getGetOnlinePlayerNamesMethod(),
+            PlayerServiceGrpc.getGetOfflinePlayersByUniqueIdsMethod(),
+            PlayerServiceGrpc.getGetUniqueIdsByNamesMethod()
+    );
+    /**
+     * Idempotent writes, retried if the service is unavailable.
+     */
+    public static final List<MethodDescriptor<?, ?>> RETRYABLE_WRITES = List.of(
+            PlayerServiceGrpc.getUpdateConnectionMethod()
+    );
+    /**
+     * Writes that are not idempotent and therefore never retried.
+     */
+    public static final List<MethodDescriptor<?, ?>> WRITES = List.of(
+            PlayerServiceGrpc.getLoginMethod(),
+            PlayerServiceGrpc.getLogoutMethod()
+    );
+
+    public CallPolicyConfiguration {
+        if (readTimeoutMillis <= 0) readTimeoutMillis = 2_000;
+        if (bulkTimeoutMillis <= 0) bulkTimeoutMillis = 5_000;
+        if (writeTimeoutMillis <= 0) writeTimeoutMillis = 3_000;
+        if (hedgingDelayMillis <= 0) hedgingDelayMillis = 50;
+        if (maxAttempts <= 0) maxAttempts = 3;
+        if (retryMaxTokens <= 0) retryMaxTokens = 10;
+        if (retryTokenRatio <= 0) retryTokenRatio = 0.1;
+    }
+
+    /**
+     * Builds the gRPC service config. Streaming calls are not listed and therefore have neither a deadline nor retries.
+     *
+     * @return the service config in the map form expected by {@code ManagedChannelBuilder#defaultServiceConfig}
+     */
+    public Map<String, ?> toServiceConfig() {
+        List<Map<String, ?>> methodConfig = new ArrayList<>();
+        if (hedgingEnabled) {
+            methodConfig.add(methodConfig(SINGLE_READS, readTimeoutMillis, "hedgingPolicy", hedgingPolicy()));
+        } else {
+            methodConfig.add(methodConfig(SINGLE_READS, readTimeoutMillis, "retryPolicy", retryPolicy()));
+        }
+        methodConfig.add(methodConfig(BULK_READS, bulkTimeoutMillis, "retryPolicy", retryPolicy()));
+        methodConfig.add(methodConfig(RETRYABLE_WRITES, writeTimeoutMillis, "retryPolicy", retryPolicy()));
+        methodConfig.add(methodConfig(WRITES, writeTimeoutMillis, null, null));
+        Map<String, Object> serviceConfig = new LinkedHashMap<>();
+        serviceConfig.put("methodConfig", methodConfig);
+        serviceConfig.put("retryThrottling", Map.of(
+                "maxTokens", (double) retryMaxTokens,
+                "tokenRatio", retryTokenRatio
+        ));
+        return serviceConfig;
+    }
+
+    private static Map<String, ?> methodConfig(List<MethodDescriptor<?, ?>> methods, long timeoutMillis, String policyName, Map<String, ?> policy) {
+        List<Map<String, ?>> names = new ArrayList<>(methods.size());
+        for (MethodDescriptor<?, ?> method : methods) {
+            names.add(Map.of(
+                    "service", method.getServiceName(),
+                    "method", method.getBareMethodName()
+            ));
+        }
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("name", names);
+        config.put("timeout", duration(timeoutMillis));
+        if (policyName != null) {
+            config.put(policyName, policy);
+        }
+        return config;
+    }
+
+    private Map<String, ?> hedgingPolicy() {
+        return Map.of(
+                "maxAttempts", (double) maxAttempts,
+                "hedgingDelay", duration(hedgingDelayMillis),
+                "nonFatalStatusCodes", List.of("UNAVAILABLE")
+        );
+    }
+
+    private Map<String, ?> retryPolicy() {
+        return Map.of(
+                "maxAttempts", (double) maxAttempts,
+                "initialBackoff", "0.1s",
+                "maxBackoff", "1s",
+                "backoffMultiplier", 2.0,
+                "retryableStatusCodes", List.of("UNAVAILABLE")
+        );
+    }
+
+    private static String duration(long millis) {
+        return String.format(Locale.ROOT, "%.3fs", millis / 1000.0);
+    }
+}
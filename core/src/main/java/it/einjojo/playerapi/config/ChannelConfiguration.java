@@ -0,0 +1,30 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings that keep the connection to the player service hot.
+ * <p>Servers close connections that ping more often than they permit (5 minutes and only with active calls by
+ * default), so shorter keepalives need a matching {@code permitKeepAliveTime} and
+ * {@code permitKeepAliveWithoutCalls} on the service.</p>
+ *
+ * @param keepAliveTimeMillis    interval of the keepalive pings, 0 disables them
+ * @param keepAliveTimeoutMillis time to wait for the ping ack before the connection is considered dead
+ * @param keepAliveWithoutCalls  whether pings are also sent while no call is active, keeps idle connections through NAT
+ * @param idleTimeoutMillis      time without calls after which the connection is closed, 0 never closes it, unlike
+ *                               the gRPC default of 30 minutes that would undo the warm-up on quiet proxies
+ * @param warmUp                 whether the plugins wait for a round trip to the service before providing the api
+ * @param warmUpTimeoutMillis    time the plugins wait for the warm-up, the api is provided (not ready) afterwards
+ * @param warmUpRetryMillis      delay between warm-up attempts until the service has answered once
+ */
+public record ChannelConfiguration(long keepAliveTimeMillis, long keepAliveTimeoutMillis, boolean keepAliveWithoutCalls,
+                                   long idleTimeoutMillis, boolean warmUp, long warmUpTimeoutMillis,
+                                   long warmUpRetryMillis) {
+    public static final ChannelConfiguration DEFAULT = new ChannelConfiguration(300000, 20000, false, 0, true, 5000, 2000);
+
+    public ChannelConfiguration {
+        if (keepAliveTimeMillis < 0) keepAliveTimeMillis = 0;
+        if (keepAliveTimeoutMillis <= 0) keepAliveTimeoutMillis = 20000;
+        if (idleTimeoutMillis < 0) idleTimeoutMillis = 0;
+        if (warmUpTimeoutMillis <= 0) warmUpTimeoutMillis = 5000;
+        if (warmUpRetryMillis <= 0) warmUpRetryMillis = 2000;
+    }
+}
@@ -0,0 +1,25 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for the circuit breaker in front of the player service and the stale fallback of read calls.
+ *
+ * @param enabled             whether calls are rejected locally while the player service is failing
+ * @param failureThreshold    consecutive failed calls after which the breaker opens
+ * @param openMillis          milliseconds the breaker stays open before it starts probing
+ * @param rampUpMillis        milliseconds over which the probing lets the traffic back in, from a few calls to all
+ * @param fallbackEnabled     whether failed read calls are answered from the last known good responses, marked stale
+ * @param fallbackMaximumSize maximum amount of remembered responses
+ * @param fallbackTtlSeconds  seconds a remembered response may be served as fallback
+ */
+public record CircuitBreakerConfiguration(boolean enabled, int failureThreshold, long openMillis, long rampUpMillis,
+                                          boolean fallbackEnabled, int fallbackMaximumSize, long fallbackTtlSeconds) {
+    public static final CircuitBreakerConfiguration DEFAULT = new CircuitBreakerConfiguration(false, 5, 5_000, 10_000, false, 10_000, 600);
+
+    public CircuitBreakerConfiguration {
+        if (failureThreshold <= 0) failureThreshold = 5;
+        if (openMillis <= 0) openMillis = 5_000;
+        if (rampUpMillis <= 0) rampUpMillis = 10_000;
+        if (fallbackMaximumSize <= 0) fallbackMaximumSize = 10_000;
+        if (fallbackTtlSeconds <= 0) fallbackTtlSeconds = 600;
+    }
+}
@@ -0,0 +1,89 @@
+package it.einjojo.playerapi.config;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Settings for the threads of the plugin.
+ * <p>The gRPC transport callbacks, the mapping of the responses and the dispatch of the pub sub messages each get an
+ * executor of its own. Modes: {@code cached} grows a platform thread per concurrent task, {@code virtual} starts a
+ * virtual thread per task, {@code bounded} uses a fixed amount of platform threads with a bounded queue (the caller
+ * runs the task if it is full) and {@code direct} runs the task on the thread that completes it, which must not
+ * block.</p>
+ * <p>The network IO runs on event loops that are shared by all gRPC channels and all redis clients of the plugin.</p>
+ * <p>With a {@code threadBudget}, the pools that start platform threads are shrunk, largest first, until they fit into
+ * the budget. Every pool keeps at least one thread, so a budget below the amount of pools is exceeded.</p>
+ *
+ * @param mode                    one of {@code cached}, {@code virtual}, {@code bounded} or {@code direct}
+ * @param transportThreads        threads of the gRPC transport executor in bounded mode
+ * @param callbackThreads         threads of the callback executor in bounded mode
+ * @param dispatchThreads         threads of the pub sub dispatch executor in bounded mode
+ * @param queueCapacity           queued tasks per executor in bounded mode
+ * @param grpcEventLoopThreads    event loop threads of the gRPC channels
+ * @param redisIoThreads          event loop threads of the redis clients
+ * @param redisComputationThreads threads of the redis clients for timeouts, reconnects and events
+ * @param threadBudget            platform threads the pools may start at most, 0 for no limit
+ */
+public record ExecutorConfiguration(String mode, int transportThreads, int callbackThreads, int dispatchThreads,
+                                    int queueCapacity, int grpcEventLoopThreads, int redisIoThreads,
+                                    int redisComputationThreads, int threadBudget) {
+    public static final Set<String> MODES = Set.of("cached", "virtual", "bounded", "direct");
+    public static final ExecutorConfiguration DEFAULT = new ExecutorConfiguration("cached", 4, 8, 2, 10000, 2, 2, 1, 0);
+
+    public ExecutorConfiguration {
+        mode = mode == null ? "cached" : mode.toLowerCase(Locale.ROOT);
+        if (!MODES.contains(mode)) mode = "cached";
+        if (transportThreads < 1) transportThreads = 4;
+        if (callbackThreads < 1) callbackThreads = 8;
+        if (dispatchThreads < 1) dispatchThreads = 2;
+        if (queueCapacity < 1) queueCapacity = 10000;
+        if (grpcEventLoopThreads < 1) grpcEventLoopThreads = 2;
+        if (redisIoThreads < 1) redisIoThreads = 2;
+        if (redisComputationThreads < 1) redisComputationThreads = 1;
+        if (threadBudget < 0) threadBudget = 0;
+        if (threadBudget > 0) {
+            boolean bounded = mode.equals("bounded");
+            int[] pools = bounded
+                    ? new int[]{grpcEventLoopThreads, redisIoThreads, redisComputationThreads, transportThreads, callbackThreads, dispatchThreads}
+                    : new int[]{grpcEventLoopThreads, redisIoThreads, redisComputationThreads};
+            shrink(pools, threadBudget);
+            grpcEventLoopThreads = pools[0];
+            redisIoThreads = pools[1];
+            redisComputationThreads = pools[2];
+            if (bounded) {
+                transportThreads = pools[3];
+                callbackThreads = pools[4];
+                dispatchThreads = pools[5];
+            }
+        }
+    }
+
+    private static void shrink(int[] pools, int budget) {
+        int total = 0;
+        for (int pool : pools) {
+            total += pool;
+        }
+        while (total > budget) {
+            int largest = 0;
+            for (int i = 1; i < pools.length; i++) {
+                if (pools[i] > pools[largest]) largest = i;
+            }
+            if (pools[largest] <= 1) return;
+            pools[largest]--;
+            total--;
+        }
+    }
+
+    /**
+     * Platform threads the plugin starts at most. Cached and virtual executors are not bounded and not counted.
+     *
+     * @return the amount of platform threads, within the thread budget unless it is below one thread per pool
+     */
+    public int platformThreads() {
+        int threads = grpcEventLoopThreads + redisIoThreads + redisComputationThreads;
+        if (mode.equals("bounded")) {
+            threads += transportThreads + callbackThreads + dispatchThreads;
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,42 @@
+package it.einjojo.playerapi.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for spreading the calls across several instances of the player service.
+ * <p>If no endpoints are listed, the channel connects to {@code gsonAddress:gsonPort}, and the addresses that name resolves
+ * to are tried in order with gRPC's default {@code pick_first}. The policy is applied only to channels with more than one
+ * endpoint, which includes the read replicas and the replicas of a shard.</p>
+ *
+ * @param endpoints              {@code host:port} of every service instance, used instead of gsonAddress and gsonPort
+ * @param policy                 load balancing policy, {@code round_robin} or {@code pick_first}
+ * @param healthCheck            whether instances that report NOT_SERVING on the gRPC health service are skipped
+ * @param healthCheckServiceName service name that is sent to the health service, empty for the whole server
+ */
+public record LoadBalancingConfiguration(List<String> endpoints, String policy, boolean healthCheck,
+                                         String healthCheckServiceName) {
+    public static final LoadBalancingConfiguration DEFAULT = new LoadBalancingConfiguration(List.of(), "round_robin", false, "");
+
+    public LoadBalancingConfiguration {
+        if (endpoints == null) endpoints = List.of();
+        if (policy == null || policy.isBlank()) policy = "round_robin";
+        if (healthCheckServiceName == null) healthCheckServiceName = "";
+    }
+
+    /**
+     * Builds the part of the gRPC service config that selects the policy. Health checking requires grpc-services at
+     * runtime and is applied by {@code round_robin} only.
+     *
+     * @return the service config entries
+     */
+    public Map<String, ?> toServiceConfig() {
+        Map<String, Object> serviceConfig = new LinkedHashMap<>();
+        serviceConfig.put("loadBalancingConfig", List.of(Map.of(policy, Map.of())));
+        if (healthCheck) {
+            serviceConfig.put("healthCheckConfig", Map.of("serviceName", healthCheckServiceName));
+        }
+        return serviceConfig;
+    }
+}
@@ -0,0 +1,16 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for the login and logout notifications that are sharded by proxy, e.g. {@code plapi:li:proxy-1}.
+ *
+ * @param proxyName     name of this proxy, sent with the logins and used as the shard of its notifications
+ * @param publishShards whether the proxy publishes the notifications to its shard, needed for filtered subscriptions
+ *                      as long as the service only publishes to {@code plapi:li} and {@code plapi:lo}
+ */
+public record NotificationConfiguration(String proxyName, boolean publishShards) {
+    public static final NotificationConfiguration DEFAULT = new NotificationConfiguration("velocity", true);
+
+    public NotificationConfiguration {
+        if (proxyName == null || proxyName.isBlank()) proxyName = "velocity";
+    }
+}
@@ -0,0 +1,16 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for the local replica of all online players.
+ *
+ * @param enabled                 whether the online player list is answered from the local replica
+ * @param consistencyCheckSeconds seconds between full re-synchronizations that repair drift
+ * @param watch                   feed the replica with the {@code WatchOnlinePlayers} stream instead of redis notifications
+ */
+public record OnlinePlayerRegistryConfiguration(boolean enabled, long consistencyCheckSeconds, boolean watch) {
+    public static final OnlinePlayerRegistryConfiguration DEFAULT = new OnlinePlayerRegistryConfiguration(false, 60, false);
+
+    public OnlinePlayerRegistryConfiguration {
+        if (consistencyCheckSeconds <= 0) consistencyCheckSeconds = 60;
+    }
+}
@@ -0,0 +1,17 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Near cache settings for single player lookups.
+ *
+ * @param enabled     whether lookups are answered from the cache
+ * @param maximumSize the maximum amount of cached players
+ * @param ttlMillis   milliseconds after which a cached player is fetched again
+ */
+public record PlayerCacheConfiguration(boolean enabled, int maximumSize, long ttlMillis) {
+    public static final PlayerCacheConfiguration DEFAULT = new PlayerCacheConfiguration(false, 10_000, 10_000);
+
+    public PlayerCacheConfiguration {
+        if (maximumSize <= 0) maximumSize = 10_000;
+        if (ttlMillis <= 0) ttlMillis = 10_000;
+    }
+}
@@ -5,23 +5,54 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import it.einjojo.playerapi.impl.PlayerApiExecutors;
+import it.einjojo.playerapi.impl.ReadWriteSplitChannel;
+import it.einjojo.playerapi.impl.ShardedChannel;
+import it.einjojo.playerapi.impl.StaticNameResolverProvider;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.Executor;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration for the plugin, including gRPC and Redis settings.
  *
- * @param gsonAddress the address of the gRPC server
- * @param gsonPort    the port of the gRPC server
- * @param redis       the redis configuration
+ * @param gsonAddress    the address of the gRPC server, {@code unix:/path/to/socket} for a unix domain socket
+ * @param gsonPort       the port of the gRPC server
+ * @param redis          the redis configuration
+ * @param cache          the near cache configuration, disabled if absent
+ * @param registry       the online player replica configuration, disabled if absent
+ * @param batching       the lookup batching configuration, disabled if absent
+ * @param unknownNames   the unknown name filter configuration, disabled if absent
+ * @param callPolicy     the deadline, hedging and retry configuration, defaults apply if absent
+ * @param circuitBreaker the circuit breaker and stale fallback configuration, disabled if absent
+ * @param loadBalancing  the endpoint list and load balancing configuration, defaults apply if absent
+ * @param sharding       the shard list of a service that is partitioned by UUID, disabled if absent
+ * @param readWriteSplit the read replica configuration, disabled if absent
+ * @param presence       the redis presence read path configuration, disabled if absent
+ * @param executors      the executor modes, event loops and thread budget, defaults apply if absent
+ * @param channel        the keepalive and warm-up configuration, defaults apply if absent
+ * @param notifications  the proxy name and the sharded notification configuration, defaults apply if absent
+ * @param streams        the redis stream of login, logout and server switch events, disabled if absent
  */
-public record PluginConfig(String gsonAddress, int gsonPort, RedisConnectionConfiguration redis) {
+public record PluginConfig(String gsonAddress, int gsonPort, RedisConnectionConfiguration redis,
+                           PlayerCacheConfiguration cache, OnlinePlayerRegistryConfiguration registry,
+                           BatchingConfiguration batching, UnknownNamesConfiguration unknownNames,
+                           CallPolicyConfiguration callPolicy, CircuitBreakerConfiguration circuitBreaker,
+                           LoadBalancingConfiguration loadBalancing, ShardingConfiguration sharding,
+                           ReadWriteSplitConfiguration readWriteSplit, PresenceConfiguration presence,
+                           ExecutorConfiguration executors, ChannelConfiguration channel,
+                           NotificationConfiguration notifications, StreamConfiguration streams) {
     public static PluginConfig load(Path folder) {
         try {
             Files.createDirectories(folder);
@@ -44,7 +75,11 @@ public record PluginConfig(String gsonAddress, int gsonPort, RedisConnectionConf
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
         PluginConfig defaultConfig = new PluginConfig("localhost", 9090, new RedisConnectionConfiguration(
                 "localhost", 6379, "default", "default", false
-        ));
+        ), PlayerCacheConfiguration.DEFAULT, OnlinePlayerRegistryConfiguration.DEFAULT,
+                BatchingConfiguration.DEFAULT, UnknownNamesConfiguration.DEFAULT, CallPolicyConfiguration.DEFAULT,
+                CircuitBreakerConfiguration.DEFAULT, LoadBalancingConfiguration.DEFAULT, ShardingConfiguration.DEFAULT,
+                ReadWriteSplitConfiguration.DEFAULT, PresenceConfiguration.DEFAULT, ExecutorConfiguration.DEFAULT,
+                ChannelConfiguration.DEFAULT, NotificationConfiguration.DEFAULT, StreamConfiguration.DEFAULT);
         try {
             Files.createFile(configFile);
         } catch (IOException e) {
@@ -58,13 +93,168 @@ public record PluginConfig(String gsonAddress, int gsonPort, RedisConnectionConf
         return defaultConfig;
     }
 
+    @Override
+    public PlayerCacheConfiguration cache() {
+        return cache == null ? PlayerCacheConfiguration.DEFAULT : cache;
+    }
+
+    @Override
+    public OnlinePlayerRegistryConfiguration registry() {
+        return registry == null ? OnlinePlayerRegistryConfiguration.DEFAULT : registry;
+    }
+
+    @Override
+    public BatchingConfiguration batching() {
+        return batching == null ? BatchingConfiguration.DEFAULT : batching;
+    }
+
+    @Override
+    public UnknownNamesConfiguration unknownNames() {
+        return unknownNames == null ? UnknownNamesConfiguration.DEFAULT : unknownNames;
+    }
+
+    @Override
+    public CallPolicyConfiguration callPolicy() {
+        return callPolicy == null ? CallPolicyConfiguration.DEFAULT : callPolicy;
+    }
+
+    @Override
+    public CircuitBreakerConfiguration circuitBreaker() {
+        return circuitBreaker == null ? CircuitBreakerConfiguration.DEFAULT : circuitBreaker;
+    }
+
+    @Override
+    public LoadBalancingConfiguration loadBalancing() {
+        return loadBalancing == null ? LoadBalancingConfiguration.DEFAULT : loadBalancing;
+    }
+
+    @Override
+    public ShardingConfiguration sharding() {
+        return sharding == null ? ShardingConfiguration.DEFAULT : sharding;
+    }
+
+    @Override
+    public ReadWriteSplitConfiguration readWriteSplit() {
+        return readWriteSplit == null ? ReadWriteSplitConfiguration.DEFAULT : readWriteSplit;
+    }
+
+    @Override
+    public PresenceConfiguration presence() {
+        return presence == null ? PresenceConfiguration.DEFAULT : presence;
+    }
+
+    @Override
+    public ExecutorConfiguration executors() {
+        return executors == null ? ExecutorConfiguration.DEFAULT : executors;
+    }
+
+    @Override
+    public ChannelConfiguration channel() {
+        return channel == null ? ChannelConfiguration.DEFAULT : channel;
+    }
+
+    @Override
+    public NotificationConfiguration notifications() {
+        return notifications == null ? NotificationConfiguration.DEFAULT : notifications;
+    }
+
+    @Override
+    public StreamConfiguration streams() {
+        return streams == null ? StreamConfiguration.DEFAULT : streams;
+    }
+
+    /**
+     * Creates the channel to the player service. If sharding is enabled, the channel routes to one channel per shard.
+     * Otherwise, if read replicas are configured, the channel routes reads to them and writes to the primary.
+     *
+     * @param executors the executors, the channels run on the transport executor and the shared event loops
+     * @return the channel
+     */
+    public ManagedChannel createChannel(PlayerApiExecutors executors) {
+        ShardingConfiguration shardConfig = sharding();
+        if (shardConfig.enabled() && !shardConfig.shards().isEmpty()) {
+            Map<String, ManagedChannel> shards = new LinkedHashMap<>();
+            for (String shard : shardConfig.shards()) {
+                String name = ShardingConfiguration.name(shard);
+                if (shards.containsKey(name)) {
+                    shards.values().forEach(ManagedChannel::shutdownNow);
+                    throw new IllegalArgumentException("duplicate shard name: " + name);
+                }
+                List<String> replicas = ShardingConfiguration.replicas(shard);
+                shards.put(name, createChannel(NettyChannelBuilder.forTarget(StaticNameResolverProvider.target(replicas)), executors, executors.grpcChannelType(), replicas.size() > 1));
+            }
+            return new ShardedChannel(shards, shardConfig.virtualNodes());
+        }
+        LoadBalancingConfiguration balancing = loadBalancing();
+        String socketPath = domainSocketPath(gsonAddress);
+        ManagedChannel primary;
+        if (!balancing.endpoints().isEmpty()) {
+            primary = createChannel(NettyChannelBuilder.forTarget(StaticNameResolverProvider.target(balancing.endpoints())), executors, executors.grpcChannelType(), balancing.endpoints().size() > 1);
+        } else if (socketPath != null) {
+            primary = createChannel(NettyChannelBuilder.forAddress(new DomainSocketAddress(socketPath)), executors, executors.grpcDomainSocketChannelType(), false);
+        } else {
+            primary = createChannel(NettyChannelBuilder.forAddress(gsonAddress, gsonPort), executors, executors.grpcChannelType(), false);
+        }
+        ReadWriteSplitConfiguration split = readWriteSplit();
+        if (split.enabled() && !split.readEndpoints().isEmpty()) {
+            ManagedChannel replicas = createChannel(NettyChannelBuilder.forTarget(StaticNameResolverProvider.target(split.readEndpoints())), executors, executors.grpcChannelType(), split.readEndpoints().size() > 1);
+            return new ReadWriteSplitChannel(primary, replicas, split);
+        }
+        return primary;
+    }
+
+    /**
+     * Channels to a single address keep gRPC's default {@code pick_first}, the configured balancing policy is applied
+     * to channels with several targets only.
+     */
+    private ManagedChannel createChannel(NettyChannelBuilder builder, PlayerApiExecutors executors, Class<? extends Channel> channelType,
+                                         boolean balanced) {
+        builder.usePlaintext()
+                .executor(executors.transport())
+                .eventLoopGroup(executors.grpcEventLoopGroup())
+                .channelType(channelType);
+        ChannelConfiguration connection = channel();
+        if (connection.keepAliveTimeMillis() > 0) {
+            builder.keepAliveTime(connection.keepAliveTimeMillis(), TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(connection.keepAliveTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    .keepAliveWithoutCalls(connection.keepAliveWithoutCalls());
+        }
+        if (connection.idleTimeoutMillis() > 0) {
+            builder.idleTimeout(connection.idleTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            // gRPC disables idle mode for timeouts of 30 days and more
+            builder.idleTimeout(30, TimeUnit.DAYS);
+        }
+        CallPolicyConfiguration policy = callPolicy();
+        Map<String, Object> serviceConfig = new LinkedHashMap<>();
+        if (balanced) {
+            serviceConfig.putAll(loadBalancing().toServiceConfig());
+        }
+        if (policy.enabled()) {
+            serviceConfig.putAll(policy.toServiceConfig());
+        }
+        builder.defaultServiceConfig(serviceConfig);
+        if (policy.enabled()) {
+            builder.enableRetry()
+                    .maxRetryAttempts(policy.maxAttempts())
+                    .maxHedgedAttempts(policy.maxAttempts());
+        } else {
+            builder.disableRetry();
+        }
+        return builder.build();
+    }
 
-    public ManagedChannel createChannel(Executor executor) {
-        return ManagedChannelBuilder.forAddress(gsonAddress, gsonPort)
-                .disableRetry()
-                .usePlaintext()
-                .executor(executor)
-                .build();
+    /**
+     * Addresses with the {@code unix:} scheme name a unix domain socket, both {@code unix:/path} and
+     * {@code unix:///path} are accepted.
+     *
+     * @param address the configured address
+     * @return the path of the socket or null if the address is a host name
+     */
+    static @Nullable String domainSocketPath(@Nullable String address) {
+        if (address == null || !address.startsWith("unix:")) return null;
+        String path = address.substring("unix:".length());
+        return path.startsWith("//") ? path.substring(2) : path;
     }
 
 
@@ -0,0 +1,16 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for answering presence questions ("is X online and where?") from redis instead of the player service.
+ *
+ * @param enabled        whether online player lookups read the presence hashes
+ * @param hashKey        key of the hash {@code uuid -> OnlinePlayerDefinition}, the name index is stored at {@code hashKey + ":names"}
+ * @param writeFromProxy whether the proxy maintains the hashes itself, for setups where the service does not write them
+ */
+public record PresenceConfiguration(boolean enabled, String hashKey, boolean writeFromProxy) {
+    public static final PresenceConfiguration DEFAULT = new PresenceConfiguration(false, "plapi:presence", false);
+
+    public PresenceConfiguration {
+        if (hashKey == null || hashKey.isBlank()) hashKey = "plapi:presence";
+    }
+}
@@ -0,0 +1,23 @@
+package it.einjojo.playerapi.config;
+
+import java.util.List;
+
+/**
+ * Settings for sending reads to replicas of the player service and writes to the primary.
+ * <p>The primary is the regular target of the channel ({@code gsonAddress:gsonPort} or the load balancing endpoints).
+ * Login, Logout and UpdateConnection are writes, every other call is a read.</p>
+ *
+ * @param enabled              whether reads are sent to the replicas
+ * @param readEndpoints        {@code host:port} of every read replica
+ * @param readYourWrites       whether reads of a player go to the primary for a while after a write of that player
+ * @param readYourWritesMillis milliseconds after a write during which the player's reads go to the primary
+ */
+public record ReadWriteSplitConfiguration(boolean enabled, List<String> readEndpoints, boolean readYourWrites,
+                                          long readYourWritesMillis) {
+    public static final ReadWriteSplitConfiguration DEFAULT = new ReadWriteSplitConfiguration(false, List.of(), true, 2_000);
+
+    public ReadWriteSplitConfiguration {
+        if (readEndpoints == null) readEndpoints = List.of();
+        if (readYourWritesMillis <= 0) readYourWritesMillis = 2_000;
+    }
+}
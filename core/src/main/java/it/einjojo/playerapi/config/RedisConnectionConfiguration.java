@@ -5,7 +5,21 @@ import io.lettuce.core.RedisURI;
 public record RedisConnectionConfiguration(String host, int port, String username, String password,
                                            boolean ssl) {
 
+    /**
+     * Creates the uri of the redis server. A host with the {@code unix:} scheme, like {@code unix:/run/redis.sock},
+     * connects to a unix domain socket. That requires a native netty transport, which paper and velocity ship.
+     *
+     * @param clientName the name of the client
+     * @return the uri
+     */
     public RedisURI createUri(String clientName) {
+        String socketPath = PluginConfig.domainSocketPath(host);
+        if (socketPath != null) {
+            return RedisURI.Builder.socket(socketPath)
+                    .withAuthentication(username, password)
+                    .withClientName(clientName)
+                    .build();
+        }
         return RedisURI.builder()
                 .withHost(host)
                 .withPort(port)
@@ -0,0 +1,47 @@
+package it.einjojo.playerapi.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings for partitioning the player service by UUID.
+ * <p>Every shard owns the players whose UUID falls onto its section of a consistent-hash ring. Adding a shard moves
+ * only about 1/N of the players. Entries of the form {@code name=host1:port,host2:port} are placed on the ring by their
+ * name, so replicas can be added or replaced without moving players. Entries without a name are placed by the whole
+ * entry, as before. The names must be the same on every backend.</p>
+ *
+ * @param enabled      whether calls are routed to the owning shard, otherwise the other settings of the channel apply
+ * @param shards       one entry per shard, each an optional {@code name=} followed by a comma separated list of
+ *                     {@code host:port} replicas of that shard
+ * @param virtualNodes points per shard on the ring, more points spread the players more evenly
+ */
+public record ShardingConfiguration(boolean enabled, List<String> shards, int virtualNodes) {
+    public static final ShardingConfiguration DEFAULT = new ShardingConfiguration(false, List.of(), 160);
+
+    public ShardingConfiguration {
+        if (shards == null) shards = List.of();
+        if (virtualNodes <= 0) virtualNodes = 160;
+    }
+
+    /**
+     * Gets the name that places a shard on the ring.
+     *
+     * @param shard the shard entry
+     * @return the part before {@code =}, or the whole entry if it has no name
+     */
+    public static String name(String shard) {
+        int separator = shard.indexOf('=');
+        return (separator < 0 ? shard : shard.substring(0, separator)).trim();
+    }
+
+    /**
+     * Gets the replicas of a shard.
+     *
+     * @param shard the shard entry
+     * @return the {@code host:port} addresses after the name
+     */
+    public static List<String> replicas(String shard) {
+        int separator = shard.indexOf('=');
+        return Arrays.stream(shard.substring(separator + 1).split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,24 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for the redis stream of login, logout and server switch events. Unlike pub sub, the stream keeps the recent
+ * events, so a reader that has lost its connection replays the events it has missed.
+ *
+ * @param enabled        whether the near cache and the online player replica read the stream instead of pub sub
+ * @param key            key of the stream
+ * @param maxLength      approximate number of events kept, older events are trimmed by XADD
+ * @param batchSize      maximum number of events per XREAD
+ * @param blockMillis    how long an XREAD waits for new events, must be below the redis command timeout
+ * @param writeFromProxy whether the proxy appends the events itself, for setups where the service does not write them
+ */
+public record StreamConfiguration(boolean enabled, String key, long maxLength, int batchSize, long blockMillis,
+                                  boolean writeFromProxy) {
+    public static final StreamConfiguration DEFAULT = new StreamConfiguration(false, "plapi:events", 100_000, 256, 5000, false);
+
+    public StreamConfiguration {
+        if (key == null || key.isBlank()) key = "plapi:events";
+        if (maxLength <= 0) maxLength = 100_000;
+        if (batchSize <= 0) batchSize = 256;
+        if (blockMillis <= 0) blockMillis = 5000;
+    }
+}
@@ -0,0 +1,28 @@
+package it.einjojo.playerapi.config;
+
+/**
+ * Settings for answering lookups of names that have never joined without asking the service.
+ *
+ * @param negativeCacheEnabled         whether names the service did not know are remembered
+ * @param negativeCacheTtlMillis       milliseconds a name is remembered as unknown
+ * @param negativeCacheMaximumSize     maximum amount of remembered unknown names
+ * @param bloomFilterEnabled           whether a bloom filter of all known names is synced from the service
+ * @param bloomFilterFalsePositiveRate probability that the filter lets an unknown name through to the service
+ * @param bloomFilterRefreshMinutes    minutes between full re-syncs of the bloom filter
+ */
+public record UnknownNamesConfiguration(boolean negativeCacheEnabled, long negativeCacheTtlMillis,
+                                        int negativeCacheMaximumSize, boolean bloomFilterEnabled,
+                                        double bloomFilterFalsePositiveRate, long bloomFilterRefreshMinutes) {
+    public static final UnknownNamesConfiguration DEFAULT = new UnknownNamesConfiguration(false, 30_000, 10_000, false, 0.01, 60);
+
+    public UnknownNamesConfiguration {
+        if (negativeCacheTtlMillis <= 0) negativeCacheTtlMillis = 30_000;
+        if (negativeCacheMaximumSize <= 0) negativeCacheMaximumSize = 10_000;
+        if (bloomFilterFalsePositiveRate <= 0 || bloomFilterFalsePositiveRate >= 1) bloomFilterFalsePositiveRate = 0.01;
+        if (bloomFilterRefreshMinutes <= 0) bloomFilterRefreshMinutes = 60;
+    }
+
+    public boolean enabled() {
+        return negativeCacheEnabled || bloomFilterEnabled;
+    }
+}
@@ -2,21 +2,33 @@ package it.einjojo.playerapi.impl;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.protobuf.Empty;
+import io.grpc.Channel;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import it.einjojo.playerapi.*;
+import it.einjojo.playerapi.config.ChannelConfiguration;
+import it.einjojo.playerapi.config.PluginConfig;
+import it.einjojo.playerapi.config.UnknownNamesConfiguration;
 import it.einjojo.protocol.player.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Abstract implementation of the PlayerApi interface that provides common functionality for accessing player data.
@@ -24,53 +36,134 @@ import java.util.function.Function;
  */
 public abstract class AbstractPlayerApi implements PlayerApi {
     public PlayerServiceGrpc.PlayerServiceFutureStub playerServiceStub;
+    protected final PlayerServiceGrpc.PlayerServiceStub playerServiceAsyncStub;
     protected final Executor executor;
     private static final Empty EMPTY = Empty.getDefaultInstance();
+    // not a valid minecraft name, the lookup never finds a player
+    private static final String WARM_UP_NAME = "warm-up";
+    private final @Nullable PlayerCache playerCache;
+    private final AtomicBoolean playerCacheSubscribed = new AtomicBoolean();
+    private final @Nullable OnlinePlayerRegistry onlinePlayerRegistry;
+    private final AtomicBoolean onlinePlayerRegistryStarted = new AtomicBoolean();
+    private final boolean watchOnlinePlayers;
+    private @Nullable OnlinePlayerWatcher onlinePlayerRegistryWatcher;
+    private final @Nullable OfflinePlayerBatcher offlinePlayerBatcher;
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
+    private final @Nullable UnknownNameFilter unknownNameFilter;
+    private final AtomicBoolean unknownNameFilterStarted = new AtomicBoolean();
+    private final CallMetrics callMetrics;
+    private final @Nullable CircuitBreaker circuitBreaker;
+    private final @Nullable LastKnownGoodStore lastKnownGoodStore;
+    private final @Nullable ShardedRequests shardedRequests;
+    private final @Nullable RedisPresence presence;
+    private final @Nullable RedisEventStream eventStream;
+    private final PlayerApiExecutors executors;
+    private final ChannelConfiguration channelConfiguration;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final AtomicBoolean warmUpStarted = new AtomicBoolean();
+    private volatile boolean shutdown;
 
     /**
      * Constructor for AbstractPlayerApi.
      *
-     * @param channel  the gRPC channel to communicate with the player service
-     * @param executor the executor to run the callbacks on
+     * @param channel   the gRPC channel to communicate with the player service
+     * @param executors the executors, callbacks run on {@link PlayerApiExecutors#callbacks()}
+     * @param config    the plugin config
      */
-    public AbstractPlayerApi(ManagedChannel channel, Executor executor) {
-        this.playerServiceStub = PlayerServiceGrpc.newFutureStub(channel);
-        this.executor = executor;
+    public AbstractPlayerApi(ManagedChannel channel, PlayerApiExecutors executors, PluginConfig config) {
+        this.callMetrics = new CallMetrics(config.callPolicy());
+        this.circuitBreaker = config.circuitBreaker().enabled() ? new CircuitBreaker(config.circuitBreaker()) : null;
+        this.lastKnownGoodStore = config.circuitBreaker().fallbackEnabled() ? new LastKnownGoodStore(config.circuitBreaker()) : null;
+        // the last interceptor runs first, so rejected calls are counted as well
+        ClientInterceptor[] interceptors = circuitBreaker == null ? new ClientInterceptor[]{callMetrics}
+                : new ClientInterceptor[]{circuitBreaker, callMetrics};
+        Channel meteredChannel = ClientInterceptors.intercept(channel, interceptors);
+        this.playerServiceStub = PlayerServiceGrpc.newFutureStub(meteredChannel);
+        this.playerServiceAsyncStub = PlayerServiceGrpc.newStub(meteredChannel);
+        this.shardedRequests = channel instanceof ShardedChannel sharded ? new ShardedRequests(sharded, interceptors) : null;
+        this.executors = executors;
+        this.executor = executors.callbacks();
+        this.playerCache = config.cache().enabled() ? new PlayerCache(config.cache()) : null;
+        this.onlinePlayerRegistry = config.registry().enabled() ? new OnlinePlayerRegistry(this::requestOnlinePlayers, executor, config.registry()) : null;
+        // the stream of a single shard only contains its own players, a sharded registry is fed by the notifications
+        this.watchOnlinePlayers = config.registry().watch() && shardedRequests == null;
+        this.offlinePlayerBatcher = config.batching().enabled() ? new OfflinePlayerBatcher(uuids -> fetchOfflinePlayers(uuids, getPlayerCache()), executor, config.batching()) : null;
+        this.unknownNameFilter = config.unknownNames().enabled() ? new UnknownNameFilter(playerServiceAsyncStub, executor, unknownNamesConfiguration(config)) : null;
+        this.presence = config.presence().enabled() ? new RedisPresence(() -> getRedisPubSubHandler().connectAsync(), config.presence()) : null;
+        this.eventStream = config.streams().enabled() ? new RedisEventStream(() -> getRedisPubSubHandler().connectAsync(), executors.dispatch(), config.streams()) : null;
+        this.channelConfiguration = config.channel();
+    }
+
+    /**
+     * The bloom filter is synced from a single service, which would only know the names of its own shard.
+     */
+    private UnknownNamesConfiguration unknownNamesConfiguration(PluginConfig config) {
+        UnknownNamesConfiguration configuration = config.unknownNames();
+        if (shardedRequests == null || !configuration.bloomFilterEnabled()) return configuration;
+        return new UnknownNamesConfiguration(configuration.negativeCacheEnabled(), configuration.negativeCacheTtlMillis(),
+                configuration.negativeCacheMaximumSize(), false, configuration.bloomFilterFalsePositiveRate(),
+                configuration.bloomFilterRefreshMinutes());
+    }
+
+    private ListenableFuture<GetOnlinePlayersResponse> requestOnlinePlayers() {
+        return shardedRequests != null ? shardedRequests.getOnlinePlayers() : playerServiceStub.getOnlinePlayers(EMPTY);
     }
 
     private static List<NetworkPlayer> extractOnlinePlayers(GetOnlinePlayersResponse response) {
-        if (response.getPlayersList().isEmpty()) return List.of();
-        return response.getPlayersList().stream()
-                .map(PlayerMapper::toLocal)
-                .toList();
+        return PlayerMapper.toLocal(response.getPlayersList());
     }
 
 
     @Override
     public CompletableFuture<List<NetworkPlayer>> getOnlinePlayers() {
-        ListenableFuture<GetOnlinePlayersResponse> future = playerServiceStub.getOnlinePlayers(EMPTY);
-        return createCallback(future, AbstractPlayerApi::extractOnlinePlayers);
+        OnlinePlayerRegistry registry = getOnlinePlayerRegistry();
+        if (registry != null && registry.isReady()) {
+            return CompletableFuture.completedFuture(registry.getPlayers());
+        }
+        ListenableFuture<GetOnlinePlayersResponse> future = inFlightRequests.coalesce("GetOnlinePlayers", EMPTY, this::requestOnlinePlayers);
+        return lastKnownGood("GetOnlinePlayers", EMPTY, createCallback(future, AbstractPlayerApi::extractOnlinePlayers));
     }
 
     @Override
     public CompletableFuture<List<String>> getOnlinePlayerNames() {
-        ListenableFuture<GetOnlinePlayerNamesResponse> future = playerServiceStub.getOnlinePlayerNames(EMPTY);
-        return createCallback(future, (GetOnlinePlayerNamesResponse::getNamesList));
+        OnlinePlayerRegistry registry = getOnlinePlayerRegistry();
+        if (registry != null && registry.isReady()) {
+            return CompletableFuture.completedFuture(registry.getPlayerNames());
+        }
+        ListenableFuture<GetOnlinePlayerNamesResponse> future = inFlightRequests.coalesce("GetOnlinePlayerNames", EMPTY, () -> shardedRequests != null ? shardedRequests.getOnlinePlayerNames() : playerServiceStub.getOnlinePlayerNames(EMPTY));
+        return lastKnownGood("GetOnlinePlayerNames", EMPTY, createCallback(future, (GetOnlinePlayerNamesResponse::getNamesList)));
     }
 
 
     @Override
     public CompletableFuture<OfflineNetworkPlayer> getOfflinePlayer(String playerName) {
         if (playerName == null) return CompletableFuture.completedFuture(null);
-        var future = playerServiceStub.getOfflinePlayerByName(PlayerNameRequest.newBuilder().setName(playerName).build());
-        return createCallback(future, PlayerMapper::readOfflineResponse);
+        PlayerCache cache = getPlayerCache();
+        if (cache != null) {
+            var cached = cache.lookupOfflinePlayer(playerName);
+            if (cached != null) return cached;
+        }
+        UnknownNameFilter filter = getUnknownNameFilter();
+        if (filter != null && filter.isUnknown(playerName)) return CompletableFuture.completedFuture(null);
+        long mark = cache == null ? 0 : cache.mark();
+        var future = inFlightRequests.coalesce("GetOfflinePlayerByName", playerName, () -> shardedRequests != null ? shardedRequests.getOfflinePlayerByName(PlayerMapper.toRequest(playerName)) : playerServiceStub.getOfflinePlayerByName(PlayerMapper.toRequest(playerName)));
+        return lastKnownGood("GetOfflinePlayerByName", playerName.toLowerCase(Locale.ROOT), recordUnknown(cacheResult(createCallback(future, PlayerMapper::readOfflineResponse), cache, mark), filter, playerName));
     }
 
     @Override
     public CompletableFuture<OfflineNetworkPlayer> getOfflinePlayer(UUID playerUUID) {
         if (playerUUID == null) return CompletableFuture.completedFuture(null);
-        var future = playerServiceStub.getOfflinePlayerByUniqueId(PlayerIdRequest.newBuilder().setUniqueId(playerUUID.toString()).build());
-        return createCallback(future, PlayerMapper::readOfflineResponse);
+        PlayerCache cache = getPlayerCache();
+        if (cache != null) {
+            var cached = cache.lookupOfflinePlayer(playerUUID);
+            if (cached != null) return cached;
+        }
+        if (offlinePlayerBatcher != null) {
+            return lastKnownGood("GetOfflinePlayerByUniqueId", playerUUID, offlinePlayerBatcher.getOfflinePlayer(playerUUID));
+        }
+        long mark = cache == null ? 0 : cache.mark();
+        var future = inFlightRequests.coalesce("GetOfflinePlayerByUniqueId", playerUUID, () -> playerServiceStub.getOfflinePlayerByUniqueId(PlayerMapper.toRequest(playerUUID)));
+        return lastKnownGood("GetOfflinePlayerByUniqueId", playerUUID, cacheResult(createCallback(future, PlayerMapper::readOfflineResponse), cache, mark));
     }
 
     @Override
@@ -78,7 +171,11 @@ public abstract class AbstractPlayerApi implements PlayerApi {
         if (playerName == null) return CompletableFuture.completedFuture(Boolean.FALSE);
         if (getLocalOnlinePlayerAccessor().isOnline(playerName))
             return CompletableFuture.completedFuture(Boolean.TRUE);
-        return getOfflinePlayer(playerName).thenApply(OfflineNetworkPlayer::isOnline);
+        OnlinePlayerRegistry registry = getOnlinePlayerRegistry();
+        if (registry != null && registry.isReady())
+            return CompletableFuture.completedFuture(registry.isOnline(playerName));
+        return fromPresence(presence -> presence.isOnline(playerName),
+                () -> getOfflinePlayer(playerName).thenApply(player -> player != null && player.isOnline()));
     }
 
     @Override
@@ -86,28 +183,241 @@ public abstract class AbstractPlayerApi implements PlayerApi {
         if (playerUUID == null) return CompletableFuture.completedFuture(Boolean.FALSE);
         if (getLocalOnlinePlayerAccessor().isOnline(playerUUID))
             return CompletableFuture.completedFuture(Boolean.TRUE);
-        return getOfflinePlayer(playerUUID).thenApply(OfflineNetworkPlayer::isOnline);
+        OnlinePlayerRegistry registry = getOnlinePlayerRegistry();
+        if (registry != null && registry.isReady())
+            return CompletableFuture.completedFuture(registry.isOnline(playerUUID));
+        return fromPresence(presence -> presence.isOnline(playerUUID),
+                () -> getOfflinePlayer(playerUUID).thenApply(player -> player != null && player.isOnline()));
     }
 
     @Override
     public CompletableFuture<NetworkPlayer> getOnlinePlayer(String playerName) {
         if (playerName == null) return CompletableFuture.completedFuture(null);
-        ListenableFuture<GetOnlinePlayerResponse> future = playerServiceStub.getOnlinePlayerByName(PlayerNameRequest.newBuilder().setName(playerName).build());
-        return createCallback(future, PlayerMapper::readOnlineResponse);
+        PlayerCache cache = getPlayerCache();
+        if (cache != null) {
+            var cached = cache.lookupOnlinePlayer(playerName);
+            if (cached != null) return cached;
+        }
+        UnknownNameFilter filter = getUnknownNameFilter();
+        if (filter != null && filter.isUnknown(playerName)) return CompletableFuture.completedFuture(null);
+        long mark = cache == null ? 0 : cache.mark();
+        return fromPresence(presence -> cacheResult(presence.getOnlinePlayer(playerName), cache, mark), () -> {
+            ListenableFuture<GetOnlinePlayerResponse> future = inFlightRequests.coalesce("GetOnlinePlayerByName", playerName, () -> shardedRequests != null ? shardedRequests.getOnlinePlayerByName(PlayerMapper.toRequest(playerName)) : playerServiceStub.getOnlinePlayerByName(PlayerMapper.toRequest(playerName)));
+            return lastKnownGood("GetOnlinePlayerByName", playerName.toLowerCase(Locale.ROOT), cacheResult(createCallback(future, PlayerMapper::readOnlineResponse), cache, mark));
+        });
     }
 
     @Override
     public CompletableFuture<NetworkPlayer> getOnlinePlayer(UUID playerUUID) {
         if (playerUUID == null) return CompletableFuture.completedFuture(null);
-        ListenableFuture<GetOnlinePlayerResponse> future = playerServiceStub.getOnlinePlayerByUniqueId(PlayerIdRequest.newBuilder().setUniqueId(playerUUID.toString()).build());
-        return createCallback(future, PlayerMapper::readOnlineResponse);
+        PlayerCache cache = getPlayerCache();
+        if (cache != null) {
+            var cached = cache.lookupOnlinePlayer(playerUUID);
+            if (cached != null) return cached;
+        }
+        long mark = cache == null ? 0 : cache.mark();
+        return fromPresence(presence -> cacheResult(presence.getOnlinePlayer(playerUUID), cache, mark), () -> {
+            ListenableFuture<GetOnlinePlayerResponse> future = inFlightRequests.coalesce("GetOnlinePlayerByUniqueId", playerUUID, () -> playerServiceStub.getOnlinePlayerByUniqueId(PlayerMapper.toRequest(playerUUID)));
+            return lastKnownGood("GetOnlinePlayerByUniqueId", playerUUID, cacheResult(createCallback(future, PlayerMapper::readOnlineResponse), cache, mark));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, NetworkPlayer>> getOnlinePlayers(Collection<UUID> playerUUIDs) {
+        if (playerUUIDs == null || playerUUIDs.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        Set<UUID> uuids = new HashSet<>(playerUUIDs);
+        return fromPresence(presence -> presence.getOnlinePlayers(uuids), () -> {
+            // the service has no bulk lookup of online players, the single lookups are sent concurrently
+            Map<UUID, CompletableFuture<NetworkPlayer>> futures = new HashMap<>(uuids.size());
+            for (UUID uuid : uuids) {
+                futures.put(uuid, getOnlinePlayer(uuid));
+            }
+            CompletableFuture<?>[] settled = futures.values().stream().map(future -> future.handle((player, throwable) -> null)).toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(settled).thenApply(ignored -> {
+                Map<UUID, NetworkPlayer> players = new HashMap<>(futures.size());
+                Throwable failure = null;
+                for (Map.Entry<UUID, CompletableFuture<NetworkPlayer>> entry : futures.entrySet()) {
+                    CompletableFuture<NetworkPlayer> future = entry.getValue();
+                    if (future.isCompletedExceptionally()) {
+                        Throwable cause = future.exceptionNow();
+                        // with the stale fallback, players without a known response are left out while the service is unreachable
+                        if (lastKnownGoodStore == null || !CircuitBreaker.isUnavailable(cause)) throw new CompletionException(cause);
+                        failure = cause;
+                        continue;
+                    }
+                    NetworkPlayer player = future.join();
+                    if (player != null) players.put(entry.getKey(), player);
+                }
+                if (failure != null && players.isEmpty()) throw new CompletionException(failure);
+                return Collections.unmodifiableMap(players);
+            });
+        });
     }
 
     @Override
     public CompletableFuture<UUID> getUniqueId(String playerName) {
         if (playerName == null) return CompletableFuture.completedFuture(null);
-        ListenableFuture<UniqueIdLookupResponse> future = playerServiceStub.getUniqueIdByName(PlayerNameRequest.newBuilder().setName(playerName).build());
-        return createCallback(future, UniqueIdLookupResponse::getUniqueId).thenApply(UUID::fromString);
+        PlayerCache cache = getPlayerCache();
+        if (cache != null) {
+            var cached = cache.lookupUniqueId(playerName);
+            if (cached != null) return cached;
+        }
+        UnknownNameFilter filter = getUnknownNameFilter();
+        if (filter != null && filter.isUnknown(playerName)) return CompletableFuture.completedFuture(null);
+        ListenableFuture<UniqueIdLookupResponse> future = inFlightRequests.coalesce("GetUniqueIdByName", playerName, () -> shardedRequests != null ? shardedRequests.getUniqueIdByName(PlayerMapper.toRequest(playerName)) : playerServiceStub.getUniqueIdByName(PlayerMapper.toRequest(playerName)));
+        return lastKnownGood("GetUniqueIdByName", playerName.toLowerCase(Locale.ROOT), recordUnknown(createCallback(future, PlayerMapper::readUniqueIdResponse), filter, playerName));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, OfflineNetworkPlayer>> getOfflinePlayers(Collection<UUID> playerUUIDs) {
+        if (playerUUIDs == null || playerUUIDs.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        PlayerCache cache = getPlayerCache();
+        if (cache == null) {
+            Set<UUID> uuids = new HashSet<>(playerUUIDs);
+            return lastKnownGoodAll("GetOfflinePlayerByUniqueId", uuids, uuid -> uuid, fetchOfflinePlayers(uuids, null));
+        }
+        Map<UUID, OfflineNetworkPlayer> players = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID uuid : playerUUIDs) {
+            OfflineNetworkPlayer cached = cache.getOfflinePlayer(uuid);
+            if (cached != null) {
+                players.put(uuid, cached);
+            } else {
+                missing.add(uuid);
+            }
+        }
+        if (missing.isEmpty()) return CompletableFuture.completedFuture(Collections.unmodifiableMap(players));
+        return lastKnownGoodAll("GetOfflinePlayerByUniqueId", missing, uuid -> uuid, fetchOfflinePlayers(missing, cache)).thenApply(fetched -> {
+            players.putAll(fetched);
+            return Collections.unmodifiableMap(players);
+        });
+    }
+
+    /**
+     * Requests the players with a single batch request, without looking into the cache.
+     *
+     * @param playerUUIDs the players' UUIDs
+     * @param cache       the cache to put the fetched players into
+     * @return a map of the requested UUIDs to their players. Unknown players are absent.
+     */
+    private CompletableFuture<Map<UUID, OfflineNetworkPlayer>> fetchOfflinePlayers(Collection<UUID> playerUUIDs, @Nullable PlayerCache cache) {
+        long mark = cache == null ? 0 : cache.mark();
+        ListenableFuture<GetOfflinePlayersResponse> future;
+        if (shardedRequests != null) {
+            future = shardedRequests.getOfflinePlayersByUniqueIds(playerUUIDs);
+        } else {
+            PlayerIdsRequest.Builder request = PlayerIdsRequest.newBuilder();
+            for (UUID uuid : playerUUIDs) {
+                request.addUniqueIds(uuid.toString());
+            }
+            future = playerServiceStub.getOfflinePlayersByUniqueIds(request.build());
+        }
+        return createCallback(future, response -> {
+            Map<UUID, OfflineNetworkPlayer> players = new HashMap<>(response.getPlayersCount());
+            for (OfflinePlayerDefinition definition : response.getPlayersList()) {
+                OfflineNetworkPlayer player = PlayerMapper.toLocal(definition);
+                players.put(player.getUniqueId(), player);
+                if (cache != null) {
+                    cache.put(player, mark);
+                }
+            }
+            return Collections.unmodifiableMap(players);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, UUID>> getUniqueIds(Collection<String> playerNames) {
+        if (playerNames == null || playerNames.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        Map<String, UUID> uniqueIds = new HashMap<>();
+        PlayerNamesRequest.Builder request = PlayerNamesRequest.newBuilder();
+        PlayerCache cache = getPlayerCache();
+        UnknownNameFilter filter = getUnknownNameFilter();
+        for (String name : new HashSet<>(playerNames)) {
+            UUID cached = cache == null ? null : cache.getUniqueId(name);
+            if (cached != null) {
+                uniqueIds.put(name, cached);
+            } else if (filter == null || !filter.isUnknown(name)) {
+                request.addNames(name);
+            }
+        }
+        if (request.getNamesCount() == 0) return CompletableFuture.completedFuture(Collections.unmodifiableMap(uniqueIds));
+        var future = shardedRequests != null ? shardedRequests.getUniqueIdsByNames(request.build()) : playerServiceStub.getUniqueIdsByNames(request.build());
+        List<String> names = List.copyOf(request.getNamesList());
+        CompletableFuture<Map<String, UUID>> fetched = createCallback(future, response -> {
+            Map<String, UUID> found = new HashMap<>(response.getUniqueIdsCount());
+            response.getUniqueIdsMap().forEach((name, uniqueId) -> found.put(name, UUID.fromString(uniqueId)));
+            if (filter != null) {
+                for (String name : names) {
+                    if (!response.containsUniqueIds(name)) filter.recordUnknown(name);
+                }
+            }
+            return found;
+        });
+        return lastKnownGoodAll("GetUniqueIdByName", names, name -> name.toLowerCase(Locale.ROOT), fetched).thenApply(found -> {
+            uniqueIds.putAll(found);
+            return Collections.unmodifiableMap(uniqueIds);
+        });
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    @Override
+    public CompletableFuture<Void> whenReady() {
+        return ready.copy();
+    }
+
+    /**
+     * Sends a lookup to the player service (to every shard if sharded) until one has been answered. The lookup waits
+     * for the connection instead of failing fast, so it pays for name resolution, TCP and HTTP/2 setup before the
+     * first real request does. With read replicas, the primary connects on the first write.
+     *
+     * @return a future that completes when the api is ready.
+     */
+    public CompletableFuture<Void> warmUp() {
+        if (warmUpStarted.compareAndSet(false, true)) {
+            sendWarmUp();
+        }
+        return whenReady();
+    }
+
+    /**
+     * Starts the warm-up and blocks until it has finished or the timeout has passed. The warm-up continues in the
+     * background after a timeout.
+     *
+     * @param timeoutMillis maximum time to block
+     * @return whether the api is ready.
+     */
+    public boolean awaitWarmUp(long timeoutMillis) {
+        try {
+            warmUp().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private void sendWarmUp() {
+        if (shutdown || ready.isDone()) return;
+        PlayerNameRequest request = PlayerMapper.toRequest(WARM_UP_NAME);
+        long timeoutMillis = channelConfiguration.warmUpTimeoutMillis();
+        ListenableFuture<?> future = shardedRequests != null
+                ? shardedRequests.fanOut(stub -> stub.withWaitForReady().withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS).getUniqueIdByName(request))
+                : playerServiceStub.withWaitForReady().withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS).getUniqueIdByName(request);
+        future.addListener(() -> {
+            // any answer of the service counts, only unreachable services are retried
+            if (future.state() == Future.State.SUCCESS || !CircuitBreaker.isUnavailable(future.exceptionNow())) {
+                ready.complete(null);
+            } else {
+                CompletableFuture.delayedExecutor(channelConfiguration.warmUpRetryMillis(), TimeUnit.MILLISECONDS, executor)
+                        .execute(this::sendWarmUp);
+            }
+        }, executor);
     }
 
     protected <Type, ResultType> CompletableFuture<Type> createCallback(ListenableFuture<ResultType> listenableFuture, Function<ResultType, Type> mapper) {
@@ -115,10 +425,11 @@ public abstract class AbstractPlayerApi implements PlayerApi {
         listenableFuture.addListener(() -> {
             try {
                 if (listenableFuture.state() == Future.State.SUCCESS) {
-                    ResultType result = listenableFuture.get();
-                    completableFuture.complete(mapper.apply(result));
+                    // unknown players arrive as regular responses, the mapper returns null for them
+                    completableFuture.complete(mapper.apply(listenableFuture.resultNow()));
                 } else {
                     Throwable t = listenableFuture.exceptionNow();
+                    // services that ignore not_found_as_response still fail with NOT_FOUND
                     if (t instanceof StatusRuntimeException statusRuntimeException) {
                         Status status = statusRuntimeException.getStatus();
                         if (status.getCode() == Status.Code.NOT_FOUND) {
@@ -135,6 +446,185 @@ public abstract class AbstractPlayerApi implements PlayerApi {
         return completableFuture;
     }
 
+    private static <T extends OfflineNetworkPlayer> CompletableFuture<T> cacheResult(CompletableFuture<T> future, @Nullable PlayerCache cache, long mark) {
+        if (cache == null) return future;
+        return future.whenComplete((player, throwable) -> cache.put(player, mark));
+    }
+
+    /**
+     * Answers from the redis presence hashes if they are enabled. The player service answers if redis fails.
+     */
+    private <T> CompletableFuture<T> fromPresence(Function<RedisPresence, CompletableFuture<T>> read, Supplier<CompletableFuture<T>> fallback) {
+        if (presence == null) return fallback.get();
+        CompletableFuture<T> future;
+        try {
+            future = read.apply(presence);
+        } catch (RuntimeException e) {
+            // the connection is being opened or could not be opened
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.exceptionallyComposeAsync(throwable -> fallback.get(), executor);
+    }
+
+    private <T> CompletableFuture<T> lastKnownGood(String method, Object key, CompletableFuture<T> future) {
+        return lastKnownGoodStore == null ? future : lastKnownGoodStore.serve(method, key, future);
+    }
+
+    private <K, V> CompletableFuture<Map<K, V>> lastKnownGoodAll(String method, Collection<K> keys, Function<K, ?> storeKey, CompletableFuture<Map<K, V>> future) {
+        return lastKnownGoodStore == null ? future : lastKnownGoodStore.serveAll(method, keys, storeKey, future);
+    }
+
+    private static <T> CompletableFuture<T> recordUnknown(CompletableFuture<T> future, @Nullable UnknownNameFilter filter, String playerName) {
+        if (filter == null) return future;
+        return future.whenComplete((result, throwable) -> {
+            if (throwable == null && result == null) filter.recordUnknown(playerName);
+        });
+    }
+
+    /**
+     * The near cache subscribes to login, logout and server switch notifications (or reads the event stream) when it
+     * is used for the first time.
+     *
+     * @return the near cache or null if it is disabled.
+     */
+    public @Nullable PlayerCache getPlayerCache() {
+        if (playerCache != null && playerCacheSubscribed.compareAndSet(false, true)) {
+            subscribeEvents(playerCache);
+        }
+        return playerCache;
+    }
+
+    /**
+     * The filter subscribes to login notifications (or reads the event stream) and syncs its bloom filter when it is used
+     * for the first time.
+     *
+     * @return the filter of names that have never joined or null if it is disabled.
+     */
+    public @Nullable UnknownNameFilter getUnknownNameFilter() {
+        if (unknownNameFilter != null && unknownNameFilterStarted.compareAndSet(false, true)) {
+            subscribeEvents(unknownNameFilter);
+            unknownNameFilter.start();
+        }
+        return unknownNameFilter;
+    }
+
+    /**
+     * getter
+     *
+     * @return the batcher of single offline player lookups or null if batching is disabled.
+     */
+    public @Nullable OfflinePlayerBatcher getOfflinePlayerBatcher() {
+        return offlinePlayerBatcher;
+    }
+
+    /**
+     * Deadlines, hedges and retries are configured on the channel, these metrics count how often they kick in.
+     *
+     * @return the metrics of the calls to the player service.
+     */
+    public CallMetrics getCallMetrics() {
+        return callMetrics;
+    }
+
+    /**
+     * getter
+     *
+     * @return the circuit breaker in front of the player service or null if it is disabled.
+     */
+    public @Nullable CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Read calls that fail while the player service is unreachable are answered from this store, marked stale.
+     *
+     * @return the store of the last known good responses or null if the fallback is disabled.
+     */
+    public @Nullable LastKnownGoodStore getLastKnownGoodStore() {
+        return lastKnownGoodStore;
+    }
+
+    /**
+     * The executors expose their queue depth and busy threads.
+     *
+     * @return the executors of the plugin.
+     */
+    public PlayerApiExecutors getExecutors() {
+        return executors;
+    }
+
+    /**
+     * Local state is fed by the event stream if it is enabled, which replays missed events after a reconnect. Pub sub
+     * notifications are lost while the connection is down.
+     */
+    private void subscribeEvents(RedisEventStream.Listener listener) {
+        if (eventStream != null) {
+            eventStream.addListener(listener);
+            return;
+        }
+        getRedisPubSubHandler().subscribeLogin(listener::handleLogin);
+        getRedisPubSubHandler().subscribeLogout(listener::handleLogout);
+        getRedisPubSubHandler().subscribeServerSwitch(listener::handleServerSwitch);
+    }
+
+    /**
+     * getter
+     *
+     * @return the reader of the event stream or null if local state is fed by pub sub.
+     */
+    public @Nullable RedisEventStream getEventStream() {
+        return eventStream;
+    }
+
+    /**
+     * getter
+     *
+     * @return the reader of the redis presence hashes or null if online lookups are answered by the service.
+     */
+    public @Nullable RedisPresence getPresence() {
+        return presence;
+    }
+
+    /**
+     * Concurrent lookups of the same key share one in-flight call.
+     *
+     * @return the in-flight calls, which also count the deduplicated calls.
+     */
+    public InFlightRequests getInFlightRequests() {
+        return inFlightRequests;
+    }
+
+    /**
+     * The replica subscribes to login, logout and server switch notifications (or the event stream or the online player
+     * stream) and seeds itself when it
+     * is used for the first time. Until the first snapshot has been applied, requests are answered by the service.
+     *
+     * @return the online player replica or null if it is disabled.
+     */
+    public @Nullable OnlinePlayerRegistry getOnlinePlayerRegistry() {
+        if (onlinePlayerRegistry != null && onlinePlayerRegistryStarted.compareAndSet(false, true)) {
+            if (watchOnlinePlayers) {
+                onlinePlayerRegistryWatcher = watchOnlinePlayers(onlinePlayerRegistry);
+            } else {
+                subscribeEvents(onlinePlayerRegistry);
+                onlinePlayerRegistry.start();
+            }
+        }
+        return onlinePlayerRegistry;
+    }
+
+    /**
+     * Opens the {@code WatchOnlinePlayers} stream. The stream is reopened with the last applied version if it breaks.
+     *
+     * @param listener receives the snapshot and the following changes
+     * @return the watcher, close it to stop watching.
+     */
+    public OnlinePlayerWatcher watchOnlinePlayers(@NotNull OnlinePlayerWatcher.Listener listener) {
+        OnlinePlayerWatcher watcher = new OnlinePlayerWatcher(playerServiceAsyncStub, executor, listener);
+        watcher.start();
+        return watcher;
+    }
+
     @Override
     public Closeable subscribeLogin(@NotNull Consumer<NetworkPlayer> playerConsumer) {
         return getRedisPubSubHandler().subscribeLogin(((notify) -> {
@@ -149,6 +639,34 @@ public abstract class AbstractPlayerApi implements PlayerApi {
         }));
     }
 
+    @Override
+    public Closeable subscribeLogin(@NotNull String proxyFilter, @NotNull Consumer<NetworkPlayer> playerConsumer) {
+        return getRedisPubSubHandler().subscribeLogin(proxyFilter, (notify) -> {
+            playerConsumer.accept(PlayerMapper.toLocal(notify.getPlayer()));
+        });
+    }
+
+    @Override
+    public Closeable subscribeLogout(@NotNull String proxyFilter, @NotNull Consumer<OfflineNetworkPlayer> offlinePlayerConsumer) {
+        return getRedisPubSubHandler().subscribeLogout(proxyFilter, (notify) -> {
+            offlinePlayerConsumer.accept(PlayerMapper.toLocal(notify.getPlayer()));
+        });
+    }
+
+    @Override
+    public Closeable subscribeServerSwitch(@NotNull Consumer<ServerSwitch> switchConsumer) {
+        return getRedisPubSubHandler().subscribeServerSwitch((notify) -> {
+            switchConsumer.accept(PlayerMapper.toLocal(notify));
+        });
+    }
+
+    @Override
+    public Closeable subscribeServerSwitch(@NotNull String serverFilter, @NotNull Consumer<ServerSwitch> switchConsumer) {
+        return getRedisPubSubHandler().subscribeServerSwitch(serverFilter, (notify) -> {
+            switchConsumer.accept(PlayerMapper.toLocal(notify));
+        });
+    }
+
     protected abstract RedisPubSubHandler getRedisPubSubHandler();
 
     public abstract LocalOnlinePlayerAccessor getLocalOnlinePlayerAccessor();
@@ -158,6 +676,22 @@ public abstract class AbstractPlayerApi implements PlayerApi {
      * Closes internal resources.
      */
     public void shutdown() {
+        shutdown = true;
+        if (onlinePlayerRegistryWatcher != null) {
+            onlinePlayerRegistryWatcher.close();
+        }
+        if (onlinePlayerRegistry != null) {
+            onlinePlayerRegistry.close();
+        }
+        if (unknownNameFilter != null) {
+            unknownNameFilter.close();
+        }
+        if (presence != null) {
+            presence.close();
+        }
+        if (eventStream != null) {
+            eventStream.close();
+        }
         getRedisPubSubHandler().close();
     }
 
@@ -0,0 +1,124 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import it.einjojo.playerapi.config.CallPolicyConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the calls to the player service and the extra attempts the call policy has sent for them.
+ * <p>Every attempt of a call opens its own stream, so the attempts are counted with a stream tracer. An attempt with
+ * previous attempts is a hedge for hedged methods and a retry otherwise.</p>
+ */
+public class CallMetrics implements ClientInterceptor {
+    private static final ClientStreamTracer NOOP_TRACER = new ClientStreamTracer() {
+    };
+    private final Set<String> hedgedMethods = new HashSet<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder transparentRetries = new LongAdder();
+    private final LongAdder deadlinesExceeded = new LongAdder();
+    private final ClientStreamTracer.Factory hedgeTracer = new AttemptTracer(hedges);
+    private final ClientStreamTracer.Factory retryTracer = new AttemptTracer(retries);
+
+    /**
+     * Constructor for CallMetrics.
+     *
+     * @param configuration the installed call policy, used to tell hedges from retries
+     */
+    public CallMetrics(@NotNull CallPolicyConfiguration configuration) {
+        if (configuration.enabled() && configuration.hedgingEnabled()) {
+            for (MethodDescriptor<?, ?> method : CallPolicyConfiguration.SINGLE_READS) {
+                hedgedMethods.add(method.getFullMethodName());
+            }
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        calls.increment();
+        ClientStreamTracer.Factory tracer = hedgedMethods.contains(method.getFullMethodName()) ? hedgeTracer : retryTracer;
+        ClientCall<ReqT, RespT> call = next.newCall(method, callOptions.withStreamTracerFactory(tracer));
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (status.getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                            deadlinesExceeded.increment();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    public long callCount() {
+        return calls.sum();
+    }
+
+    public long hedgeCount() {
+        return hedges.sum();
+    }
+
+    public long retryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of attempts gRPC has repeated on its own because the first one never reached the service.
+     */
+    public long transparentRetryCount() {
+        return transparentRetries.sum();
+    }
+
+    public long deadlineExceededCount() {
+        return deadlinesExceeded.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CallMetrics{" +
+                "calls=" + callCount() +
+                ", hedges=" + hedgeCount() +
+                ", retries=" + retryCount() +
+                ", transparentRetries=" + transparentRetryCount() +
+                ", deadlinesExceeded=" + deadlineExceededCount() +
+                '}';
+    }
+
+    private class AttemptTracer extends ClientStreamTracer.Factory {
+        private final LongAdder counter;
+
+        private AttemptTracer(LongAdder counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            if (info.isTransparentRetry()) {
+                transparentRetries.increment();
+            } else if (info.getPreviousAttempts() > 0) {
+                counter.increment();
+            }
+            return NOOP_TRACER;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import it.einjojo.playerapi.config.CircuitBreakerConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rejects unary calls locally while the player service is failing, so a restarting service is not flooded.
+ * <ul>
+ *     <li>CLOSED: all calls pass. After {@code failureThreshold} consecutive failures the breaker opens.</li>
+ *     <li>OPEN: all calls fail immediately with {@link Status#UNAVAILABLE} until {@code openMillis} have elapsed.</li>
+ *     <li>HALF_OPEN: a share of the calls passes, growing linearly over {@code rampUpMillis}. A failure opens the
+ *     breaker again, once the ramp has completed it closes.</li>
+ * </ul>
+ * <p>Only unavailability counts as failure ({@code UNAVAILABLE}, {@code DEADLINE_EXCEEDED}, {@code RESOURCE_EXHAUSTED}),
+ * answers like NOT_FOUND prove that the service is up. Streaming calls have their own backoff and are not affected.</p>
+ */
+public class CircuitBreaker implements ClientInterceptor {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final double MIN_PROBE_SHARE = 0.05;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long rampUpNanos;
+    private final LongSupplier nanoTime;
+    private final Object lock = new Object();
+    private final LongAdder rejected = new LongAdder();
+    private volatile State state = State.CLOSED;
+    private volatile long stateSince;
+    private int consecutiveFailures;
+
+    /**
+     * Constructor for CircuitBreaker.
+     *
+     * @param configuration config
+     */
+    public CircuitBreaker(@NotNull CircuitBreakerConfiguration configuration) {
+        this(configuration, System::nanoTime);
+    }
+
+    CircuitBreaker(@NotNull CircuitBreakerConfiguration configuration, @NotNull LongSupplier nanoTime) {
+        this.failureThreshold = configuration.failureThreshold();
+        this.openNanos = configuration.openMillis() * 1_000_000;
+        this.rampUpNanos = configuration.rampUpMillis() * 1_000_000;
+        this.nanoTime = nanoTime;
+        this.stateSince = nanoTime.getAsLong();
+    }
+
+    /**
+     * checks whether a failed call has failed because the player service was unreachable or the breaker was open.
+     *
+     * @param throwable the failure
+     * @return true if the call may be answered from stale data
+     */
+    public static boolean isUnavailable(@Nullable Throwable throwable) {
+        return throwable != null && isFailure(Status.fromThrowable(throwable));
+    }
+
+    private static boolean isFailure(Status status) {
+        return switch (status.getCode()) {
+            case UNAVAILABLE, DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        if (method.getType() != MethodDescriptor.MethodType.UNARY) {
+            return next.newCall(method, callOptions);
+        }
+        if (!tryAcquire()) {
+            rejected.increment();
+            return new RejectedCall<>();
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (isFailure(status)) {
+                            onFailure();
+                        } else {
+                            onSuccess();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) return true;
+        long elapsed = nanoTime.getAsLong() - stateSince;
+        if (current == State.OPEN) {
+            if (elapsed < openNanos) return false;
+            synchronized (lock) {
+                if (state == State.OPEN && nanoTime.getAsLong() - stateSince >= openNanos) {
+                    transition(State.HALF_OPEN);
+                }
+            }
+            elapsed = 0;
+        }
+        double share = Math.max(MIN_PROBE_SHARE, (double) elapsed / rampUpNanos);
+        return share >= 1 || ThreadLocalRandom.current().nextDouble() < share;
+    }
+
+    private void onSuccess() {
+        if (state == State.CLOSED) {
+            synchronized (lock) {
+                consecutiveFailures = 0;
+            }
+            return;
+        }
+        synchronized (lock) {
+            if (state == State.HALF_OPEN && nanoTime.getAsLong() - stateSince >= rampUpNanos) {
+                transition(State.CLOSED);
+            }
+        }
+    }
+
+    private void onFailure() {
+        synchronized (lock) {
+            switch (state) {
+                case CLOSED -> {
+                    if (++consecutiveFailures >= failureThreshold) {
+                        transition(State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> transition(State.OPEN);
+                case OPEN -> {
+                    // calls that were sent before the breaker opened
+                }
+            }
+        }
+    }
+
+    private void transition(State next) {
+        if (next == State.OPEN && state == State.CLOSED) {
+            log.warn("Player service is failing, rejecting calls for {} ms", openNanos / 1_000_000);
+        } else if (next == State.CLOSED) {
+            log.info("Player service has recovered");
+        }
+        state = next;
+        stateSince = nanoTime.getAsLong();
+        consecutiveFailures = 0;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of calls that have been rejected without being sent.
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+                "state=" + state +
+                ", rejected=" + rejectedCount() +
+                '}';
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Call that fails on start without touching the network.
+     */
+    private static class RejectedCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private static final Status REJECTED = Status.UNAVAILABLE.withDescription("circuit breaker is open");
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            responseListener.onClose(REJECTED, new Metadata());
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void cancel(@Nullable String message, @Nullable Throwable cause) {
+        }
+
+        @Override
+        public void halfClose() {
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+        }
+    }
+}
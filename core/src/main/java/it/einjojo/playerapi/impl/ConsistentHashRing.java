@@ -0,0 +1,66 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Consistent-hash ring that maps UUIDs to nodes.
+ * <p>Every node is placed on the ring multiple times (virtual nodes) at the murmur3 hashes of its name. A UUID belongs
+ * to the first node at or after its own hash. Since the points of a node only depend on its name, adding a node only
+ * takes over the UUIDs right before its points, about 1/N of all UUIDs.</p>
+ *
+ * @param <T> node type
+ */
+public class ConsistentHashRing<T> {
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final List<T> nodes;
+
+    /**
+     * Constructor for ConsistentHashRing.
+     *
+     * @param nodes        the nodes by their name
+     * @param virtualNodes points per node on the ring
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        // sorted, so colliding points are resolved the same way on every backend
+        SortedMap<String, T> sorted = new TreeMap<>(nodes);
+        for (Map.Entry<String, T> node : sorted.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                long point = HASH.hashString(node.getKey() + '#' + i, StandardCharsets.UTF_8).asLong();
+                ring.putIfAbsent(point, node.getValue());
+            }
+        }
+        this.nodes = List.copyOf(sorted.values());
+    }
+
+    /**
+     * Looks up the owning node.
+     *
+     * @param uuid the key
+     * @return the node the key belongs to
+     */
+    public T get(UUID uuid) {
+        long hash = HASH.newHasher()
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .hash().asLong();
+        Map.Entry<Long, T> owner = ring.ceilingEntry(hash);
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<T> nodes() {
+        return nodes;
+    }
+}
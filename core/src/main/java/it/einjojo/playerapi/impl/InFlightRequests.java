@@ -0,0 +1,64 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight registry of pending gRPC calls.
+ * <p>Concurrent callers asking the same method for the same key share one in-flight call instead of sending their own.
+ * The call is forgotten as soon as it completes, so results are never reused after the fact.</p>
+ */
+public class InFlightRequests {
+    private final Map<RequestKey, ListenableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * Joins the in-flight call for the method and key, or starts a new one.
+     *
+     * @param method name of the rpc
+     * @param key    the key that is looked up
+     * @param call   starts the call
+     * @param <T>    response type
+     * @return the shared call
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ListenableFuture<T> coalesce(String method, Object key, Supplier<ListenableFuture<T>> call) {
+        RequestKey requestKey = new RequestKey(method, key);
+        SettableFuture<T> placeholder = SettableFuture.create();
+        // the placeholder is registered before the call is sent, so only the caller that registered it sends the call
+        ListenableFuture<?> existing = inFlight.putIfAbsent(requestKey, placeholder);
+        if (existing != null) {
+            deduplicated.increment();
+            return (ListenableFuture<T>) existing;
+        }
+        placeholder.addListener(() -> inFlight.remove(requestKey, placeholder), MoreExecutors.directExecutor());
+        try {
+            placeholder.setFuture(call.get());
+        } catch (RuntimeException e) {
+            placeholder.setException(e);
+        }
+        return placeholder;
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of calls that have joined an in-flight call instead of being sent.
+     */
+    public long deduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private record RequestKey(String method, Object key) {
+    }
+}
@@ -0,0 +1,150 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.config.CircuitBreakerConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Remembers the last successful response of each read call and serves it, marked stale, if the call fails because the
+ * player service is unreachable or the circuit breaker is open.
+ * <p>Responses are keyed like {@link InFlightRequests}, by method name and the looked up key. Unknown players are not
+ * remembered, so their lookups keep failing while the service is unreachable. Batch calls are remembered and answered
+ * per key, under the key of the matching single lookup.</p>
+ */
+public class LastKnownGoodStore {
+    private final Cache<ResponseKey, Object> responses;
+    private final LongAdder served = new LongAdder();
+
+    /**
+     * Constructor for LastKnownGoodStore.
+     *
+     * @param configuration config
+     */
+    public LastKnownGoodStore(@NotNull CircuitBreakerConfiguration configuration) {
+        this.responses = CacheBuilder.newBuilder()
+                .maximumSize(configuration.fallbackMaximumSize())
+                .expireAfterWrite(configuration.fallbackTtlSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Remembers the response of the call or answers it from the last known response if the call fails.
+     *
+     * @param method name of the rpc
+     * @param key    the key that is looked up
+     * @param future the call
+     * @param <T>    response type
+     * @return the response, or the last known response marked stale
+     */
+    public <T> CompletableFuture<T> serve(String method, Object key, CompletableFuture<T> future) {
+        ResponseKey responseKey = new ResponseKey(method, key);
+        return future.handle((response, throwable) -> {
+            if (throwable == null) {
+                if (response != null) {
+                    responses.put(responseKey, response);
+                }
+                return CompletableFuture.completedFuture(response);
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            Object known = CircuitBreaker.isUnavailable(cause) ? responses.getIfPresent(responseKey) : null;
+            if (known == null) {
+                return CompletableFuture.<T>failedFuture(cause);
+            }
+            served.increment();
+            @SuppressWarnings("unchecked")
+            T stale = (T) markStale(known);
+            return CompletableFuture.completedFuture(stale);
+        }).thenCompose(result -> result);
+    }
+
+    /**
+     * Remembers every entry of a batch response under the key of the single lookup, or answers the batch per key from
+     * the last known responses if the call fails. Keys without a known response are absent from the stale answer, if
+     * none of the keys is known the call keeps failing.
+     *
+     * @param method    name of the single lookup rpc the entries are remembered under
+     * @param keys      the keys that are looked up
+     * @param storeKey  maps a requested key to the key of the single lookup
+     * @param future    the batch call
+     * @param <K>       key type
+     * @param <V>       value type
+     * @return the response, or the last known responses marked stale
+     */
+    public <K, V> CompletableFuture<Map<K, V>> serveAll(String method, Collection<K> keys, Function<K, ?> storeKey, CompletableFuture<Map<K, V>> future) {
+        return future.handle((response, throwable) -> {
+            if (throwable == null) {
+                response.forEach((key, value) -> {
+                    if (value != null) responses.put(new ResponseKey(method, storeKey.apply(key)), value);
+                });
+                return CompletableFuture.completedFuture(response);
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (!CircuitBreaker.isUnavailable(cause)) {
+                return CompletableFuture.<Map<K, V>>failedFuture(cause);
+            }
+            Map<K, V> known = new HashMap<>();
+            for (K key : keys) {
+                Object value = responses.getIfPresent(new ResponseKey(method, storeKey.apply(key)));
+                if (value != null) {
+                    @SuppressWarnings("unchecked")
+                    V stale = (V) markStale(value);
+                    known.put(key, stale);
+                }
+            }
+            if (known.isEmpty()) {
+                return CompletableFuture.<Map<K, V>>failedFuture(cause);
+            }
+            served.increment();
+            return CompletableFuture.completedFuture(Collections.unmodifiableMap(known));
+        }).thenCompose(result -> result);
+    }
+
+    private static Object markStale(Object response) {
+        if (response instanceof NetworkPlayer player) {
+            return new StaleNetworkPlayer(player);
+        }
+        if (response instanceof OfflineNetworkPlayer player) {
+            return new StaleOfflineNetworkPlayer(player);
+        }
+        if (response instanceof List<?> list && !list.isEmpty() && list.getFirst() instanceof NetworkPlayer) {
+            List<NetworkPlayer> players = new ArrayList<>(list.size());
+            for (Object player : list) {
+                players.add(new StaleNetworkPlayer((NetworkPlayer) player));
+            }
+            return Collections.unmodifiableList(players);
+        }
+        // unique ids and name lists have no way to carry the stale flag
+        return response;
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of failed calls that have been answered with a stale response.
+     */
+    public long servedCount() {
+        return served.sum();
+    }
+
+    public long size() {
+        return responses.size();
+    }
+
+    private record ResponseKey(String method, Object key) {
+    }
+}
@@ -0,0 +1,74 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Flyweight view over an {@link OnlinePlayerDefinition}. Fields are decoded when they are accessed for the first time.
+ */
+public class LazyNetworkPlayer implements NetworkPlayer {
+    private final OnlinePlayerDefinition definition;
+    private UUID uniqueId;
+
+    public LazyNetworkPlayer(OnlinePlayerDefinition definition) {
+        this.definition = definition;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        UUID uuid = uniqueId;
+        if (uuid == null) {
+            // racing threads decode the same value, UUID is immutable
+            uuid = PlayerMapper.readUniqueId(definition);
+            uniqueId = uuid;
+        }
+        return uuid;
+    }
+
+    @Override
+    public String getName() {
+        return definition.getUsername();
+    }
+
+    @Override
+    public boolean isOnline() {
+        return true;
+    }
+
+    @Override
+    public long getFirstPlayed() {
+        return definition.getFirstLogin();
+    }
+
+    @Override
+    public long getLastPlayed() {
+        return definition.getLastLogin();
+    }
+
+    @Override
+    public long getPlaytime() {
+        return definition.getOnlineTime();
+    }
+
+    @Override
+    public Optional<String> getConnectedServerName() {
+        return Optional.of(definition.getConnectedServerName());
+    }
+
+    @Override
+    public String getConnectedProxyName() {
+        return definition.getConnectedProxyName();
+    }
+
+    @Override
+    public long getSessionId() {
+        return definition.getSessionId();
+    }
+
+    public OnlinePlayerDefinition getDefinition() {
+        return definition;
+    }
+}
@@ -0,0 +1,37 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list that maps the player definitions of a response to {@link LazyNetworkPlayer} views on access.
+ * A view is created at most once per index, as long as no other thread creates it at the same time.
+ */
+public class LazyNetworkPlayerList extends AbstractList<NetworkPlayer> implements RandomAccess {
+    private final List<OnlinePlayerDefinition> definitions;
+    private final NetworkPlayer[] views;
+
+    public LazyNetworkPlayerList(List<OnlinePlayerDefinition> definitions) {
+        this.definitions = definitions;
+        this.views = new NetworkPlayer[definitions.size()];
+    }
+
+    @Override
+    public NetworkPlayer get(int index) {
+        NetworkPlayer view = views[index];
+        if (view == null) {
+            view = new LazyNetworkPlayer(definitions.get(index));
+            views[index] = view;
+        }
+        return view;
+    }
+
+    @Override
+    public int size() {
+        return views.length;
+    }
+}
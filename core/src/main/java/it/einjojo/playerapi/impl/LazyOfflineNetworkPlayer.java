@@ -0,0 +1,58 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.protocol.player.OfflinePlayerDefinition;
+
+import java.util.UUID;
+
+/**
+ * Flyweight view over an {@link OfflinePlayerDefinition}. Fields are decoded when they are accessed for the first time.
+ */
+public class LazyOfflineNetworkPlayer implements OfflineNetworkPlayer {
+    private final OfflinePlayerDefinition definition;
+    private UUID uniqueId;
+
+    public LazyOfflineNetworkPlayer(OfflinePlayerDefinition definition) {
+        this.definition = definition;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        UUID uuid = uniqueId;
+        if (uuid == null) {
+            // racing threads decode the same value, UUID is immutable
+            uuid = PlayerMapper.readUniqueId(definition);
+            uniqueId = uuid;
+        }
+        return uuid;
+    }
+
+    @Override
+    public String getName() {
+        return definition.getUsername();
+    }
+
+    @Override
+    public boolean isOnline() {
+        return definition.getOnline();
+    }
+
+    @Override
+    public long getFirstPlayed() {
+        return definition.getFirstLogin();
+    }
+
+    @Override
+    public long getLastPlayed() {
+        return definition.getLastLogin();
+    }
+
+    @Override
+    public long getPlaytime() {
+        return definition.getOnlineTime();
+    }
+
+    public OfflinePlayerDefinition getDefinition() {
+        return definition;
+    }
+}
@@ -0,0 +1,71 @@
+package it.einjojo.playerapi.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that counts the tasks which wait for a thread and the tasks which are running.
+ * <p>The counts are kept by the wrapper instead of being read from the pool, so they work for virtual threads and
+ * direct execution as well.</p>
+ */
+public class MeteredExecutor implements Executor {
+    private final String name;
+    private final Executor delegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Constructor for MeteredExecutor.
+     *
+     * @param name     name of the executor, used in logs
+     * @param delegate the executor that runs the tasks
+     */
+    public MeteredExecutor(String name, Executor delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            // rejected, the task never runs
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of tasks that have been submitted but have not started yet.
+     */
+    public int queueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of tasks that are running, which is the amount of busy threads.
+     */
+    public int activeThreads() {
+        return active.get();
+    }
+}
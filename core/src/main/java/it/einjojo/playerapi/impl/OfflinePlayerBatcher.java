@@ -0,0 +1,130 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.config.BatchingConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent single lookups by UUID and resolves them with one batch request.
+ * <p>A batch is sent when its window has elapsed or when it has reached the maximum size, whichever comes first.
+ * Concurrent lookups of the same UUID within one window share a future.</p>
+ */
+public class OfflinePlayerBatcher {
+    private final Function<Set<UUID>, CompletableFuture<Map<UUID, OfflineNetworkPlayer>>> batchLookup;
+    private final Executor windowExecutor;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private Map<UUID, CompletableFuture<OfflineNetworkPlayer>> pending = new HashMap<>();
+    private long window;
+
+    /**
+     * Constructor for OfflinePlayerBatcher.
+     *
+     * @param batchLookup   sends a batch request
+     * @param executor      the executor to send the batches on
+     * @param configuration config
+     */
+    public OfflinePlayerBatcher(Function<Set<UUID>, CompletableFuture<Map<UUID, OfflineNetworkPlayer>>> batchLookup,
+                                Executor executor, @NotNull BatchingConfiguration configuration) {
+        this.batchLookup = batchLookup;
+        this.windowExecutor = CompletableFuture.delayedExecutor(configuration.windowMicros(), TimeUnit.MICROSECONDS, executor);
+        this.maxBatchSize = configuration.maxBatchSize();
+    }
+
+    public CompletableFuture<OfflineNetworkPlayer> getOfflinePlayer(UUID uuid) {
+        lookups.increment();
+        CompletableFuture<OfflineNetworkPlayer> future;
+        Map<UUID, CompletableFuture<OfflineNetworkPlayer>> full = null;
+        long openedWindow = -1;
+        synchronized (lock) {
+            future = pending.computeIfAbsent(uuid, key -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new HashMap<>();
+                window++;
+            } else if (pending.size() == 1) {
+                openedWindow = window;
+            }
+        }
+        if (full != null) {
+            send(full);
+        } else if (openedWindow != -1) {
+            long scheduledWindow = openedWindow;
+            windowExecutor.execute(() -> flush(scheduledWindow));
+        }
+        return future;
+    }
+
+    /**
+     * Sends the batch of the given window, unless it has already been sent because it was full.
+     *
+     * @param expectedWindow the window the flush has been scheduled for
+     */
+    private void flush(long expectedWindow) {
+        Map<UUID, CompletableFuture<OfflineNetworkPlayer>> batch;
+        synchronized (lock) {
+            if (window != expectedWindow || pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+            window++;
+        }
+        send(batch);
+    }
+
+    private void send(Map<UUID, CompletableFuture<OfflineNetworkPlayer>> batch) {
+        batches.increment();
+        CompletableFuture<Map<UUID, OfflineNetworkPlayer>> response;
+        try {
+            response = batchLookup.apply(batch.keySet());
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((players, throwable) -> {
+            for (Map.Entry<UUID, CompletableFuture<OfflineNetworkPlayer>> entry : batch.entrySet()) {
+                if (throwable != null) {
+                    entry.getValue().completeExceptionally(throwable);
+                } else {
+                    entry.getValue().complete(players == null ? null : players.get(entry.getKey()));
+                }
+            }
+        });
+    }
+
+    public long lookupCount() {
+        return lookups.sum();
+    }
+
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * getter
+     *
+     * @return the average amount of lookups that have been resolved per batch request.
+     */
+    public double averageBatchSize() {
+        long batchCount = batches.sum();
+        return batchCount == 0 ? 0 : (double) lookups.sum() / batchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "OfflinePlayerBatcher{" +
+                "lookups=" + lookupCount() +
+                ", batches=" + batchCount() +
+                '}';
+    }
+}
@@ -0,0 +1,263 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.playerapi.RedisEventStream;
+import it.einjojo.playerapi.config.OnlinePlayerRegistryConfiguration;
+import it.einjojo.protocol.player.GetOnlinePlayersResponse;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.OfflinePlayerDefinition;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Local replica of all players that are online on the network.
+ * <p>The replica is seeded with a single {@code GetOnlinePlayers} call and then kept up to date with the login, logout
+ * and server switch notifications. The periodic consistency check is still needed: pub/sub drops the notifications
+ * sent while the connection is down, and server switches are only published by proxies that run this plugin. The
+ * check re-synchronizes the replica with the service and repairs any drift. With the event stream, missed entries are
+ * detected as gaps and re-synchronized right away, so the check only covers events that were never written.</p>
+ * <p>Notifications that arrive while a synchronization is in flight are replayed on top of the fetched snapshot.</p>
+ * <p>Alternatively the replica can be fed by an {@link OnlinePlayerWatcher}, which also delivers server switches.
+ * In that case neither the notifications nor the consistency check are needed.</p>
+ */
+public class OnlinePlayerRegistry implements OnlinePlayerWatcher.Listener, RedisEventStream.Listener, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(OnlinePlayerRegistry.class);
+    private final Map<UUID, NetworkPlayer> players = new ConcurrentHashMap<>();
+    private final Map<String, UUID> uniqueIds = new ConcurrentHashMap<>();
+    private final Supplier<ListenableFuture<GetOnlinePlayersResponse>> snapshotSource;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long consistencyCheckSeconds;
+    private final Object lock = new Object();
+    private @Nullable List<Runnable> pendingDeltas;
+    private @Nullable CompletableFuture<Void> synchronization;
+    private volatile boolean ready;
+
+    /**
+     * Constructor for OnlinePlayerRegistry.
+     *
+     * @param snapshotSource requests all online players, from a single service or merged from all shards
+     * @param executor       the executor to run the callbacks on
+     * @param configuration  config
+     */
+    public OnlinePlayerRegistry(Supplier<ListenableFuture<GetOnlinePlayersResponse>> snapshotSource, Executor executor,
+                                @NotNull OnlinePlayerRegistryConfiguration configuration) {
+        this.snapshotSource = snapshotSource;
+        this.executor = executor;
+        this.consistencyCheckSeconds = configuration.consistencyCheckSeconds();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("playerapi-registry")
+                .daemon()
+                .factory());
+    }
+
+    /**
+     * Seeds the replica and schedules the consistency check. Not required if the replica is fed by a watcher.
+     */
+    public void start() {
+        synchronize();
+        scheduler.scheduleWithFixedDelay(this::synchronize, consistencyCheckSeconds, consistencyCheckSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Fetches the online players from the service and replaces the local state with it.
+     *
+     * @return a future that completes when the snapshot has been applied
+     */
+    public CompletableFuture<Void> synchronize() {
+        CompletableFuture<Void> result;
+        synchronized (lock) {
+            if (synchronization != null) {
+                return synchronization;
+            }
+            pendingDeltas = new ArrayList<>();
+            result = synchronization = new CompletableFuture<>();
+        }
+        ListenableFuture<GetOnlinePlayersResponse> future = snapshotSource.get();
+        future.addListener(() -> {
+            synchronized (lock) {
+                List<Runnable> deltas = pendingDeltas;
+                pendingDeltas = null;
+                synchronization = null;
+                if (future.state() != Future.State.SUCCESS) {
+                    log.warn("Failed to synchronize online players", future.exceptionNow());
+                    result.completeExceptionally(future.exceptionNow());
+                    return;
+                }
+                applySnapshot(future.resultNow().getPlayersList());
+                if (deltas != null) {
+                    deltas.forEach(Runnable::run);
+                }
+                ready = true;
+            }
+            result.complete(null);
+        }, executor);
+        return result;
+    }
+
+    private void applySnapshot(List<OnlinePlayerDefinition> snapshot) {
+        Set<UUID> stale = new HashSet<>(players.keySet());
+        int drift = 0;
+        for (OnlinePlayerDefinition definition : snapshot) {
+            NetworkPlayer player = PlayerMapper.toLocal(definition);
+            NetworkPlayer previous = players.get(player.getUniqueId());
+            stale.remove(player.getUniqueId());
+            if (previous == null || !previous.getConnectedServerName().equals(player.getConnectedServerName())
+                    || previous.getSessionId() != player.getSessionId()) {
+                drift++;
+            }
+            put(player);
+        }
+        for (UUID uuid : stale) {
+            remove(uuid);
+        }
+        drift += stale.size();
+        if (ready && drift > 0) {
+            log.info("Repaired {} drifted entries of the online player registry", drift);
+        }
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify login notification
+     */
+    @Override
+    public void handleLogin(LoginNotify notify) {
+        if (!notify.hasPlayer()) return;
+        NetworkPlayer player = PlayerMapper.toLocal(notify.getPlayer());
+        apply(() -> put(player));
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify logout notification
+     */
+    @Override
+    public void handleLogout(LogoutNotify notify) {
+        if (!notify.hasPlayer()) return;
+        OfflinePlayerDefinition player = notify.getPlayer();
+        UUID uuid = PlayerMapper.readUniqueId(player);
+        apply(() -> remove(uuid));
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify server switch notification
+     */
+    @Override
+    public void handleServerSwitch(ServerSwitchNotify notify) {
+        onMoved(PlayerMapper.readUniqueId(notify.getUuidMsb(), notify.getUuidLsb(), notify.getUniqueId()), notify.getConnectedServerName());
+    }
+
+    /**
+     * Missed notifications are repaired with a snapshot.
+     */
+    @Override
+    public void handleGap() {
+        synchronize();
+    }
+
+    @Override
+    public void onSnapshot(List<OnlinePlayerDefinition> snapshot) {
+        synchronized (lock) {
+            applySnapshot(snapshot);
+            ready = true;
+        }
+    }
+
+    @Override
+    public void onAdded(OnlinePlayerDefinition player) {
+        NetworkPlayer networkPlayer = PlayerMapper.toLocal(player);
+        apply(() -> put(networkPlayer));
+    }
+
+    @Override
+    public void onRemoved(UUID uuid) {
+        apply(() -> remove(uuid));
+    }
+
+    @Override
+    public void onMoved(UUID uuid, String serverName) {
+        apply(() -> players.computeIfPresent(uuid, (key, player) -> PlayerMapper.withConnectedServer(player, serverName)));
+    }
+
+    private void apply(Runnable delta) {
+        synchronized (lock) {
+            if (pendingDeltas != null) {
+                pendingDeltas.add(delta);
+            }
+            delta.run();
+        }
+    }
+
+    private void put(NetworkPlayer player) {
+        NetworkPlayer previous = players.put(player.getUniqueId(), player);
+        if (previous != null && !previous.getName().equalsIgnoreCase(player.getName())) {
+            uniqueIds.remove(key(previous.getName()));
+        }
+        uniqueIds.put(key(player.getName()), player.getUniqueId());
+    }
+
+    private void remove(UUID uuid) {
+        NetworkPlayer previous = players.remove(uuid);
+        if (previous != null) {
+            uniqueIds.remove(key(previous.getName()), uuid);
+        }
+    }
+
+    /**
+     * getter
+     *
+     * @return true once the first snapshot has been applied.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<NetworkPlayer> getPlayers() {
+        return List.copyOf(players.values());
+    }
+
+    public List<String> getPlayerNames() {
+        List<String> names = new ArrayList<>(players.size());
+        for (NetworkPlayer player : players.values()) {
+            names.add(player.getName());
+        }
+        return names;
+    }
+
+    public boolean isOnline(UUID uuid) {
+        return players.containsKey(uuid);
+    }
+
+    public boolean isOnline(String name) {
+        return uniqueIds.containsKey(key(name));
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,177 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.Context;
+import io.grpc.stub.StreamObserver;
+import it.einjojo.protocol.player.*;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client of the {@code WatchOnlinePlayers} stream.
+ * <p>When the stream breaks, for example because the channel reconnects, it is reopened with the last applied version,
+ * so the service only has to send the events that have been missed. If the service no longer holds them, it starts
+ * over with a snapshot.</p>
+ */
+public class OnlinePlayerWatcher implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(OnlinePlayerWatcher.class);
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private final PlayerServiceGrpc.PlayerServiceStub playerServiceStub;
+    private final Executor executor;
+    private final Listener listener;
+    private final Object lock = new Object();
+    private @Nullable Context.CancellableContext context;
+    private String epoch = "";
+    private long version;
+    private long backoffMillis = MIN_BACKOFF_MILLIS;
+    private boolean closed;
+
+    /**
+     * Constructor for OnlinePlayerWatcher.
+     *
+     * @param playerServiceStub async stub
+     * @param executor          runs the reconnect attempts
+     * @param listener          receives the events in order
+     */
+    public OnlinePlayerWatcher(PlayerServiceGrpc.PlayerServiceStub playerServiceStub, Executor executor, Listener listener) {
+        this.playerServiceStub = playerServiceStub;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * Opens the stream. Resumes from the last applied version if the watcher has been connected before.
+     */
+    public void start() {
+        WatchOnlinePlayersRequest request;
+        Context.CancellableContext callContext;
+        synchronized (lock) {
+            if (closed) return;
+            request = WatchOnlinePlayersRequest.newBuilder()
+                    .setEpoch(epoch)
+                    .setResumeFromVersion(version)
+                    .build();
+            callContext = context = Context.current().withCancellation();
+        }
+        // the call is bound to its own context, so closing the watcher cancels it
+        callContext.run(() -> playerServiceStub.watchOnlinePlayers(request, new EventObserver()));
+    }
+
+    private void handle(OnlinePlayersEvent event) {
+        synchronized (lock) {
+            if (closed) return;
+            if (event.getEpoch().equals(epoch) && event.getVersion() <= version) {
+                return; // already applied
+            }
+            epoch = event.getEpoch();
+            version = event.getVersion();
+            backoffMillis = MIN_BACKOFF_MILLIS;
+        }
+        try {
+            switch (event.getEventCase()) {
+                case SNAPSHOT -> listener.onSnapshot(event.getSnapshot().getPlayersList());
+                case ADDED -> listener.onAdded(event.getAdded());
+                case REMOVED -> {
+                    OnlinePlayerRemoved removed = event.getRemoved();
+                    listener.onRemoved(PlayerMapper.readUniqueId(removed.getUuidMsb(), removed.getUuidLsb(), removed.getUniqueId()));
+                }
+                case MOVED -> {
+                    OnlinePlayerMoved moved = event.getMoved();
+                    listener.onMoved(PlayerMapper.readUniqueId(moved.getUuidMsb(), moved.getUuidLsb(), moved.getUniqueId()), moved.getConnectedServerName());
+                }
+                case EVENT_NOT_SET -> {
+                }
+            }
+        } catch (Exception e) {
+            log.error("Exception during online player event processing", e);
+        }
+    }
+
+    private void reconnect() {
+        long delay;
+        synchronized (lock) {
+            if (closed) return;
+            delay = backoffMillis;
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        }
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(this::start);
+    }
+
+    /**
+     * getter
+     *
+     * @return the version of the last applied event
+     */
+    public long getVersion() {
+        synchronized (lock) {
+            return version;
+        }
+    }
+
+    @Override
+    public void close() {
+        Context.CancellableContext current;
+        synchronized (lock) {
+            closed = true;
+            current = context;
+            context = null;
+        }
+        if (current != null) {
+            current.cancel(null);
+        }
+    }
+
+    /**
+     * Receives the changes of the online player list.
+     */
+    public interface Listener {
+
+        /**
+         * Replaces all known online players.
+         *
+         * @param players the players that are online
+         */
+        void onSnapshot(List<OnlinePlayerDefinition> players);
+
+        void onAdded(OnlinePlayerDefinition player);
+
+        void onRemoved(UUID uuid);
+
+        void onMoved(UUID uuid, String serverName);
+    }
+
+    private class EventObserver implements StreamObserver<OnlinePlayersEvent> {
+
+        @Override
+        public void onNext(OnlinePlayersEvent event) {
+            handle(event);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!isClosed()) {
+                log.warn("Online player stream failed: {}", t.getMessage());
+            }
+            reconnect();
+        }
+
+        @Override
+        public void onCompleted() {
+            reconnect();
+        }
+
+        private boolean isClosed() {
+            synchronized (lock) {
+                return closed;
+            }
+        }
+    }
+}
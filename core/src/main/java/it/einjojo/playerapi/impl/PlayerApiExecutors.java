@@ -0,0 +1,187 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import it.einjojo.playerapi.config.ExecutorConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The executors of the plugin, one per kind of work so a burst of one kind does not starve the others.
+ * <ul>
+ *     <li>transport: gRPC channel callbacks</li>
+ *     <li>callbacks: mapping of responses in {@code createCallback} and the user's continuations</li>
+ *     <li>dispatch: pub sub messages to their consumers</li>
+ * </ul>
+ * <p>Also owns the event loops. gRPC ships a shaded netty, so its channels and the redis clients cannot share one
+ * event loop group, but every gRPC channel shares {@link #grpcEventLoopGroup()} and every redis client shares
+ * {@link #redisResources()}.</p>
+ * <p>The gRPC event loops use native epoll if it is available (linux), which is also required for unix domain
+ * sockets. Lettuce picks its native transport by itself if netty's epoll is on the classpath.</p>
+ */
+public class PlayerApiExecutors implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PlayerApiExecutors.class);
+    private final List<ExecutorService> services;
+    private final MeteredExecutor transport;
+    private final MeteredExecutor callbacks;
+    private final MeteredExecutor dispatch;
+    private final EventLoopGroup grpcEventLoopGroup;
+    private final boolean nativeTransport;
+    private final ClientResources redisResources;
+
+    /**
+     * Constructor for PlayerApiExecutors.
+     *
+     * @param configuration config
+     */
+    public PlayerApiExecutors(@NotNull ExecutorConfiguration configuration) {
+        ExecutorService transportService = create(configuration, "transport", configuration.transportThreads());
+        ExecutorService callbackService = create(configuration, "callback", configuration.callbackThreads());
+        ExecutorService dispatchService = create(configuration, "dispatch", configuration.dispatchThreads());
+        this.services = List.of(transportService, callbackService, dispatchService);
+        this.transport = new MeteredExecutor("transport", transportService);
+        this.callbacks = new MeteredExecutor("callback", callbackService);
+        this.dispatch = new MeteredExecutor("dispatch", dispatchService);
+        var grpcThreadFactory = new ThreadFactoryBuilder().setNameFormat("playerapi-grpc-%d").setDaemon(true).build();
+        this.nativeTransport = Epoll.isAvailable();
+        this.grpcEventLoopGroup = nativeTransport
+                ? new EpollEventLoopGroup(configuration.grpcEventLoopThreads(), grpcThreadFactory)
+                : new NioEventLoopGroup(configuration.grpcEventLoopThreads(), grpcThreadFactory);
+        this.redisResources = DefaultClientResources.builder()
+                .ioThreadPoolSize(configuration.redisIoThreads())
+                .computationThreadPoolSize(configuration.redisComputationThreads())
+                .build();
+        log.info("Using {} executors with {} platform threads (budget: {}), native gRPC transport: {}", configuration.mode(),
+                configuration.platformThreads(), configuration.threadBudget() == 0 ? "unlimited" : configuration.threadBudget(), nativeTransport);
+    }
+
+    private static ExecutorService create(ExecutorConfiguration configuration, String name, int threads) {
+        String nameFormat = "playerapi-" + name + "-%d";
+        return switch (configuration.mode()) {
+            case "virtual" -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("playerapi-" + name + "-", 0).factory());
+            case "bounded" -> {
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(configuration.queueCapacity()),
+                        new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build(),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+                pool.allowCoreThreadTimeOut(true);
+                yield pool;
+            }
+            case "direct" -> MoreExecutors.newDirectExecutorService();
+            default -> Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+        };
+    }
+
+    /**
+     * getter
+     *
+     * @return the executor of the gRPC channel.
+     */
+    public MeteredExecutor transport() {
+        return transport;
+    }
+
+    /**
+     * getter
+     *
+     * @return the executor that maps the responses and completes the returned futures.
+     */
+    public MeteredExecutor callbacks() {
+        return callbacks;
+    }
+
+    /**
+     * getter
+     *
+     * @return the executor that passes pub sub messages to their consumers.
+     */
+    public MeteredExecutor dispatch() {
+        return dispatch;
+    }
+
+    /**
+     * getter
+     *
+     * @return the event loops of all gRPC channels.
+     */
+    public EventLoopGroup grpcEventLoopGroup() {
+        return grpcEventLoopGroup;
+    }
+
+    /**
+     * getter
+     *
+     * @return the TCP channel type that matches {@link #grpcEventLoopGroup()}.
+     */
+    public Class<? extends Channel> grpcChannelType() {
+        return nativeTransport ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * getter
+     *
+     * @return the unix domain socket channel type that matches {@link #grpcEventLoopGroup()}.
+     * @throws IllegalStateException if native epoll is not available
+     */
+    public Class<? extends Channel> grpcDomainSocketChannelType() {
+        if (!nativeTransport) {
+            throw new IllegalStateException("Unix domain sockets require native epoll, which is not available: " + Epoll.unavailabilityCause());
+        }
+        return EpollDomainSocketChannel.class;
+    }
+
+    /**
+     * getter
+     *
+     * @return the event loops and timers of all redis clients.
+     */
+    public ClientResources redisResources() {
+        return redisResources;
+    }
+
+    /**
+     * Stops accepting tasks and waits a few seconds for the running ones. The event loops are stopped last, so the
+     * channels and clients must be closed before.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService service : services) {
+            service.shutdown();
+        }
+        try {
+            for (ExecutorService service : services) {
+                if (!service.awaitTermination(3, TimeUnit.SECONDS)) {
+                    log.warn("Executor did not terminate in time, forcing shutdown...");
+                    service.shutdownNow();
+                    service.awaitTermination(2, TimeUnit.SECONDS);
+                }
+            }
+            log.info("Executor services have been shut down.");
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for executor shutdown.", e);
+            services.forEach(ExecutorService::shutdownNow);
+            Thread.currentThread().interrupt();
+        }
+        grpcEventLoopGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        redisResources.shutdown(0, 2, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,241 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.RedisEventStream;
+import it.einjojo.playerapi.config.PlayerCacheConfiguration;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded near cache for single player lookups, keyed by unique id.
+ * <p>Entries are replaced by login and logout notifications, so a cached player reflects the latest known session.
+ * The lookup methods return a completed future if the cache can answer the request, otherwise null.</p>
+ * <p>A fetched player is only cached if no notification about the same player has arrived while it was fetched. Each
+ * notification stamps the unique id and name it concerns, so churn of other players does not discard the fetch.</p>
+ */
+public class PlayerCache implements RedisEventStream.Listener {
+    private final Cache<UUID, OfflineNetworkPlayer> players;
+    private final Cache<String, UUID> uniqueIds;
+    // stamps of the last notification per unique id or lower case name
+    private final Cache<Object, Long> stamps;
+    private final AtomicLong clock = new AtomicLong();
+    // stamp of the last gap of the event stream, which concerns every player
+    private volatile long gapStamp;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PlayerCache(@NotNull PlayerCacheConfiguration configuration) {
+        this.players = CacheBuilder.newBuilder()
+                .maximumSize(configuration.maximumSize())
+                .expireAfterWrite(configuration.ttlMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.uniqueIds = CacheBuilder.newBuilder()
+                .maximumSize(configuration.maximumSize())
+                .expireAfterWrite(configuration.ttlMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        // a stamp only matters while a fetch that started before it is in flight
+        this.stamps = CacheBuilder.newBuilder()
+                .maximumSize(configuration.maximumSize())
+                .expireAfterWrite(Math.max(configuration.ttlMillis(), 60_000), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public @Nullable CompletableFuture<OfflineNetworkPlayer> lookupOfflinePlayer(UUID uuid) {
+        OfflineNetworkPlayer cached = getOfflinePlayer(uuid);
+        return cached == null ? null : CompletableFuture.completedFuture(cached);
+    }
+
+    public @Nullable OfflineNetworkPlayer getOfflinePlayer(UUID uuid) {
+        return record(players.getIfPresent(uuid));
+    }
+
+    public @Nullable CompletableFuture<OfflineNetworkPlayer> lookupOfflinePlayer(String name) {
+        UUID uuid = uniqueIds.getIfPresent(key(name));
+        if (uuid == null) {
+            misses.increment();
+            return null;
+        }
+        return lookupOfflinePlayer(uuid);
+    }
+
+    /**
+     * A cached player that is known to be offline also answers the request.
+     *
+     * @param uuid the player's UUID
+     * @return a completed future or null if the service has to be asked.
+     */
+    public @Nullable CompletableFuture<NetworkPlayer> lookupOnlinePlayer(UUID uuid) {
+        OfflineNetworkPlayer cached = players.getIfPresent(uuid);
+        if (cached instanceof NetworkPlayer networkPlayer) {
+            hits.increment();
+            return CompletableFuture.completedFuture(networkPlayer);
+        }
+        if (cached != null && !cached.isOnline()) {
+            hits.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public @Nullable CompletableFuture<NetworkPlayer> lookupOnlinePlayer(String name) {
+        UUID uuid = uniqueIds.getIfPresent(key(name));
+        if (uuid == null) {
+            misses.increment();
+            return null;
+        }
+        return lookupOnlinePlayer(uuid);
+    }
+
+    public @Nullable CompletableFuture<UUID> lookupUniqueId(String name) {
+        UUID uuid = getUniqueId(name);
+        return uuid == null ? null : CompletableFuture.completedFuture(uuid);
+    }
+
+    public @Nullable UUID getUniqueId(String name) {
+        return record(uniqueIds.getIfPresent(key(name)));
+    }
+
+    /**
+     * Marks the start of a fetch. The fetched player is only cached if no notification about them has arrived in the
+     * meantime.
+     *
+     * @return the mark to pass to {@link #put(OfflineNetworkPlayer, long)}
+     */
+    public long mark() {
+        return clock.get();
+    }
+
+    public synchronized void put(@Nullable OfflineNetworkPlayer player, long mark) {
+        if (player == null || gapStamp > mark || isStamped(player.getUniqueId(), mark) || isStamped(key(player.getName()), mark)) {
+            return;
+        }
+        put(player);
+    }
+
+    private boolean isStamped(Object key, long mark) {
+        Long stamp = stamps.getIfPresent(key);
+        return stamp != null && stamp > mark;
+    }
+
+    private void stamp(UUID uuid, String name) {
+        long stamp = clock.incrementAndGet();
+        stamps.put(uuid, stamp);
+        stamps.put(key(name), stamp);
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify login notification
+     */
+    @Override
+    public synchronized void handleLogin(LoginNotify notify) {
+        if (notify.hasPlayer()) {
+            NetworkPlayer player = PlayerMapper.toLocal(notify.getPlayer());
+            stamp(player.getUniqueId(), player.getName());
+            put(player);
+        }
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify logout notification
+     */
+    @Override
+    public synchronized void handleLogout(LogoutNotify notify) {
+        if (notify.hasPlayer()) {
+            OfflineNetworkPlayer player = PlayerMapper.toLocal(notify.getPlayer());
+            stamp(player.getUniqueId(), player.getName());
+            put(player);
+        }
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify server switch notification
+     */
+    @Override
+    public synchronized void handleServerSwitch(ServerSwitchNotify notify) {
+        UUID uuid = PlayerMapper.readUniqueId(notify.getUuidMsb(), notify.getUuidLsb(), notify.getUniqueId());
+        stamp(uuid, notify.getUsername());
+        if (players.getIfPresent(uuid) instanceof NetworkPlayer player) {
+            players.put(uuid, PlayerMapper.withConnectedServer(player, notify.getConnectedServerName()));
+        }
+    }
+
+    /**
+     * Missed notifications may have changed any cached player, so all of them are dropped.
+     */
+    @Override
+    public synchronized void handleGap() {
+        gapStamp = clock.incrementAndGet();
+        players.invalidateAll();
+        uniqueIds.invalidateAll();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * getter
+     *
+     * @return ratio of lookups answered by the cache, 0.0 if nothing has been looked up yet.
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public long size() {
+        return players.size();
+    }
+
+    private void put(OfflineNetworkPlayer player) {
+        players.put(player.getUniqueId(), player);
+        uniqueIds.put(key(player.getName()), player.getUniqueId());
+    }
+
+    private <T> @Nullable T record(@Nullable T cached) {
+        if (cached == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerCache{" +
+                "size=" + size() +
+                ", hits=" + hitCount() +
+                ", misses=" + missCount() +
+                '}';
+    }
+}
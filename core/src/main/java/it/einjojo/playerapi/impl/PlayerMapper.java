@@ -2,46 +2,157 @@ package it.einjojo.playerapi.impl;
 
 import it.einjojo.playerapi.NetworkPlayer;
 import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.ServerSwitch;
 import it.einjojo.protocol.player.GetOfflinePlayerResponse;
 import it.einjojo.protocol.player.GetOnlinePlayerResponse;
 import it.einjojo.protocol.player.OfflinePlayerDefinition;
 import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import it.einjojo.protocol.player.PlayerIdRequest;
+import it.einjojo.protocol.player.PlayerNameRequest;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import it.einjojo.protocol.player.UniqueIdLookupResponse;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.UUID;
 
 
 public class PlayerMapper {
 
     public static OfflineNetworkPlayer toLocal(OfflinePlayerDefinition playerDefinition) {
-        return new OfflineNetworkPlayerImpl(
-                UUID.fromString(playerDefinition.getUniqueId()),
-                playerDefinition.getUsername(),
-                playerDefinition.getFirstLogin(),
-                playerDefinition.getLastLogin(),
-                playerDefinition.getOnlineTime(),
-                playerDefinition.getOnline()
-        );
+        return new LazyOfflineNetworkPlayer(playerDefinition);
     }
 
     public static NetworkPlayer toLocal(OnlinePlayerDefinition playerDefinition) {
+        return new LazyNetworkPlayer(playerDefinition);
+    }
+
+    public static ServerSwitch toLocal(ServerSwitchNotify notify) {
+        return new ServerSwitchImpl(
+                readUniqueId(notify.getUuidMsb(), notify.getUuidLsb(), notify.getUniqueId()),
+                notify.getUsername(),
+                notify.getPreviousServerName().isEmpty() ? null : notify.getPreviousServerName(),
+                notify.getConnectedServerName(),
+                notify.getProxyName()
+        );
+    }
+
+    /**
+     * Maps the players lazily, a player is only wrapped when it is accessed.
+     *
+     * @param playerDefinitions definitions of a response
+     * @return unmodifiable list view
+     */
+    public static List<NetworkPlayer> toLocal(List<OnlinePlayerDefinition> playerDefinitions) {
+        if (playerDefinitions.isEmpty()) return List.of();
+        return new LazyNetworkPlayerList(playerDefinitions);
+    }
+
+    /**
+     * Reads a unique id that has been sent in binary and string form.
+     *
+     * @param msb      most significant bits
+     * @param lsb      least significant bits
+     * @param uniqueId string form, used if the binary form is not set
+     * @return the unique id
+     */
+    public static UUID readUniqueId(long msb, long lsb, String uniqueId) {
+        if (msb == 0 && lsb == 0) {
+            return UUID.fromString(uniqueId);
+        }
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Reads the unique id of a player. The string form is only read if the binary form is not set, a service that sends
+     * the binary form alone saves the 36 character string per player.
+     *
+     * @param definition the player
+     * @return the unique id
+     */
+    public static UUID readUniqueId(OnlinePlayerDefinition definition) {
+        long msb = definition.getUuidMsb();
+        long lsb = definition.getUuidLsb();
+        return msb == 0 && lsb == 0 ? UUID.fromString(definition.getUniqueId()) : new UUID(msb, lsb);
+    }
+
+    /**
+     * Reads the unique id of a player, see {@link #readUniqueId(OnlinePlayerDefinition)}.
+     *
+     * @param definition the player
+     * @return the unique id
+     */
+    public static UUID readUniqueId(OfflinePlayerDefinition definition) {
+        long msb = definition.getUuidMsb();
+        long lsb = definition.getUuidLsb();
+        return msb == 0 && lsb == 0 ? UUID.fromString(definition.getUniqueId()) : new UUID(msb, lsb);
+    }
+
+    /**
+     * The string form is still sent, services that do not know the binary fields rely on it.
+     *
+     * @param uuid the player's UUID
+     * @return request with the unique id in binary and string form
+     */
+    public static PlayerIdRequest toRequest(UUID uuid) {
+        return PlayerIdRequest.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUuidMsb(uuid.getMostSignificantBits())
+                .setUuidLsb(uuid.getLeastSignificantBits())
+                .setNotFoundAsResponse(true)
+                .build();
+    }
+
+    /**
+     * Unknown players are requested to be answered with a regular response instead of the NOT_FOUND status.
+     * Services that do not know the flag still answer with the status, which is handled as well.
+     *
+     * @param name the player's name
+     * @return request with the name
+     */
+    public static PlayerNameRequest toRequest(String name) {
+        return PlayerNameRequest.newBuilder()
+                .setName(name)
+                .setNotFoundAsResponse(true)
+                .build();
+    }
+
+    /**
+     * Copies an online player with a different connected server.
+     *
+     * @param player     the player
+     * @param serverName the server the player has switched to
+     * @return the copy
+     */
+    public static NetworkPlayer withConnectedServer(NetworkPlayer player, String serverName) {
+        if (player instanceof LazyNetworkPlayer view) {
+            return new LazyNetworkPlayer(view.getDefinition().toBuilder().setConnectedServerName(serverName).build());
+        }
         return new NetworkPlayerImpl(
-                UUID.fromString(playerDefinition.getUniqueId()),
-                playerDefinition.getUsername(),
-                playerDefinition.getFirstLogin(),
-                playerDefinition.getLastLogin(),
-                playerDefinition.getOnlineTime(),
+                player.getUniqueId(),
+                player.getName(),
+                player.getFirstPlayed(),
+                player.getLastPlayed(),
+                player.getPlaytime(),
                 true,
-                playerDefinition.getConnectedServerName(),
-                playerDefinition.getConnectedProxyName(),
-                playerDefinition.getSessionId()
+                serverName,
+                player.getConnectedProxyName(),
+                player.getSessionId()
         );
     }
 
-    public static NetworkPlayer readOnlineResponse(GetOnlinePlayerResponse getOnlinePlayerResponse) {
+    public static @Nullable NetworkPlayer readOnlineResponse(GetOnlinePlayerResponse getOnlinePlayerResponse) {
+        if (getOnlinePlayerResponse.getNotFound()) return null;
         return toLocal(getOnlinePlayerResponse.getPlayer());
     }
 
-    public static OfflineNetworkPlayer readOfflineResponse(GetOfflinePlayerResponse getOfflinePlayerResponse) {
+    public static @Nullable OfflineNetworkPlayer readOfflineResponse(GetOfflinePlayerResponse getOfflinePlayerResponse) {
+        if (getOfflinePlayerResponse.getNotFound()) return null;
         return toLocal(getOfflinePlayerResponse.getPlayer());
     }
+
+    public static @Nullable UUID readUniqueIdResponse(UniqueIdLookupResponse uniqueIdLookupResponse) {
+        if (uniqueIdLookupResponse.getNotFound()) return null;
+        return readUniqueId(uniqueIdLookupResponse.getUuidMsb(), uniqueIdLookupResponse.getUuidLsb(), uniqueIdLookupResponse.getUniqueId());
+    }
 }
@@ -0,0 +1,170 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import it.einjojo.playerapi.config.ReadWriteSplitConfiguration;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.LogoutRequest;
+import it.einjojo.protocol.player.PlayerIdRequest;
+import it.einjojo.protocol.player.PlayerIdsRequest;
+import it.einjojo.protocol.player.PlayerNameRequest;
+import it.einjojo.protocol.player.PlayerNamesRequest;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import it.einjojo.protocol.player.UpdateConnectionRequest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Channel that sends writes to the primary service and reads to its replicas.
+ * <p>With read-your-writes, every write remembers the player (by UUID and, for logins, by name) for a short time.
+ * Reads of a remembered player go to the primary, so a lookup right after the login sees it even if the replicas
+ * lag behind. Batch reads go to the primary if any of their players is remembered.</p>
+ */
+public class ReadWriteSplitChannel extends ManagedChannel {
+    private static final Set<String> WRITES = Set.of(
+            PlayerServiceGrpc.getLoginMethod().getFullMethodName(),
+            PlayerServiceGrpc.getLogoutMethod().getFullMethodName(),
+            PlayerServiceGrpc.getUpdateConnectionMethod().getFullMethodName()
+    );
+    private final ManagedChannel primary;
+    private final ManagedChannel replicas;
+    private final @Nullable Cache<Object, Boolean> recentWrites;
+    private final LongAdder readsOnPrimary = new LongAdder();
+
+    /**
+     * Constructor for ReadWriteSplitChannel.
+     *
+     * @param primary       channel to the primary
+     * @param replicas      channel to the read replicas
+     * @param configuration config
+     */
+    public ReadWriteSplitChannel(ManagedChannel primary, ManagedChannel replicas, @NotNull ReadWriteSplitConfiguration configuration) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.recentWrites = configuration.readYourWrites() ? CacheBuilder.newBuilder()
+                .expireAfterWrite(configuration.readYourWritesMillis(), TimeUnit.MILLISECONDS)
+                .<Object, Boolean>build() : null;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+        if (WRITES.contains(methodDescriptor.getFullMethodName())) {
+            if (recentWrites == null) {
+                return primary.newCall(methodDescriptor, callOptions);
+            }
+            return new RoutingCall<>(methodDescriptor, callOptions, this::routeWrite);
+        }
+        if (recentWrites == null || methodDescriptor.getType() != MethodDescriptor.MethodType.UNARY) {
+            return replicas.newCall(methodDescriptor, callOptions);
+        }
+        return new RoutingCall<>(methodDescriptor, callOptions, this::routeRead);
+    }
+
+    private Channel routeWrite(@Nullable Object request) {
+        if (request instanceof LoginRequest loginRequest) {
+            recentWrites.put(UUID.fromString(loginRequest.getUniqueId()), Boolean.TRUE);
+            recentWrites.put(loginRequest.getUsername().toLowerCase(Locale.ROOT), Boolean.TRUE);
+        } else if (request instanceof LogoutRequest logoutRequest) {
+            recentWrites.put(UUID.fromString(logoutRequest.getUniqueId()), Boolean.TRUE);
+        } else if (request instanceof UpdateConnectionRequest updateRequest) {
+            recentWrites.put(UUID.fromString(updateRequest.getUniqueId()), Boolean.TRUE);
+        }
+        return primary;
+    }
+
+    private Channel routeRead(@Nullable Object request) {
+        if (isRecentlyWritten(request)) {
+            readsOnPrimary.increment();
+            return primary;
+        }
+        return replicas;
+    }
+
+    /**
+     * Checks whether a read asks for a player that has been written recently. Batch reads are sent to the primary as a
+     * whole if any of their players has been written.
+     */
+    private boolean isRecentlyWritten(@Nullable Object request) {
+        if (request instanceof PlayerIdRequest idRequest) {
+            return recentWrites.getIfPresent(PlayerMapper.readUniqueId(idRequest.getUuidMsb(), idRequest.getUuidLsb(), idRequest.getUniqueId())) != null;
+        }
+        if (request instanceof PlayerNameRequest nameRequest) {
+            return recentWrites.getIfPresent(nameRequest.getName().toLowerCase(Locale.ROOT)) != null;
+        }
+        if (request instanceof PlayerIdsRequest idsRequest) {
+            for (String uniqueId : idsRequest.getUniqueIdsList()) {
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(uniqueId);
+                } catch (IllegalArgumentException e) {
+                    // rejected by the service wherever it is sent
+                    continue;
+                }
+                if (recentWrites.getIfPresent(uuid) != null) return true;
+            }
+            return false;
+        }
+        if (request instanceof PlayerNamesRequest namesRequest) {
+            for (String name : namesRequest.getNamesList()) {
+                if (recentWrites.getIfPresent(name.toLowerCase(Locale.ROOT)) != null) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of reads that have been sent to the primary because of a recent write.
+     */
+    public long readsOnPrimaryCount() {
+        return readsOnPrimary.sum();
+    }
+
+    @Override
+    public String authority() {
+        return primary.authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        primary.shutdown();
+        replicas.shutdown();
+        return this;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        primary.shutdownNow();
+        replicas.shutdownNow();
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return primary.isShutdown() && replicas.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return primary.isTerminated() && replicas.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return primary.awaitTermination(timeout, unit)
+                && replicas.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+}
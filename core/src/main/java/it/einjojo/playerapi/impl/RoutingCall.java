@@ -0,0 +1,96 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * Call that picks its channel by the request message and is started on it once the message is sent. Until then, the
+ * listener and the requested messages are kept.
+ * <p>Only suited for calls with a single request message, the first message decides the channel.</p>
+ *
+ * @param <ReqT>  request type
+ * @param <RespT> response type
+ */
+class RoutingCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+    private final MethodDescriptor<ReqT, RespT> method;
+    private final CallOptions callOptions;
+    private final Function<@Nullable Object, Channel> router;
+    private @Nullable Listener<RespT> listener;
+    private @Nullable Metadata headers;
+    private @Nullable ClientCall<ReqT, RespT> delegate;
+    private int requested;
+    private boolean cancelled;
+
+    /**
+     * Constructor for RoutingCall.
+     *
+     * @param method      the method
+     * @param callOptions the call options
+     * @param router      picks the channel for the request message, or for null if the call is closed without one
+     */
+    RoutingCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Function<@Nullable Object, Channel> router) {
+        this.method = method;
+        this.callOptions = callOptions;
+        this.router = router;
+    }
+
+    @Override
+    public synchronized void start(Listener<RespT> responseListener, Metadata headers) {
+        this.listener = responseListener;
+        this.headers = headers;
+    }
+
+    @Override
+    public synchronized void request(int numMessages) {
+        if (delegate != null) {
+            delegate.request(numMessages);
+        } else {
+            requested += numMessages;
+        }
+    }
+
+    @Override
+    public synchronized void sendMessage(ReqT message) {
+        if (cancelled) return;
+        delegate(message).sendMessage(message);
+    }
+
+    @Override
+    public synchronized void halfClose() {
+        if (cancelled) return;
+        delegate(null).halfClose();
+    }
+
+    @Override
+    public synchronized void cancel(@Nullable String message, @Nullable Throwable cause) {
+        if (delegate != null) {
+            delegate.cancel(message, cause);
+        } else if (!cancelled && listener != null) {
+            listener.onClose(Status.CANCELLED.withDescription(message).withCause(cause), new Metadata());
+        }
+        cancelled = true;
+    }
+
+    @Override
+    public synchronized boolean isReady() {
+        return delegate != null && delegate.isReady();
+    }
+
+    private ClientCall<ReqT, RespT> delegate(@Nullable Object request) {
+        if (delegate == null) {
+            delegate = router.apply(request).newCall(method, callOptions);
+            delegate.start(listener, headers);
+            if (requested > 0) {
+                delegate.request(requested);
+            }
+        }
+        return delegate;
+    }
+}
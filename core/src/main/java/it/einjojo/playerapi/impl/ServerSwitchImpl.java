@@ -0,0 +1,47 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.ServerSwitch;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public class ServerSwitchImpl implements ServerSwitch {
+    private final UUID uniqueId;
+    private final String name;
+    private final String previousServerName;
+    private final String serverName;
+    private final String proxyName;
+
+    public ServerSwitchImpl(UUID uniqueId, String name, String previousServerName, String serverName, String proxyName) {
+        this.uniqueId = uniqueId;
+        this.name = name;
+        this.previousServerName = previousServerName;
+        this.serverName = serverName;
+        this.proxyName = proxyName;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Optional<String> getPreviousServerName() {
+        return Optional.ofNullable(previousServerName);
+    }
+
+    @Override
+    public String getServerName() {
+        return serverName;
+    }
+
+    @Override
+    public String getProxyName() {
+        return proxyName;
+    }
+}
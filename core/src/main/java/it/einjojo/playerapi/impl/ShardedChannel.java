@@ -0,0 +1,120 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.LogoutRequest;
+import it.einjojo.protocol.player.PlayerIdRequest;
+import it.einjojo.protocol.player.UpdateConnectionRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Channel over several shards of the player service that sends every call keyed by a UUID to the owning shard.
+ * <p>The shard is picked when the request message is sent, so single player calls, logins, logouts and connection
+ * updates are routed without the caller knowing about the shards. Calls without a UUID go to the first shard, callers
+ * that need all shards (online player lists, name lookups) fan out over {@link #getShards()} themselves.</p>
+ */
+public class ShardedChannel extends ManagedChannel {
+    private final ConsistentHashRing<ManagedChannel> ring;
+
+    /**
+     * Constructor for ShardedChannel.
+     *
+     * @param shards       the channels by the name that places them on the ring
+     * @param virtualNodes points per shard on the ring
+     */
+    public ShardedChannel(Map<String, ManagedChannel> shards, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(shards, virtualNodes);
+    }
+
+    /**
+     * Extracts the UUID that decides the owning shard.
+     *
+     * @param request the request message
+     * @return the UUID or null if the request is not keyed by a player
+     */
+    public static @Nullable UUID routingKey(Object request) {
+        if (request instanceof PlayerIdRequest idRequest) {
+            return PlayerMapper.readUniqueId(idRequest.getUuidMsb(), idRequest.getUuidLsb(), idRequest.getUniqueId());
+        }
+        if (request instanceof LoginRequest loginRequest) {
+            return UUID.fromString(loginRequest.getUniqueId());
+        }
+        if (request instanceof LogoutRequest logoutRequest) {
+            return UUID.fromString(logoutRequest.getUniqueId());
+        }
+        if (request instanceof UpdateConnectionRequest updateRequest) {
+            return UUID.fromString(updateRequest.getUniqueId());
+        }
+        return null;
+    }
+
+    public ManagedChannel getShard(UUID uuid) {
+        return ring.get(uuid);
+    }
+
+    public List<ManagedChannel> getShards() {
+        return ring.nodes();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+        return new RoutingCall<>(methodDescriptor, callOptions, request -> {
+            UUID key = routingKey(request);
+            return key != null ? ring.get(key) : ring.nodes().getFirst();
+        });
+    }
+
+    @Override
+    public String authority() {
+        return ring.nodes().getFirst().authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        for (ManagedChannel shard : ring.nodes()) {
+            shard.shutdown();
+        }
+        return this;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        for (ManagedChannel shard : ring.nodes()) {
+            shard.shutdownNow();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        for (ManagedChannel shard : ring.nodes()) {
+            if (!shard.isShutdown()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        for (ManagedChannel shard : ring.nodes()) {
+            if (!shard.isTerminated()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ManagedChannel shard : ring.nodes()) {
+            if (!shard.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.Empty;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import it.einjojo.protocol.player.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Requests that cannot be routed to a single shard of a {@link ShardedChannel}.
+ * <ul>
+ *     <li>Online player lists are requested from every shard and concatenated.</li>
+ *     <li>Name lookups are sent to every shard, the shard that knows the name answers.</li>
+ *     <li>Batch lookups by UUID are split into one request per owning shard.</li>
+ * </ul>
+ * <p>The merged responses have the same form as the response of a single service, so callers handle both alike.</p>
+ */
+public class ShardedRequests {
+    private static final Empty EMPTY = Empty.getDefaultInstance();
+    private final ShardedChannel channel;
+    private final Map<ManagedChannel, PlayerServiceGrpc.PlayerServiceFutureStub> stubs = new IdentityHashMap<>();
+
+    /**
+     * Constructor for ShardedRequests.
+     *
+     * @param channel      the sharded channel
+     * @param interceptors applied to the calls of every shard
+     */
+    public ShardedRequests(ShardedChannel channel, ClientInterceptor... interceptors) {
+        this.channel = channel;
+        for (ManagedChannel shard : channel.getShards()) {
+            stubs.put(shard, PlayerServiceGrpc.newFutureStub(ClientInterceptors.intercept(shard, interceptors)));
+        }
+    }
+
+    public ListenableFuture<GetOnlinePlayersResponse> getOnlinePlayers() {
+        return Futures.transform(fanOut(stub -> stub.getOnlinePlayers(EMPTY)), responses -> {
+            GetOnlinePlayersResponse.Builder merged = GetOnlinePlayersResponse.newBuilder();
+            for (GetOnlinePlayersResponse response : responses) {
+                merged.addAllPlayers(response.getPlayersList());
+            }
+            return merged.build();
+        }, MoreExecutors.directExecutor());
+    }
+
+    public ListenableFuture<GetOnlinePlayerNamesResponse> getOnlinePlayerNames() {
+        return Futures.transform(fanOut(stub -> stub.getOnlinePlayerNames(EMPTY)), responses -> {
+            GetOnlinePlayerNamesResponse.Builder merged = GetOnlinePlayerNamesResponse.newBuilder();
+            for (GetOnlinePlayerNamesResponse response : responses) {
+                merged.addAllNames(response.getNamesList());
+            }
+            return merged.build();
+        }, MoreExecutors.directExecutor());
+    }
+
+    public ListenableFuture<GetOfflinePlayerResponse> getOfflinePlayerByName(PlayerNameRequest request) {
+        return firstFound(stub -> stub.getOfflinePlayerByName(request), response -> !response.getNotFound());
+    }
+
+    public ListenableFuture<GetOnlinePlayerResponse> getOnlinePlayerByName(PlayerNameRequest request) {
+        return firstFound(stub -> stub.getOnlinePlayerByName(request), response -> !response.getNotFound());
+    }
+
+    public ListenableFuture<UniqueIdLookupResponse> getUniqueIdByName(PlayerNameRequest request) {
+        return firstFound(stub -> stub.getUniqueIdByName(request), response -> !response.getNotFound());
+    }
+
+    public ListenableFuture<GetOfflinePlayersResponse> getOfflinePlayersByUniqueIds(Collection<UUID> playerUUIDs) {
+        Map<ManagedChannel, PlayerIdsRequest.Builder> requests = new IdentityHashMap<>();
+        for (UUID uuid : playerUUIDs) {
+            requests.computeIfAbsent(channel.getShard(uuid), shard -> PlayerIdsRequest.newBuilder()).addUniqueIds(uuid.toString());
+        }
+        List<ListenableFuture<GetOfflinePlayersResponse>> calls = new ArrayList<>(requests.size());
+        requests.forEach((shard, request) -> calls.add(stubs.get(shard).getOfflinePlayersByUniqueIds(request.build())));
+        return Futures.transform(Futures.allAsList(calls), responses -> {
+            GetOfflinePlayersResponse.Builder merged = GetOfflinePlayersResponse.newBuilder();
+            for (GetOfflinePlayersResponse response : responses) {
+                merged.addAllPlayers(response.getPlayersList());
+            }
+            return merged.build();
+        }, MoreExecutors.directExecutor());
+    }
+
+    public ListenableFuture<UniqueIdsLookupResponse> getUniqueIdsByNames(PlayerNamesRequest request) {
+        return Futures.transform(fanOut(stub -> stub.getUniqueIdsByNames(request)), responses -> {
+            UniqueIdsLookupResponse.Builder merged = UniqueIdsLookupResponse.newBuilder();
+            for (UniqueIdsLookupResponse response : responses) {
+                merged.putAllUniqueIds(response.getUniqueIdsMap());
+            }
+            return merged.build();
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Sends a call to every shard.
+     *
+     * @param call the call, applied to the stub of every shard
+     * @return the responses of all shards, fails if one of them fails
+     */
+    public <T> ListenableFuture<List<T>> fanOut(Function<PlayerServiceGrpc.PlayerServiceFutureStub, ListenableFuture<T>> call) {
+        List<ListenableFuture<T>> calls = new ArrayList<>(stubs.size());
+        for (PlayerServiceGrpc.PlayerServiceFutureStub stub : stubs.values()) {
+            calls.add(call.apply(stub));
+        }
+        return Futures.allAsList(calls);
+    }
+
+    /**
+     * Sends the lookup to every shard and answers with the response of the shard that knows the player.
+     * <p>If no shard knows the player, the lookup fails if any shard has failed, as it might have known the player.
+     * Otherwise, it is answered with a not found response, or with NOT_FOUND if the services do not send those.</p>
+     */
+    private <T> ListenableFuture<T> firstFound(Function<PlayerServiceGrpc.PlayerServiceFutureStub, ListenableFuture<T>> call, Predicate<T> found) {
+        List<ListenableFuture<T>> calls = new ArrayList<>(stubs.size());
+        for (PlayerServiceGrpc.PlayerServiceFutureStub stub : stubs.values()) {
+            calls.add(call.apply(stub));
+        }
+        return Futures.transformAsync(Futures.successfulAsList(calls), responses -> {
+            T notFound = null;
+            Throwable notFoundFailure = null;
+            for (int i = 0; i < calls.size(); i++) {
+                T response = responses.get(i);
+                if (response != null) {
+                    if (found.test(response)) return Futures.immediateFuture(response);
+                    notFound = response;
+                    continue;
+                }
+                ListenableFuture<T> shardCall = calls.get(i);
+                if (shardCall.isCancelled()) {
+                    // exceptionNow() throws for cancelled calls
+                    return Futures.immediateFailedFuture(Status.CANCELLED.withDescription("lookup on a shard was cancelled").asRuntimeException());
+                }
+                Throwable failure = shardCall.exceptionNow();
+                if (Status.fromThrowable(failure).getCode() != Status.Code.NOT_FOUND) {
+                    return Futures.immediateFailedFuture(failure);
+                }
+                notFoundFailure = failure;
+            }
+            return notFound != null ? Futures.immediateFuture(notFound) : Futures.immediateFailedFuture(notFoundFailure);
+        }, MoreExecutors.directExecutor());
+    }
+}
@@ -0,0 +1,32 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.NetworkPlayer;
+
+import java.util.Optional;
+
+/**
+ * Last known state of an online player, served while the player service is unreachable.
+ */
+public class StaleNetworkPlayer extends StaleOfflineNetworkPlayer implements NetworkPlayer {
+    private final NetworkPlayer player;
+
+    public StaleNetworkPlayer(NetworkPlayer player) {
+        super(player);
+        this.player = player;
+    }
+
+    @Override
+    public Optional<String> getConnectedServerName() {
+        return player.getConnectedServerName();
+    }
+
+    @Override
+    public String getConnectedProxyName() {
+        return player.getConnectedProxyName();
+    }
+
+    @Override
+    public long getSessionId() {
+        return player.getSessionId();
+    }
+}
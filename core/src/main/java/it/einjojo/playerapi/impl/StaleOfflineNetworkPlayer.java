@@ -0,0 +1,51 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+
+import java.util.UUID;
+
+/**
+ * Last known state of a player, served while the player service is unreachable.
+ */
+public class StaleOfflineNetworkPlayer implements OfflineNetworkPlayer {
+    private final OfflineNetworkPlayer player;
+
+    public StaleOfflineNetworkPlayer(OfflineNetworkPlayer player) {
+        this.player = player;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return player.getUniqueId();
+    }
+
+    @Override
+    public String getName() {
+        return player.getName();
+    }
+
+    @Override
+    public boolean isOnline() {
+        return player.isOnline();
+    }
+
+    @Override
+    public long getFirstPlayed() {
+        return player.getFirstPlayed();
+    }
+
+    @Override
+    public long getLastPlayed() {
+        return player.getLastPlayed();
+    }
+
+    @Override
+    public long getPlaytime() {
+        return player.getPlaytime();
+    }
+
+    @Override
+    public boolean isStale() {
+        return true;
+    }
+}
@@ -0,0 +1,142 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Status;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resolves a fixed list of endpoints, one address group per service instance.
+ * <p>The endpoints are carried by the target itself ({@code playerapi-static:///host1:9090,host2:9090}), so the provider
+ * is stateless and registered once for the whole jvm.</p>
+ */
+public class StaticNameResolverProvider extends NameResolverProvider {
+    public static final String SCHEME = "playerapi-static";
+    private static volatile boolean registered;
+
+    /**
+     * Registers the provider, if it is not registered yet, and builds the target for the endpoints.
+     *
+     * @param endpoints {@code host:port} of every service instance
+     * @return the channel target
+     */
+    public static String target(List<String> endpoints) {
+        if (!registered) {
+            synchronized (StaticNameResolverProvider.class) {
+                if (!registered) {
+                    NameResolverRegistry.getDefaultRegistry().register(new StaticNameResolverProvider());
+                    registered = true;
+                }
+            }
+        }
+        return SCHEME + ":///" + String.join(",", endpoints);
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) return null;
+        String path = targetUri.getPath();
+        List<String> endpoints = new ArrayList<>();
+        for (String endpoint : path.substring(path.startsWith("/") ? 1 : 0).split(",")) {
+            if (!endpoint.isBlank()) {
+                endpoints.add(endpoint.trim());
+            }
+        }
+        Executor offloadExecutor = args.getOffloadExecutor() != null ? args.getOffloadExecutor() : ForkJoinPool.commonPool();
+        // the authority is only used for tls and headers, all instances are expected to share it
+        String authority = endpoints.isEmpty() ? SCHEME : endpoints.getFirst();
+        return new StaticNameResolver(authority, endpoints, offloadExecutor);
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    protected int priority() {
+        return 5;
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+        return List.of(InetSocketAddress.class);
+    }
+
+    private static class StaticNameResolver extends NameResolver {
+        private final String authority;
+        private final List<String> endpoints;
+        private final Executor executor;
+        private Listener2 listener;
+
+        private StaticNameResolver(String authority, List<String> endpoints, Executor executor) {
+            this.authority = authority;
+            this.endpoints = endpoints;
+            this.executor = executor;
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return authority;
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            resolve();
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        /**
+         * Host names are looked up again on every refresh, which gRPC requests after a connection has failed.
+         */
+        private void resolve() {
+            Listener2 target = listener;
+            executor.execute(() -> {
+                List<EquivalentAddressGroup> groups = new ArrayList<>(endpoints.size());
+                for (String endpoint : endpoints) {
+                    InetSocketAddress address;
+                    try {
+                        int separator = endpoint.lastIndexOf(':');
+                        address = new InetSocketAddress(endpoint.substring(0, separator), Integer.parseInt(endpoint.substring(separator + 1)));
+                    } catch (RuntimeException e) {
+                        target.onError(Status.INVALID_ARGUMENT.withDescription("Invalid endpoint, expected host:port: " + endpoint));
+                        return;
+                    }
+                    if (address.isUnresolved()) {
+                        continue;
+                    }
+                    groups.add(new EquivalentAddressGroup(address));
+                }
+                if (groups.isEmpty()) {
+                    target.onError(Status.UNAVAILABLE.withDescription("No endpoint could be resolved: " + endpoints));
+                    return;
+                }
+                target.onResult(ResolutionResult.newBuilder().setAddresses(groups).build());
+            });
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import it.einjojo.playerapi.RedisEventStream;
+import it.einjojo.playerapi.config.UnknownNamesConfiguration;
+import it.einjojo.protocol.player.KnownPlayerNames;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers lookups of names that have never joined the network without asking the service.
+ * <ul>
+ *     <li>The negative cache remembers names the service did not know for a short time.</li>
+ *     <li>The bloom filter contains all known names and is synced from the service. A name the filter does not contain
+ *     has certainly never joined.</li>
+ * </ul>
+ * <p>Both are updated by login notifications, so a player that joins for the first time is found immediately. If
+ * notifications have been missed, the bloom filter is dropped and synced again. Services that do not implement the
+ * sync leave the bloom filter disabled.</p>
+ */
+public class UnknownNameFilter implements RedisEventStream.Listener, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(UnknownNameFilter.class);
+    private static final int MIN_EXPECTED_NAMES = 10_000;
+    private final @Nullable Cache<String, Boolean> negativeCache;
+    private final PlayerServiceGrpc.PlayerServiceStub playerServiceStub;
+    private final Executor refreshExecutor;
+    private final boolean bloomFilterEnabled;
+    private final double falsePositiveRate;
+    private final LongAdder avoidedLookups = new LongAdder();
+    // a sync is discarded if a newer one has been started in the meantime
+    private final AtomicLong syncGeneration = new AtomicLong();
+    private volatile @Nullable BloomFilter<CharSequence> knownNames;
+    private volatile @Nullable Set<String> namesDuringRefresh;
+    private volatile boolean unsupported;
+    private volatile boolean closed;
+
+    /**
+     * Constructor for UnknownNameFilter.
+     *
+     * @param playerServiceStub async stub, used to sync the bloom filter
+     * @param executor          the executor to run the refreshes on
+     * @param configuration     config
+     */
+    public UnknownNameFilter(PlayerServiceGrpc.PlayerServiceStub playerServiceStub, Executor executor,
+                             @NotNull UnknownNamesConfiguration configuration) {
+        this.playerServiceStub = playerServiceStub;
+        this.negativeCache = configuration.negativeCacheEnabled() ? CacheBuilder.newBuilder()
+                .maximumSize(configuration.negativeCacheMaximumSize())
+                .expireAfterWrite(configuration.negativeCacheTtlMillis(), TimeUnit.MILLISECONDS)
+                .<String, Boolean>build() : null;
+        this.bloomFilterEnabled = configuration.bloomFilterEnabled();
+        this.falsePositiveRate = configuration.bloomFilterFalsePositiveRate();
+        this.refreshExecutor = CompletableFuture.delayedExecutor(configuration.bloomFilterRefreshMinutes(), TimeUnit.MINUTES, executor);
+    }
+
+    /**
+     * Syncs the bloom filter and schedules the periodic re-sync.
+     */
+    public void start() {
+        if (bloomFilterEnabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * checks whether a name has certainly never joined.
+     *
+     * @param name the player's name
+     * @return true if the name is unknown, false if the service has to be asked.
+     */
+    public boolean isUnknown(String name) {
+        String key = key(name);
+        if (negativeCache != null && negativeCache.getIfPresent(key) != null) {
+            avoidedLookups.increment();
+            return true;
+        }
+        BloomFilter<CharSequence> filter = knownNames;
+        if (filter != null && !filter.mightContain(key)) {
+            avoidedLookups.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers a name the service did not know.
+     *
+     * @param name the player's name
+     */
+    public void recordUnknown(String name) {
+        if (negativeCache != null) {
+            negativeCache.put(key(name), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Passed to the redis handler
+     *
+     * @param notify login notification
+     */
+    @Override
+    public void handleLogin(LoginNotify notify) {
+        if (!notify.hasPlayer()) return;
+        recordKnown(notify.getPlayer().getUsername());
+    }
+
+    @Override
+    public void handleLogout(LogoutNotify notify) {
+    }
+
+    /**
+     * A player that switches servers is known, even if their login has been missed.
+     *
+     * @param notify server switch notification
+     */
+    @Override
+    public void handleServerSwitch(ServerSwitchNotify notify) {
+        recordKnown(notify.getUsername());
+    }
+
+    /**
+     * A missed login would let a new player's name look unknown until the next sync, so the bloom filter is dropped
+     * and synced right away.
+     */
+    @Override
+    public void handleGap() {
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
+        if (!bloomFilterEnabled || unsupported) return;
+        knownNames = null;
+        refresh();
+    }
+
+    private void recordKnown(String name) {
+        String key = key(name);
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
+        BloomFilter<CharSequence> filter = knownNames;
+        if (filter != null) {
+            filter.put(key);
+        }
+        Set<String> pending = namesDuringRefresh;
+        if (pending != null) {
+            pending.add(key);
+        }
+    }
+
+    private void refresh() {
+        if (closed) return;
+        long generation = syncGeneration.incrementAndGet();
+        namesDuringRefresh = ConcurrentHashMap.newKeySet();
+        playerServiceStub.getKnownPlayerNames(Empty.getDefaultInstance(), new StreamObserver<>() {
+            private @Nullable BloomFilter<CharSequence> filter;
+
+            @Override
+            public void onNext(KnownPlayerNames chunk) {
+                if (filter == null) {
+                    long expected = Math.max(MIN_EXPECTED_NAMES, chunk.getTotal() + chunk.getTotal() / 5);
+                    filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expected, falsePositiveRate);
+                }
+                for (String name : chunk.getNamesList()) {
+                    filter.put(key(name));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (syncGeneration.get() != generation) return;
+                namesDuringRefresh = null;
+                if (Status.fromThrowable(t).getCode() == Status.Code.UNIMPLEMENTED) {
+                    unsupported = true;
+                    log.warn("The player service does not implement GetKnownPlayerNames, the bloom filter is disabled");
+                    return;
+                }
+                log.warn("Failed to sync known player names: {}", t.getMessage());
+                scheduleRefresh(generation);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (syncGeneration.get() != generation) return;
+                BloomFilter<CharSequence> synced = filter != null ? filter
+                        : BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), MIN_EXPECTED_NAMES, falsePositiveRate);
+                Set<String> pending = namesDuringRefresh;
+                namesDuringRefresh = null;
+                if (pending != null) {
+                    pending.forEach(synced::put);
+                }
+                knownNames = synced;
+                log.info("Synced bloom filter of known player names (~{} names)", synced.approximateElementCount());
+                scheduleRefresh(generation);
+            }
+        });
+    }
+
+    private void scheduleRefresh(long generation) {
+        refreshExecutor.execute(() -> {
+            // a gap has started another sync, which schedules its own refresh
+            if (syncGeneration.get() == generation) refresh();
+        });
+    }
+
+    /**
+     * getter
+     *
+     * @return the amount of lookups that have been answered without asking the service.
+     */
+    public long avoidedLookupCount() {
+        return avoidedLookups.sum();
+    }
+
+    /**
+     * getter
+     *
+     * @return true if the bloom filter has been synced and answers lookups.
+     */
+    public boolean isBloomFilterActive() {
+        return knownNames != null;
+    }
+
+    /**
+     * getter
+     *
+     * @return false once the service has answered the sync with UNIMPLEMENTED.
+     */
+    public boolean isBloomFilterSupported() {
+        return !unsupported;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
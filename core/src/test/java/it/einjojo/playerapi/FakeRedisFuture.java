@@ -0,0 +1,30 @@
+package it.einjojo.playerapi;
+
+import io.lettuce.core.RedisFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reply of a fake redis connection, completed by the test.
+ */
+final class FakeRedisFuture<T> extends CompletableFuture<T> implements RedisFuture<T> {
+
+    @Override
+    public String getError() {
+        return isCompletedExceptionally() ? exceptionNow().getMessage() : null;
+    }
+
+    @Override
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            get(timeout, unit);
+        } catch (ExecutionException ignored) {
+        } catch (TimeoutException e) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,254 @@
+package it.einjojo.playerapi;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import it.einjojo.playerapi.config.StreamConfiguration;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisEventStreamTest {
+    private static final int BATCH_SIZE = 2;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService replies = Executors.newSingleThreadScheduledExecutor();
+    private final FakeStream stream = new FakeStream();
+    private final AtomicInteger connects = new AtomicInteger();
+    private final AtomicBoolean failNextConnect = new AtomicBoolean();
+    private final RedisEventStream eventStream = new RedisEventStream(() -> {
+        connects.incrementAndGet();
+        if (failNextConnect.getAndSet(false)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("connection refused"));
+        }
+        return CompletableFuture.completedFuture(stream.connection);
+    }, executor, new StreamConfiguration(true, "plapi:events", 100, BATCH_SIZE, 20, false));
+    private final Recorder recorder = new Recorder();
+
+    @AfterEach
+    void shutdown() {
+        eventStream.close();
+        executor.shutdownNow();
+        replies.shutdownNow();
+    }
+
+    @Test
+    void startsAfterTheNewestEntry() throws Exception {
+        stream.append(1, 2);
+        eventStream.addListener(recorder);
+        await(() -> eventStream.getLastId() != null);
+        stream.append(3, 4, 5);
+        await(() -> recorder.logins.size() == 3);
+        assertEquals(List.of(3L, 4L, 5L), recorder.logins);
+        assertEquals(0, recorder.gaps.get());
+    }
+
+    @Test
+    void fullBatchesWithoutTrimmingAreNoGap() throws Exception {
+        eventStream.addListener(recorder);
+        await(() -> eventStream.getLastId() != null);
+        stream.append(1, 2, 3, 4, 5);
+        await(() -> recorder.logins.size() == 5);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), recorder.logins);
+        assertEquals(0, recorder.gaps.get());
+    }
+
+    @Test
+    void trimmingPastALaggingReaderIsAGap() throws Exception {
+        recorder.blockFirstLogin();
+        eventStream.addListener(recorder);
+        await(() -> eventStream.getLastId() != null);
+        stream.append(1, 2);
+        assertTrue(recorder.blocked.await(5, TimeUnit.SECONDS));
+        // the reader still handles the full batch 1, 2, meanwhile 3 to 9 are trimmed
+        stream.append(3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+        stream.trim(3);
+        recorder.release.countDown();
+        await(() -> recorder.logins.size() == 5);
+        assertEquals(List.of(1L, 2L, 10L, 11L, 12L), recorder.logins);
+        assertEquals(1, recorder.gaps.get());
+    }
+
+    @Test
+    void failedConnectIsRetried() throws Exception {
+        failNextConnect.set(true);
+        eventStream.addListener(recorder);
+        await(() -> eventStream.getLastId() != null);
+        assertEquals(2, connects.get());
+        stream.append(1);
+        await(() -> recorder.logins.size() == 1);
+    }
+
+    @Test
+    void failedReadResumesAfterTheLastEntry() throws Exception {
+        eventStream.addListener(recorder);
+        await(() -> eventStream.getLastId() != null);
+        stream.append(1);
+        await(() -> recorder.logins.size() == 1);
+        stream.failNextRead.set(true);
+        // missed while the read fails and the reader backs off
+        stream.append(2, 3);
+        await(() -> recorder.logins.size() == 3);
+        assertEquals(List.of(1L, 2L, 3L), recorder.logins);
+        assertEquals(0, recorder.gaps.get());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met within 5 seconds");
+            Thread.sleep(5);
+        }
+    }
+
+    private static long sequence(String id) {
+        return Long.parseLong(id.substring(0, id.indexOf('-')));
+    }
+
+    private static final class Recorder implements RedisEventStream.Listener {
+        private final List<Long> logins = new CopyOnWriteArrayList<>();
+        private final AtomicInteger gaps = new AtomicInteger();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean block;
+
+        private void blockFirstLogin() {
+            block = true;
+        }
+
+        @Override
+        public void handleLogin(LoginNotify notify) {
+            logins.add(notify.getTimestamp());
+            if (block) {
+                block = false;
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void handleLogout(LogoutNotify notify) {
+        }
+
+        @Override
+        public void handleServerSwitch(ServerSwitchNotify notify) {
+        }
+
+        @Override
+        public void handleGap() {
+            gaps.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stream with ids {@code n-0}, answering the commands of the reader like redis does. XREAD waits briefly instead
+     * of blocking until an entry is added.
+     */
+    private final class FakeStream implements InvocationHandler {
+        private final List<StreamMessage<byte[], byte[]>> entries = new ArrayList<>();
+        private final AtomicBoolean failNextRead = new AtomicBoolean();
+        @SuppressWarnings("unchecked")
+        private final StatefulRedisConnection<byte[], byte[]> connection = (StatefulRedisConnection<byte[], byte[]>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{StatefulRedisConnection.class}, this);
+        @SuppressWarnings("unchecked")
+        private final RedisAsyncCommands<byte[], byte[]> commands = (RedisAsyncCommands<byte[], byte[]>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{RedisAsyncCommands.class}, this);
+
+        private synchronized void append(long... timestamps) {
+            for (long timestamp : timestamps) {
+                byte[] value = LoginNotify.newBuilder().setTimestamp(timestamp).build().toByteArray();
+                entries.add(new StreamMessage<>(RedisEventStream.key(StreamConfiguration.DEFAULT), timestamp + "-0", Map.of(RedisEventStream.LOGIN, value)));
+            }
+        }
+
+        private synchronized void trim(int maxLength) {
+            while (entries.size() > maxLength) entries.removeFirst();
+        }
+
+        private synchronized List<StreamMessage<byte[], byte[]>> after(long sequence, boolean inclusive, int limit) {
+            List<StreamMessage<byte[], byte[]>> result = new ArrayList<>();
+            for (StreamMessage<byte[], byte[]> entry : entries) {
+                long id = sequence(entry.getId());
+                if ((inclusive ? id >= sequence : id > sequence) && result.size() < limit) result.add(entry);
+            }
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            FakeRedisFuture<Object> reply = new FakeRedisFuture<>();
+            switch (method.getName()) {
+                case "async" -> {
+                    return commands;
+                }
+                case "close" -> {
+                    return null;
+                }
+                case "closeAsync" -> {
+                    reply.complete(null);
+                }
+                case "xrevrange" -> {
+                    synchronized (this) {
+                        reply.complete(entries.isEmpty() ? List.of() : List.of(entries.getLast()));
+                    }
+                }
+                case "xrange" -> {
+                    Range.Boundary<String> lower = ((Range<String>) args[1]).getLower();
+                    long from = lower.isUnbounded() ? 0 : sequence(lower.getValue());
+                    reply.complete(after(from, lower.isUnbounded() || lower.isIncluding(), 1));
+                }
+                case "xread" -> {
+                    XReadArgs.StreamOffset<byte[]> offset = ((XReadArgs.StreamOffset<byte[]>[]) args[1])[0];
+                    if (failNextRead.getAndSet(false)) {
+                        reply.completeExceptionally(new IllegalStateException("connection reset"));
+                        return reply;
+                    }
+                    List<StreamMessage<byte[], byte[]>> read = after(sequence(offset.getOffset()), false, BATCH_SIZE);
+                    if (read.isEmpty()) {
+                        replies.schedule(() -> reply.complete(List.of()), 10, TimeUnit.MILLISECONDS);
+                    } else {
+                        reply.complete(read);
+                    }
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "toString" -> {
+                    return "FakeStream";
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+            return reply;
+        }
+    }
+}
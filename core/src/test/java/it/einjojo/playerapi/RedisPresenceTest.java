@@ -0,0 +1,291 @@
+package it.einjojo.playerapi;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisConnectionException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import it.einjojo.playerapi.config.PresenceConfiguration;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisPresenceTest {
+    private static final PresenceConfiguration CONFIG = new PresenceConfiguration(true, "plapi:presence", true);
+    private final FakeHashes hashes = new FakeHashes();
+    private final AtomicInteger connects = new AtomicInteger();
+    private final RedisPresence presence = new RedisPresence(() -> {
+        connects.incrementAndGet();
+        return CompletableFuture.completedFuture(hashes.connection);
+    }, CONFIG);
+    private final RedisPresenceWriter writer = new RedisPresenceWriter(hashes.connection, CONFIG);
+
+    @AfterEach
+    void shutdown() {
+        presence.close();
+        writer.close();
+    }
+
+    private static OnlinePlayerDefinition player(UUID uuid, String name, String proxyName) {
+        return OnlinePlayerDefinition.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUsername(name)
+                .setConnectedProxyName(proxyName)
+                .build();
+    }
+
+    private UUID put(String name) throws Exception {
+        UUID uuid = UUID.randomUUID();
+        writer.put(player(uuid, name, "proxy-1")).get(5, TimeUnit.SECONDS);
+        return uuid;
+    }
+
+    @Test
+    void storedPlayerIsFoundByUniqueIdAndName() throws Exception {
+        UUID uuid = put("Alice");
+        NetworkPlayer player = presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS);
+        assertEquals("Alice", player.getName());
+        assertEquals("proxy-1", player.getConnectedProxyName());
+        assertEquals(uuid, presence.getOnlinePlayer("ALICE").get(5, TimeUnit.SECONDS).getUniqueId());
+        assertTrue(presence.isOnline(uuid).get(5, TimeUnit.SECONDS));
+        assertTrue(presence.isOnline("alice").get(5, TimeUnit.SECONDS));
+        assertNull(presence.getOnlinePlayer(UUID.randomUUID()).get(5, TimeUnit.SECONDS));
+        assertNull(presence.getOnlinePlayer("Nobody").get(5, TimeUnit.SECONDS));
+        assertEquals(1, connects.get());
+    }
+
+    @Test
+    void bulkLookupIsASingleHmget() throws Exception {
+        UUID alice = put("Alice");
+        UUID bob = put("Bob");
+        UUID carol = put("Carol");
+        hashes.commands.clear();
+        Map<UUID, NetworkPlayer> players = presence.getOnlinePlayers(List.of(alice, bob, carol, UUID.randomUUID())).get(5, TimeUnit.SECONDS);
+        assertEquals(Set.of(alice, bob, carol), players.keySet());
+        assertEquals("Bob", players.get(bob).getName());
+        assertEquals(List.of("hmget"), hashes.commands);
+    }
+
+    @Test
+    void removedPlayerIsOffline() throws Exception {
+        UUID uuid = put("Alice");
+        writer.remove(uuid, "Alice").get(5, TimeUnit.SECONDS);
+        assertNull(presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS));
+        assertFalse(presence.isOnline(uuid).get(5, TimeUnit.SECONDS));
+        assertFalse(presence.isOnline("Alice").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void moveToUpdatesTheServer() throws Exception {
+        UUID uuid = put("Alice");
+        writer.moveTo(uuid, "lobby-1").get(5, TimeUnit.SECONDS);
+        assertEquals(Optional.of("lobby-1"), presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS).getConnectedServerName());
+        writer.moveTo(uuid, null).get(5, TimeUnit.SECONDS);
+        assertEquals(Optional.empty(), presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS).getConnectedServerName());
+    }
+
+    @Test
+    void moveToOfAnUnknownPlayerWritesNothing() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        writer.moveTo(uuid, "lobby-1").get(5, TimeUnit.SECONDS);
+        assertNull(presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void moveToRacingALogoutDoesNotRestoreTheEntry() throws Exception {
+        UUID uuid = put("Alice");
+        // the logout lands between the read and the compare-and-set of the move
+        hashes.beforeEval(() -> hashes.delete(RedisPresence.presenceKey(CONFIG), RedisPresence.field(uuid)));
+        writer.moveTo(uuid, "lobby-1").get(5, TimeUnit.SECONDS);
+        assertNull(presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS));
+        assertEquals(1, hashes.evals.get());
+    }
+
+    @Test
+    void moveToRacingAChangeIsAppliedToTheNewEntry() throws Exception {
+        UUID uuid = put("Alice");
+        hashes.beforeEval(() -> hashes.set(RedisPresence.presenceKey(CONFIG), RedisPresence.field(uuid), player(uuid, "Alice", "proxy-2").toByteArray()));
+        writer.moveTo(uuid, "lobby-1").get(5, TimeUnit.SECONDS);
+        NetworkPlayer player = presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS);
+        assertEquals("proxy-2", player.getConnectedProxyName());
+        assertEquals(Optional.of("lobby-1"), player.getConnectedServerName());
+        assertEquals(2, hashes.evals.get());
+    }
+
+    @Test
+    void moveToGivesUpWhenTheEntryKeepsChanging() throws Exception {
+        UUID uuid = put("Alice");
+        AtomicInteger changes = new AtomicInteger();
+        hashes.beforeEveryEval(() -> hashes.set(RedisPresence.presenceKey(CONFIG), RedisPresence.field(uuid),
+                player(uuid, "Alice", "proxy-" + changes.incrementAndGet()).toByteArray()));
+        writer.moveTo(uuid, "lobby-1").get(5, TimeUnit.SECONDS);
+        assertEquals(3, hashes.evals.get());
+        assertEquals(Optional.empty(), presence.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS).getConnectedServerName());
+    }
+
+    @Test
+    void lookupsFailFastWhileConnecting() throws Exception {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connecting = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+        RedisPresence pending = new RedisPresence(() -> {
+            attempts.incrementAndGet();
+            return connecting;
+        }, CONFIG);
+        UUID uuid = put("Alice");
+        assertThrows(RedisConnectionException.class, () -> pending.getOnlinePlayer(uuid));
+        assertThrows(RedisConnectionException.class, () -> pending.isOnline(uuid));
+        assertEquals(1, attempts.get(), "a pending connect is not started again");
+        connecting.complete(hashes.connection);
+        assertEquals("Alice", pending.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS).getName());
+        pending.close();
+    }
+
+    @Test
+    void failedConnectIsRetriedAfterADelay() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        RedisPresence failing = new RedisPresence(() -> attempts.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(new IllegalStateException("connection refused"))
+                : CompletableFuture.completedFuture(hashes.connection), CONFIG);
+        UUID uuid = put("Alice");
+        assertThrows(RedisConnectionException.class, () -> failing.getOnlinePlayer(uuid));
+        assertThrows(RedisConnectionException.class, () -> failing.getOnlinePlayer(uuid));
+        assertEquals(1, attempts.get(), "a failed connect is not retried right away");
+        Thread.sleep(1_100);
+        assertEquals("Alice", failing.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS).getName());
+        assertEquals(2, attempts.get());
+        failing.close();
+    }
+
+    /**
+     * Redis hashes, answering the commands of the reader and the writer like redis does. Transactions are applied
+     * command by command, which is equivalent as long as a single thread writes.
+     */
+    private static final class FakeHashes implements InvocationHandler {
+        private final Map<String, Map<ByteBuffer, byte[]>> hashes = new HashMap<>();
+        private final List<String> commands = new CopyOnWriteArrayList<>();
+        private final AtomicInteger evals = new AtomicInteger();
+        private Runnable beforeEval = () -> {
+        };
+        private boolean everyEval;
+        @SuppressWarnings("unchecked")
+        private final StatefulRedisConnection<byte[], byte[]> connection = (StatefulRedisConnection<byte[], byte[]>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{StatefulRedisConnection.class}, this);
+        @SuppressWarnings("unchecked")
+        private final RedisAsyncCommands<byte[], byte[]> async = (RedisAsyncCommands<byte[], byte[]>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{RedisAsyncCommands.class}, this);
+
+        private void beforeEval(Runnable action) {
+            beforeEval = action;
+            everyEval = false;
+        }
+
+        private void beforeEveryEval(Runnable action) {
+            beforeEval = action;
+            everyEval = true;
+        }
+
+        private synchronized Map<ByteBuffer, byte[]> hash(byte[] key) {
+            return hashes.computeIfAbsent(new String(key, StandardCharsets.UTF_8), k -> new HashMap<>());
+        }
+
+        private synchronized byte[] get(byte[] key, byte[] field) {
+            return hash(key).get(ByteBuffer.wrap(field));
+        }
+
+        private synchronized void set(byte[] key, byte[] field, byte[] value) {
+            hash(key).put(ByteBuffer.wrap(field), value);
+        }
+
+        private synchronized boolean delete(byte[] key, byte[] field) {
+            return hash(key).remove(ByteBuffer.wrap(field)) != null;
+        }
+
+        private synchronized long compareAndSet(byte[] key, byte[] field, byte[] expected, byte[] updated) {
+            Runnable action = beforeEval;
+            if (!everyEval) {
+                beforeEval = () -> {
+                };
+            }
+            action.run();
+            if (!Arrays.equals(get(key, field), expected)) return 0;
+            set(key, field, updated);
+            return 1;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            FakeRedisFuture<Object> reply = new FakeRedisFuture<>();
+            switch (method.getName()) {
+                case "async" -> {
+                    return async;
+                }
+                case "close" -> {
+                    return null;
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "toString" -> {
+                    return "FakeHashes";
+                }
+                default -> commands.add(method.getName());
+            }
+            switch (method.getName()) {
+                case "closeAsync", "exec" -> reply.complete(null);
+                case "multi" -> reply.complete("OK");
+                case "hset" -> {
+                    set((byte[]) args[0], (byte[]) args[1], (byte[]) args[2]);
+                    reply.complete(Boolean.TRUE);
+                }
+                case "hget" -> reply.complete(get((byte[]) args[0], (byte[]) args[1]));
+                case "hexists" -> reply.complete(get((byte[]) args[0], (byte[]) args[1]) != null);
+                case "hdel" -> {
+                    long deleted = 0;
+                    for (byte[] field : (byte[][]) args[1]) {
+                        if (delete((byte[]) args[0], field)) deleted++;
+                    }
+                    reply.complete(deleted);
+                }
+                case "hmget" -> {
+                    List<KeyValue<byte[], byte[]>> values = new ArrayList<>();
+                    for (byte[] field : (byte[][]) args[1]) {
+                        byte[] value = get((byte[]) args[0], field);
+                        values.add(value == null ? KeyValue.empty(field) : KeyValue.just(field, value));
+                    }
+                    reply.complete(values);
+                }
+                case "eval" -> {
+                    // only the compare-and-set script of the writer is sent
+                    evals.incrementAndGet();
+                    byte[] key = ((byte[][]) args[2])[0];
+                    byte[][] values = (byte[][]) args[3];
+                    reply.complete(compareAndSet(key, values[0], values[1], values[2]));
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+            return reply;
+        }
+    }
+}
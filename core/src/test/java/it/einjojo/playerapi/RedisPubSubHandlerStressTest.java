@@ -0,0 +1,362 @@
+package it.einjojo.playerapi;
+
+import io.lettuce.core.pubsub.RedisPubSubListener;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.pubsub.api.async.RedisPubSubAsyncCommands;
+import it.einjojo.playerapi.config.RedisConnectionConfiguration;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LogoutNotify;
+import it.einjojo.protocol.player.ServerSwitchNotify;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subscribes and unsubscribes from many threads while about 50k messages per second are delivered. Redis is replaced
+ * by fake connections that apply (un)subscribes in call order and answer them after a random delay, like the real
+ * connection does.
+ */
+class RedisPubSubHandlerStressTest {
+    private static final RedisConnectionConfiguration REDIS = new RedisConnectionConfiguration("localhost", 6379, "default", "default", false);
+    private static final int MESSAGES_PER_MILLI = 50;
+    private static final List<Message> MESSAGES = List.of(
+            new Message("plapi:li", LoginNotify.newBuilder().setTimestamp(1).build().toByteArray()),
+            new Message("plapi:lo", LogoutNotify.newBuilder().setSuccess(true).build().toByteArray()),
+            new Message("plapi:sw", ServerSwitchNotify.newBuilder().setConnectedServerName("lobby-1").build().toByteArray()),
+            new Message("plapi:li:proxy-0", LoginNotify.newBuilder().setTimestamp(2).build().toByteArray()),
+            new Message("plapi:li:proxy-1", LoginNotify.newBuilder().setTimestamp(3).build().toByteArray()),
+            new Message("plapi:lo:proxy-1", LogoutNotify.newBuilder().setSuccess(true).build().toByteArray()),
+            new Message("plapi:sw:lobby-1", ServerSwitchNotify.newBuilder().setConnectedServerName("lobby-1").build().toByteArray())
+    );
+    private final ScheduledExecutorService replies = Executors.newScheduledThreadPool(2);
+    private final List<FakeConnection> connections = Collections.synchronizedList(new ArrayList<>());
+    private final Set<FakeConnection> open = ConcurrentHashMap.newKeySet();
+    private final Queue<CompletableFuture<?>> connects = new ConcurrentLinkedQueue<>();
+    private final AtomicLong published = new AtomicLong();
+    private volatile double connectFailureRate;
+    private final RedisPubSubHandler handler = new RedisPubSubHandler(REDIS, Runnable::run, null) {
+        @Override
+        CompletableFuture<StatefulRedisPubSubConnection<byte[], byte[]>> connectPubSub() {
+            CompletableFuture<StatefulRedisPubSubConnection<byte[], byte[]>> connect;
+            if (ThreadLocalRandom.current().nextDouble() < connectFailureRate) {
+                connect = reply(null, new IllegalStateException("connection refused"));
+            } else {
+                FakeConnection connection = new FakeConnection();
+                connections.add(connection);
+                open.add(connection);
+                connect = reply(connection.proxy, null);
+            }
+            connects.add(connect);
+            return connect;
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        replies.shutdownNow();
+    }
+
+    @Test
+    void churnClosesTheIdleConnectionAndReopensIt() throws Exception {
+        connectFailureRate = 0.05;
+        AtomicLong received = new AtomicLong();
+        churn(received, 8, 2_000);
+        connectFailureRate = 0;
+
+        awaitIdle();
+        assertTrue(published.get() > 0);
+        assertTrue(received.get() > 0, "no message reached a consumer");
+        assertTrue(connections.size() > 1, "the idle connection was never closed and reopened");
+
+        AtomicInteger afterReopen = new AtomicInteger();
+        RedisSubscription subscription = handler.subscribeServerSwitch("lobby-*", notify -> afterReopen.incrementAndGet());
+        subscription.subscribed().get(5, TimeUnit.SECONDS);
+        assertNotNull(handler.getConnection());
+        publish(MESSAGES.get(6), 10);
+        assertEquals(10, afterReopen.get());
+        subscription.close();
+        awaitIdle();
+    }
+
+    @Test
+    void longLivedConsumerKeepsReceivingDuringChurn() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        Consumer<LoginNotify> consumer = notify -> received.incrementAndGet();
+        RedisSubscription first = handler.subscribeLogin(consumer);
+        RedisSubscription second = handler.subscribeLogin(consumer);
+        second.subscribed().get(5, TimeUnit.SECONDS);
+        // closing twice removes the consumer once, the second registration stays
+        first.close();
+        first.close();
+
+        churn(new AtomicLong(), 8, 1_000);
+        int before = received.get();
+        publish(MESSAGES.getFirst(), 100);
+        assertEquals(before + 100, received.get());
+        assertNotNull(handler.getConnection());
+
+        second.close();
+        second.close();
+        awaitIdle();
+        publish(MESSAGES.getFirst(), 100);
+        assertEquals(before + 100, received.get());
+    }
+
+    @Test
+    void closingTheLastSubscriptionClosesTheConnection() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        RedisSubscription subscription = handler.subscribeLogin("proxy-1", notify -> received.incrementAndGet());
+        subscription.subscribed().get(5, TimeUnit.SECONDS);
+        FakeConnection connection = connections.getFirst();
+        assertTrue(connection.channels.contains(ByteBuffer.wrap("plapi:li:proxy-1".getBytes(StandardCharsets.UTF_8))));
+        publish(MESSAGES.get(4), 1);
+        publish(MESSAGES.get(3), 1);
+        assertEquals(1, received.get());
+
+        subscription.close();
+        awaitIdle();
+        assertTrue(connection.channels.isEmpty());
+        assertEquals(1, connections.size());
+    }
+
+    @Test
+    void failedSubscribeIsRetriedWhileTheConsumerStays() throws Exception {
+        connectFailureRate = 1;
+        AtomicInteger received = new AtomicInteger();
+        RedisSubscription first = handler.subscribeLogin(notify -> received.incrementAndGet());
+        RedisSubscription second = handler.subscribeLogin(notify -> received.incrementAndGet());
+        Thread.sleep(200);
+        assertFalse(second.subscribed().isDone());
+        // a caller that gives up does not cancel the subscription of the other one
+        first.subscribed().cancel(false);
+        connectFailureRate = 0;
+        second.subscribed().get(5, TimeUnit.SECONDS);
+        assertTrue(connects.size() > 1);
+        publish(MESSAGES.getFirst(), 1);
+        assertEquals(2, received.get());
+
+        first.close();
+        second.close();
+        awaitIdle();
+    }
+
+    /**
+     * Runs the subscribing threads and the publisher until the duration has passed. Every subscription is closed when
+     * this returns.
+     */
+    private void churn(AtomicLong received, int threads, long durationMillis) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    try {
+                        RedisSubscription subscription = subscribe(random.nextInt(6), received);
+                        if (random.nextBoolean()) {
+                            // retried after a backoff if the injected connection failure hit this subscribe
+                            subscription.subscribed().handle((ignored, throwable) -> null).get(5, TimeUnit.SECONDS);
+                        }
+                        LockSupport.parkNanos(random.nextLong(200_000));
+                        subscription.close();
+                        if (random.nextBoolean()) subscription.close();
+                    } catch (Throwable throwable) {
+                        failures.add(throwable);
+                        return;
+                    }
+                }
+            }));
+        }
+        Thread publisher = Thread.ofPlatform().start(() -> {
+            long next = System.nanoTime();
+            int index = 0;
+            while (running.get()) {
+                for (int i = 0; i < MESSAGES_PER_MILLI; i++) {
+                    publish(MESSAGES.get(index++ % MESSAGES.size()), 1);
+                }
+                next += 1_000_000;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+        });
+        Thread.sleep(durationMillis);
+        running.set(false);
+        for (Thread worker : workers) worker.join();
+        publisher.join();
+        assertEquals(List.of(), failures);
+    }
+
+    private RedisSubscription subscribe(int kind, AtomicLong received) {
+        return switch (kind) {
+            case 0 -> handler.subscribeLogin(notify -> received.incrementAndGet());
+            case 1 -> handler.subscribeLogout(notify -> received.incrementAndGet());
+            case 2 -> handler.subscribeServerSwitch(notify -> received.incrementAndGet());
+            case 3 -> handler.subscribeLogin("proxy-" + ThreadLocalRandom.current().nextInt(2), notify -> received.incrementAndGet());
+            case 4 -> handler.subscribeServerSwitch("lobby-*", notify -> received.incrementAndGet());
+            default -> handler.subscribeLogout("proxy-*", notify -> received.incrementAndGet());
+        };
+    }
+
+    private void publish(Message message, int times) {
+        for (int i = 0; i < times; i++) {
+            for (FakeConnection connection : open) {
+                connection.deliver(message);
+            }
+            published.incrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until every opened connection has been closed again and the handler holds none.
+     */
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (connects.stream().allMatch(CompletableFuture::isDone) && open.isEmpty() && handler.getConnection() == null) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail(open.size() + " of " + connections.size() + " connections are still open, the handler holds " + handler.getConnection());
+    }
+
+    private <T> FakeRedisFuture<T> reply(T value, Throwable failure) {
+        FakeRedisFuture<T> future = new FakeRedisFuture<>();
+        Runnable complete = () -> {
+            if (failure != null) future.completeExceptionally(failure);
+            else future.complete(value);
+        };
+        long delay = ThreadLocalRandom.current().nextLong(-50_000, 200_000);
+        if (delay <= 0) {
+            complete.run();
+        } else {
+            replies.schedule(complete, delay, TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    private record Message(byte[] channel, byte[] payload) {
+        private Message(String channel, byte[] payload) {
+            this(channel.getBytes(StandardCharsets.UTF_8), payload);
+        }
+    }
+
+    /**
+     * Pub sub connection that applies commands in call order and answers them later.
+     */
+    private final class FakeConnection implements InvocationHandler {
+        private final Set<ByteBuffer> channels = ConcurrentHashMap.newKeySet();
+        private final Set<ByteBuffer> patterns = ConcurrentHashMap.newKeySet();
+        private final List<RedisPubSubListener<byte[], byte[]>> listeners = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        @SuppressWarnings("unchecked")
+        private final StatefulRedisPubSubConnection<byte[], byte[]> proxy = (StatefulRedisPubSubConnection<byte[], byte[]>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{StatefulRedisPubSubConnection.class}, this);
+        @SuppressWarnings("unchecked")
+        private final RedisPubSubAsyncCommands<byte[], byte[]> commands = (RedisPubSubAsyncCommands<byte[], byte[]>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{RedisPubSubAsyncCommands.class}, this);
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "addListener" -> {
+                    listeners.add((RedisPubSubListener<byte[], byte[]>) args[0]);
+                    return null;
+                }
+                case "async" -> {
+                    return commands;
+                }
+                case "isOpen" -> {
+                    return !closed;
+                }
+                case "close" -> {
+                    close();
+                    return null;
+                }
+                case "closeAsync" -> {
+                    close();
+                    return reply(null, null);
+                }
+                case "subscribe", "unsubscribe", "psubscribe", "punsubscribe" -> {
+                    if (closed) return reply(null, new IllegalStateException("connection closed"));
+                    Set<ByteBuffer> names = method.getName().startsWith("p") ? patterns : channels;
+                    for (byte[] name : (byte[][]) args[0]) {
+                        if (method.getName().contains("unsubscribe")) names.remove(ByteBuffer.wrap(name));
+                        else names.add(ByteBuffer.wrap(name));
+                    }
+                    return reply(null, null);
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "toString" -> {
+                    return "FakeConnection" + channels;
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+        }
+
+        private void close() {
+            closed = true;
+            open.remove(this);
+        }
+
+        private void deliver(Message message) {
+            if (closed) return;
+            if (channels.contains(ByteBuffer.wrap(message.channel()))) {
+                for (RedisPubSubListener<byte[], byte[]> listener : listeners) {
+                    listener.message(message.channel(), message.payload());
+                }
+            }
+            String channel = new String(message.channel(), StandardCharsets.UTF_8);
+            for (ByteBuffer pattern : patterns) {
+                byte[] name = new byte[pattern.remaining()];
+                pattern.duplicate().get(name);
+                if (glob(new String(name, StandardCharsets.UTF_8)).matcher(channel).matches()) {
+                    for (RedisPubSubListener<byte[], byte[]> listener : listeners) {
+                        listener.message(name, message.channel(), message.payload());
+                    }
+                }
+            }
+        }
+
+        private static Pattern glob(String pattern) {
+            StringBuilder regex = new StringBuilder();
+            for (String part : pattern.split("\\*", -1)) {
+                if (!regex.isEmpty()) regex.append(".*");
+                regex.append(Pattern.quote(part));
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package it.einjojo.playerapi.config;
+
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallPolicyConfigurationTest {
+
+    @Test
+    void hedgingIsOptIn() {
+        assertFalse(CallPolicyConfiguration.DEFAULT.hedgingEnabled());
+        assertNull(methodConfig(CallPolicyConfiguration.DEFAULT, "GetOnlinePlayerByName").get("hedgingPolicy"));
+        assertNotNull(methodConfig(CallPolicyConfiguration.DEFAULT, "GetOnlinePlayerByName").get("retryPolicy"));
+
+        CallPolicyConfiguration hedged = new CallPolicyConfiguration(true, 2_000, 5_000, 3_000, true, 50, 3, 10, 0.1);
+        assertNotNull(methodConfig(hedged, "GetOnlinePlayerByName").get("hedgingPolicy"));
+    }
+
+    @Test
+    void onlyIdempotentWritesAreRetried() {
+        assertNotNull(methodConfig(CallPolicyConfiguration.DEFAULT, PlayerServiceGrpc.getUpdateConnectionMethod().getBareMethodName()).get("retryPolicy"));
+        for (String write : List.of(PlayerServiceGrpc.getLoginMethod().getBareMethodName(), PlayerServiceGrpc.getLogoutMethod().getBareMethodName())) {
+            Map<String, ?> config = methodConfig(CallPolicyConfiguration.DEFAULT, write);
+            assertNull(config.get("retryPolicy"), write);
+            assertNull(config.get("hedgingPolicy"), write);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> methodConfig(CallPolicyConfiguration configuration, String method) {
+        List<Map<String, ?>> methodConfigs = (List<Map<String, ?>>) configuration.toServiceConfig().get("methodConfig");
+        for (Map<String, ?> methodConfig : methodConfigs) {
+            for (Map<String, ?> name : (List<Map<String, ?>>) methodConfig.get("name")) {
+                if (method.equals(name.get("method"))) {
+                    return methodConfig;
+                }
+            }
+        }
+        return fail("no method config for " + method);
+    }
+}
@@ -0,0 +1,110 @@
+package it.einjojo.playerapi.config;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import it.einjojo.playerapi.impl.PlayerApiExecutors;
+import it.einjojo.playerapi.impl.PlayerMapper;
+import it.einjojo.playerapi.service.ReferencePlayerService;
+import it.einjojo.protocol.player.GetOnlinePlayerResponse;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.PlayerIdRequest;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the latency of GetOnlinePlayerByUniqueId over TCP loopback and over a unix domain socket, both through the
+ * channels {@link PluginConfig#createChannel} builds. Run with {@code -Dbenchmark=true}, the percentiles are printed.
+ * The domain socket is skipped where native epoll is not available.
+ */
+class DomainSocketBenchmarkTest {
+    private static final int WARM_UP_CALLS = 5_000;
+    private static final int CALLS = 20_000;
+
+    private static PluginConfig config(String address, int port) {
+        return new PluginConfig(address, port, new RedisConnectionConfiguration("localhost", 6379, "default", "default", false),
+                null, null, null, null, null, null, null, null, null, null, ExecutorConfiguration.DEFAULT, null, null, null);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTcpAgainstDomainSocket() throws Exception {
+        ReferencePlayerService service = new ReferencePlayerService();
+        try (PlayerApiExecutors executors = new PlayerApiExecutors(ExecutorConfiguration.DEFAULT)) {
+            Server tcp = NettyServerBuilder.forAddress(new InetSocketAddress("127.0.0.1", 0))
+                    .directExecutor()
+                    .addService(service)
+                    .build().start();
+            try {
+                System.out.println("tcp loopback: " + measure(config("127.0.0.1", tcp.getPort()).createChannel(executors)));
+            } finally {
+                tcp.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+            if (!Epoll.isAvailable()) {
+                System.out.println("unix domain socket: skipped, native epoll is not available: " + Epoll.unavailabilityCause());
+                return;
+            }
+            Path directory = Files.createTempDirectory("playerapi");
+            Path socket = directory.resolve("player-service.sock");
+            EventLoopGroup serverLoops = new EpollEventLoopGroup(1);
+            Server uds = NettyServerBuilder.forAddress(new DomainSocketAddress(socket.toString()))
+                    .channelType(EpollServerDomainSocketChannel.class)
+                    .bossEventLoopGroup(serverLoops)
+                    .workerEventLoopGroup(serverLoops)
+                    .directExecutor()
+                    .addService(service)
+                    .build().start();
+            try {
+                System.out.println("unix domain socket: " + measure(config("unix:" + socket, 0).createChannel(executors)));
+            } finally {
+                uds.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+                serverLoops.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+                Files.deleteIfExists(socket);
+                Files.deleteIfExists(directory);
+            }
+        }
+    }
+
+    private static String measure(ManagedChannel channel) throws InterruptedException {
+        try {
+            PlayerServiceGrpc.PlayerServiceBlockingStub stub = PlayerServiceGrpc.newBlockingStub(channel);
+            UUID uuid = UUID.randomUUID();
+            stub.login(LoginRequest.newBuilder()
+                    .setUniqueId(uuid.toString())
+                    .setUsername("Benchmark")
+                    .setProxyName("proxy-1")
+                    .build());
+            PlayerIdRequest request = PlayerMapper.toRequest(uuid);
+            for (int i = 0; i < WARM_UP_CALLS; i++) {
+                stub.getOnlinePlayerByUniqueId(request);
+            }
+            long[] latencies = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                long start = System.nanoTime();
+                GetOnlinePlayerResponse response = stub.getOnlinePlayerByUniqueId(request);
+                latencies[i] = System.nanoTime() - start;
+                assertFalse(response.getNotFound());
+            }
+            Arrays.sort(latencies);
+            return String.format("p50 %d us, p99 %d us over %d calls", latencies[CALLS / 2] / 1_000,
+                    latencies[CALLS * 99 / 100] / 1_000, CALLS);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package it.einjojo.playerapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorConfigurationTest {
+
+    @Test
+    void poolsAreNotCappedWithoutABudget() {
+        ExecutorConfiguration configuration = new ExecutorConfiguration("bounded", 4, 8, 2, 100, 2, 2, 1, 0);
+        assertEquals(19, configuration.platformThreads());
+        assertEquals(8, configuration.callbackThreads());
+    }
+
+    @Test
+    void largestPoolsAreShrunkToFitTheBudget() {
+        ExecutorConfiguration configuration = new ExecutorConfiguration("bounded", 4, 8, 2, 100, 2, 2, 1, 12);
+        assertEquals(12, configuration.platformThreads());
+        assertEquals(2, configuration.transportThreads());
+        assertEquals(3, configuration.callbackThreads());
+        assertEquals(2, configuration.dispatchThreads());
+        assertEquals(2, configuration.grpcEventLoopThreads());
+        assertEquals(1, configuration.redisComputationThreads());
+    }
+
+    @Test
+    void unboundedModesOnlyCapTheEventLoops() {
+        ExecutorConfiguration configuration = new ExecutorConfiguration("cached", 4, 8, 2, 100, 4, 4, 2, 6);
+        assertEquals(6, configuration.platformThreads());
+        assertEquals(8, configuration.callbackThreads(), "cached pools are not counted");
+        assertEquals(2, configuration.grpcEventLoopThreads());
+        assertEquals(2, configuration.redisIoThreads());
+        assertEquals(2, configuration.redisComputationThreads());
+    }
+
+    @Test
+    void everyPoolKeepsOneThread() {
+        ExecutorConfiguration configuration = new ExecutorConfiguration("bounded", 4, 8, 2, 100, 2, 2, 1, 2);
+        assertEquals(6, configuration.platformThreads());
+    }
+}
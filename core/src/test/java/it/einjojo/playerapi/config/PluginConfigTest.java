@@ -0,0 +1,21 @@
+package it.einjojo.playerapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PluginConfigTest {
+
+    @Test
+    void unixAddressesNameADomainSocket() {
+        assertEquals("/run/player-service.sock", PluginConfig.domainSocketPath("unix:/run/player-service.sock"));
+        assertEquals("/run/player-service.sock", PluginConfig.domainSocketPath("unix:///run/player-service.sock"));
+    }
+
+    @Test
+    void hostNamesAreNotDomainSockets() {
+        assertNull(PluginConfig.domainSocketPath("localhost"));
+        assertNull(PluginConfig.domainSocketPath("10.0.0.1"));
+        assertNull(PluginConfig.domainSocketPath(null));
+    }
+}
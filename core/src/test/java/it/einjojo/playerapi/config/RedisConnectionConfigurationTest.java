@@ -0,0 +1,27 @@
+package it.einjojo.playerapi.config;
+
+import io.lettuce.core.RedisURI;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisConnectionConfigurationTest {
+
+    @Test
+    void unixHostConnectsToTheSocket() {
+        RedisURI uri = new RedisConnectionConfiguration("unix:/run/redis.sock", 6379, "default", "secret", false).createUri("playerapi");
+        assertEquals("/run/redis.sock", uri.getSocket());
+        assertNull(uri.getHost());
+        assertEquals("playerapi", uri.getClientName());
+    }
+
+    @Test
+    void hostConnectsOverTcp() {
+        RedisURI uri = new RedisConnectionConfiguration("redis.internal", 6380, "default", "secret", true).createUri("playerapi");
+        assertNull(uri.getSocket());
+        assertEquals("redis.internal", uri.getHost());
+        assertEquals(6380, uri.getPort());
+        assertTrue(uri.isSsl());
+        assertEquals("playerapi", uri.getClientName());
+    }
+}
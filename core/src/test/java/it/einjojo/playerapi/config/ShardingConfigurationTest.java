@@ -0,0 +1,24 @@
+package it.einjojo.playerapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingConfigurationTest {
+
+    @Test
+    void namedShardsKeepTheirNameWhenReplicasChange() {
+        assertEquals("eu-1", ShardingConfiguration.name("eu-1=10.0.0.1:9090,10.0.0.2:9090"));
+        assertEquals("eu-1", ShardingConfiguration.name(" eu-1 = 10.0.0.3:9090"));
+        assertEquals(List.of("10.0.0.1:9090", "10.0.0.2:9090"), ShardingConfiguration.replicas("eu-1=10.0.0.1:9090, 10.0.0.2:9090"));
+        assertEquals(List.of("10.0.0.3:9090"), ShardingConfiguration.replicas(" eu-1 = 10.0.0.3:9090"));
+    }
+
+    @Test
+    void unnamedShardsArePlacedByTheWholeEntry() {
+        assertEquals("10.0.0.1:9090,10.0.0.2:9090", ShardingConfiguration.name("10.0.0.1:9090,10.0.0.2:9090"));
+        assertEquals(List.of("10.0.0.1:9090", "10.0.0.2:9090"), ShardingConfiguration.replicas("10.0.0.1:9090,10.0.0.2:9090"));
+    }
+}
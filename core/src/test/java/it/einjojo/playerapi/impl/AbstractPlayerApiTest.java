@@ -0,0 +1,154 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbstractPlayerApiTest {
+    private InProcessPlayerApi fixture;
+    private AbstractPlayerApi api;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fixture = new InProcessPlayerApi();
+        api = fixture.api;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Test
+    void loggedInPlayerIsOnline() throws Exception {
+        UUID uuid = fixture.login("Alice");
+
+        NetworkPlayer player = api.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS);
+        assertNotNull(player);
+        assertEquals("Alice", player.getName());
+        assertEquals("proxy-1", player.getConnectedProxyName());
+        assertEquals(uuid, api.getOnlinePlayer("alice").get(5, TimeUnit.SECONDS).getUniqueId());
+        assertTrue(api.isPlayerOnline(uuid).get(5, TimeUnit.SECONDS));
+        assertTrue(api.isPlayerOnline("ALICE").get(5, TimeUnit.SECONDS));
+        assertEquals(uuid, api.getUniqueId("Alice").get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Alice"), api.getOnlinePlayerNames().get(5, TimeUnit.SECONDS));
+        assertEquals(1, api.getOnlinePlayers().get(5, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void loggedOutPlayerIsOffline() throws Exception {
+        UUID uuid = fixture.login("Bob");
+        fixture.logout(uuid);
+
+        assertNull(api.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS));
+        assertFalse(api.isPlayerOnline("Bob").get(5, TimeUnit.SECONDS));
+        OfflineNetworkPlayer player = api.getOfflinePlayer(uuid).get(5, TimeUnit.SECONDS);
+        assertNotNull(player);
+        assertFalse(player.isOnline());
+        assertEquals(uuid, api.getOfflinePlayer("bob").get(5, TimeUnit.SECONDS).getUniqueId());
+    }
+
+    @Test
+    void unknownPlayersAreNull() throws Exception {
+        assertNull(api.getOfflinePlayer(UUID.randomUUID()).get(5, TimeUnit.SECONDS));
+        assertNull(api.getOfflinePlayer("Nobody").get(5, TimeUnit.SECONDS));
+        assertNull(api.getOnlinePlayer("Nobody").get(5, TimeUnit.SECONDS));
+        assertNull(api.getUniqueId("Nobody").get(5, TimeUnit.SECONDS));
+        assertFalse(api.isPlayerOnline(UUID.randomUUID()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void serverChangeIsVisible() throws Exception {
+        UUID uuid = fixture.login("Carol");
+        fixture.moveTo(uuid, "lobby-3");
+
+        assertEquals(Optional.of("lobby-3"), api.getOnlinePlayer(uuid).get(5, TimeUnit.SECONDS).getConnectedServerName());
+    }
+
+    @Test
+    void batchLookupsOnlyContainKnownPlayers() throws Exception {
+        UUID alice = fixture.login("Alice");
+        UUID bob = fixture.login("Bob");
+        fixture.logout(bob);
+        UUID unknown = UUID.randomUUID();
+
+        Map<UUID, OfflineNetworkPlayer> offline = api.getOfflinePlayers(List.of(alice, bob, unknown)).get(5, TimeUnit.SECONDS);
+        assertEquals(2, offline.size());
+        assertTrue(offline.get(alice).isOnline());
+        assertFalse(offline.get(bob).isOnline());
+
+        Map<UUID, NetworkPlayer> online = api.getOnlinePlayers(List.of(alice, bob, unknown)).get(5, TimeUnit.SECONDS);
+        assertEquals(Set.of(alice), online.keySet());
+
+        Map<String, UUID> uniqueIds = api.getUniqueIds(List.of("alice", "Bob", "Nobody")).get(5, TimeUnit.SECONDS);
+        assertEquals(alice, uniqueIds.get("alice"));
+        assertEquals(bob, uniqueIds.get("Bob"));
+        assertFalse(uniqueIds.containsKey("Nobody"));
+    }
+
+    @Test
+    void warmUpMakesTheApiReady() throws Exception {
+        assertTrue(api.awaitWarmUp(5000));
+        assertTrue(api.isReady());
+        api.whenReady().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void watcherReceivesSnapshotAndChanges() throws Exception {
+        UUID alice = fixture.login("Alice");
+        CountDownLatch snapshot = new CountDownLatch(1);
+        CountDownLatch changes = new CountDownLatch(3);
+        List<UUID> snapshotPlayers = new CopyOnWriteArrayList<>();
+        List<String> events = new CopyOnWriteArrayList<>();
+        OnlinePlayerWatcher watcher = api.watchOnlinePlayers(new OnlinePlayerWatcher.Listener() {
+            @Override
+            public void onSnapshot(List<OnlinePlayerDefinition> players) {
+                players.forEach(player -> snapshotPlayers.add(UUID.fromString(player.getUniqueId())));
+                snapshot.countDown();
+            }
+
+            @Override
+            public void onAdded(OnlinePlayerDefinition player) {
+                events.add("added " + player.getUsername());
+                changes.countDown();
+            }
+
+            @Override
+            public void onRemoved(UUID uuid) {
+                events.add("removed " + uuid);
+                changes.countDown();
+            }
+
+            @Override
+            public void onMoved(UUID uuid, String serverName) {
+                events.add("moved " + uuid + " " + serverName);
+                changes.countDown();
+            }
+        });
+        try {
+            assertTrue(snapshot.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(alice), snapshotPlayers);
+            UUID bob = fixture.login("Bob");
+            fixture.moveTo(alice, "lobby-1");
+            fixture.logout(bob);
+            assertTrue(changes.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("added Bob", "moved " + alice + " lobby-1", "removed " + bob), events);
+        } finally {
+            watcher.close();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import it.einjojo.playerapi.config.CircuitBreakerConfiguration;
+import it.einjojo.protocol.player.GetOnlinePlayerResponse;
+import it.einjojo.protocol.player.PlayerIdRequest;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private static final long OPEN_MILLIS = 1_000;
+    private static final long RAMP_UP_MILLIS = 10_000;
+    private final AtomicLong now = new AtomicLong();
+    private final FakeChannel channel = new FakeChannel();
+    private final CircuitBreaker breaker = new CircuitBreaker(
+            new CircuitBreakerConfiguration(true, 3, OPEN_MILLIS, RAMP_UP_MILLIS, false, 0, 0), now::get);
+
+    private Status call(Status answer) {
+        channel.answer = answer;
+        MethodDescriptor<PlayerIdRequest, GetOnlinePlayerResponse> method = PlayerServiceGrpc.getGetOnlinePlayerByUniqueIdMethod();
+        ClientCall<PlayerIdRequest, GetOnlinePlayerResponse> call = breaker.interceptCall(method, CallOptions.DEFAULT, channel);
+        AtomicReference<Status> closed = new AtomicReference<>();
+        call.start(new ClientCall.Listener<>() {
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                closed.set(status);
+            }
+        }, new Metadata());
+        return closed.get();
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            call(Status.UNAVAILABLE);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        call(Status.UNAVAILABLE);
+        call(Status.DEADLINE_EXCEEDED);
+        call(Status.OK);
+        call(Status.UNAVAILABLE);
+        call(Status.RESOURCE_EXHAUSTED);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "a success resets the failure count");
+        call(Status.UNAVAILABLE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        int sent = channel.sent;
+        Status rejected = call(Status.OK);
+        assertEquals(Status.Code.UNAVAILABLE, rejected.getCode());
+        assertEquals(sent, channel.sent, "an open breaker must not send the call");
+        assertEquals(1, breaker.rejectedCount());
+    }
+
+    @Test
+    void answersOfARunningServiceDoNotTripTheBreaker() {
+        for (int i = 0; i < 10; i++) {
+            call(Status.NOT_FOUND);
+            call(Status.INVALID_ARGUMENT);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(CircuitBreaker.isUnavailable(Status.UNAVAILABLE.asRuntimeException()));
+        assertFalse(CircuitBreaker.isUnavailable(Status.NOT_FOUND.asRuntimeException()));
+    }
+
+    @Test
+    void staysOpenUntilTheOpenTimeHasElapsed() {
+        open();
+        advanceMillis(OPEN_MILLIS - 1);
+        call(Status.OK);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        advanceMillis(1);
+        call(Status.OK);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenLetsAGrowingShareOfCallsThrough() {
+        open();
+        advanceMillis(OPEN_MILLIS);
+        call(Status.OK);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        advanceMillis(RAMP_UP_MILLIS / 2);
+        int sent = channel.sent;
+        for (int i = 0; i < 1_000; i++) {
+            call(Status.OK);
+        }
+        int passed = channel.sent - sent;
+        assertTrue(passed > 350 && passed < 650, "about half of the calls pass halfway through the ramp, passed " + passed);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "successes before the end of the ramp keep probing");
+        advanceMillis(RAMP_UP_MILLIS / 2);
+        assertEquals(Status.Code.OK, call(Status.OK).getCode());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failureWhileHalfOpenOpensAgain() {
+        open();
+        advanceMillis(OPEN_MILLIS);
+        call(Status.OK);
+        advanceMillis(RAMP_UP_MILLIS);
+        call(Status.UNAVAILABLE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(Status.Code.UNAVAILABLE, call(Status.OK).getCode());
+    }
+
+    /**
+     * Channel whose calls close with a configured status as soon as they are started.
+     */
+    private static final class FakeChannel extends Channel {
+        private Status answer = Status.OK;
+        private int sent;
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+            return new ClientCall<>() {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    sent++;
+                    responseListener.onClose(answer, new Metadata());
+                }
+
+                @Override
+                public void request(int numMessages) {
+                }
+
+                @Override
+                public void cancel(String message, Throwable cause) {
+                }
+
+                @Override
+                public void halfClose() {
+                }
+
+                @Override
+                public void sendMessage(ReqT message) {
+                }
+            };
+        }
+
+        @Override
+        public String authority() {
+            return "fake";
+        }
+    }
+}
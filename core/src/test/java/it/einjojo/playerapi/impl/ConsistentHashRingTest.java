@@ -0,0 +1,88 @@
+package it.einjojo.playerapi.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 100_000;
+    private static final int VIRTUAL_NODES = 160;
+
+    private static ConsistentHashRing<String> ring(int shards) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < shards; i++) {
+            nodes.put("shard-" + i, "shard-" + i);
+        }
+        return new ConsistentHashRing<>(nodes, VIRTUAL_NODES);
+    }
+
+    private static UUID[] keys() {
+        Random random = new Random(42);
+        UUID[] keys = new UUID[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        return keys;
+    }
+
+    @Test
+    void addingAShardOnlyMovesItsShareOfTheKeys() {
+        UUID[] keys = keys();
+        for (int shards = 2; shards <= 8; shards++) {
+            ConsistentHashRing<String> before = ring(shards);
+            ConsistentHashRing<String> after = ring(shards + 1);
+            String added = "shard-" + shards;
+            int moved = 0;
+            for (UUID key : keys) {
+                String owner = after.get(key);
+                if (!owner.equals(before.get(key))) {
+                    assertEquals(added, owner, "keys may only move to the added shard");
+                    moved++;
+                }
+            }
+            double expected = 1.0 / (shards + 1);
+            double share = (double) moved / KEYS;
+            assertTrue(share > expected * 0.5 && share < expected * 1.5,
+                    shards + " -> " + (shards + 1) + " shards moved " + share + " of the keys, expected about " + expected);
+        }
+    }
+
+    @Test
+    void keysAreSpreadEvenly() {
+        int shards = 4;
+        ConsistentHashRing<String> ring = ring(shards);
+        Map<String, Integer> owned = new HashMap<>();
+        for (UUID key : keys()) {
+            owned.merge(ring.get(key), 1, Integer::sum);
+        }
+        assertEquals(shards, owned.size());
+        for (Map.Entry<String, Integer> shard : owned.entrySet()) {
+            double share = (double) shard.getValue() / KEYS;
+            assertTrue(share > 0.75 / shards && share < 1.25 / shards, shard.getKey() + " owns " + share + " of the keys");
+        }
+    }
+
+    @Test
+    void ownerDoesNotDependOnTheOrderOfTheNodes() {
+        Map<String, String> reversed = new LinkedHashMap<>();
+        for (int i = 3; i >= 0; i--) {
+            reversed.put("shard-" + i, "shard-" + i);
+        }
+        ConsistentHashRing<String> ring = ring(4);
+        ConsistentHashRing<String> other = new ConsistentHashRing<>(reversed, VIRTUAL_NODES);
+        for (UUID key : keys()) {
+            assertEquals(ring.get(key), other.get(key));
+        }
+    }
+
+    @Test
+    void emptyRingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(Map.of(), VIRTUAL_NODES));
+    }
+}
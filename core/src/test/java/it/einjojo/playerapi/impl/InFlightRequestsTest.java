@@ -0,0 +1,78 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightRequestsTest {
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
+
+    @Test
+    void concurrentCallersSendOneCall() throws Exception {
+        int callers = 32;
+        AtomicInteger sent = new AtomicInteger();
+        SettableFuture<String> response = SettableFuture.create();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ListenableFuture<String>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return inFlightRequests.coalesce("GetUniqueIdByName", "alice", () -> {
+                        sent.incrementAndGet();
+                        return response;
+                    });
+                }));
+            }
+            start.countDown();
+            List<ListenableFuture<String>> shared = new ArrayList<>();
+            for (Future<ListenableFuture<String>> result : results) {
+                shared.add(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, sent.get());
+            assertEquals(callers - 1, inFlightRequests.deduplicatedCount());
+            response.set("uuid");
+            for (ListenableFuture<String> future : shared) {
+                assertEquals("uuid", future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(0, inFlightRequests.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void completedCallsAreNotReused() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            inFlightRequests.coalesce("GetUniqueIdByName", "alice", () -> {
+                sent.incrementAndGet();
+                SettableFuture<String> response = SettableFuture.create();
+                response.set("uuid");
+                return response;
+            }).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(3, sent.get());
+    }
+
+    @Test
+    void failingCallIsForgotten() {
+        ListenableFuture<String> failed = inFlightRequests.coalesce("GetUniqueIdByName", "alice", () -> {
+            throw new IllegalStateException("channel shut down");
+        });
+        assertTrue(failed.isDone());
+        assertEquals(0, inFlightRequests.size());
+    }
+}
@@ -0,0 +1,124 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import it.einjojo.playerapi.LocalOnlinePlayerAccessor;
+import it.einjojo.playerapi.RedisPubSubHandler;
+import it.einjojo.playerapi.ServerConnectResult;
+import it.einjojo.playerapi.config.ExecutorConfiguration;
+import it.einjojo.playerapi.config.PluginConfig;
+import it.einjojo.playerapi.config.RedisConnectionConfiguration;
+import it.einjojo.playerapi.service.ReferencePlayerService;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.LogoutRequest;
+import it.einjojo.protocol.player.UpdateConnectionRequest;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an {@link AbstractPlayerApi} against the {@link ReferencePlayerService}, bound to an in-process server.
+ * Redis is not touched as long as no redis feature is enabled in the config.
+ */
+class InProcessPlayerApi implements AutoCloseable {
+    static final RedisConnectionConfiguration REDIS = new RedisConnectionConfiguration("localhost", 6379, "default", "default", false);
+    final ReferencePlayerService service = new ReferencePlayerService();
+    final Server server;
+    final ManagedChannel channel;
+    final PlayerApiExecutors executors;
+    final TestPlayerApi api;
+
+    InProcessPlayerApi() throws IOException {
+        this(config());
+    }
+
+    InProcessPlayerApi(PluginConfig config) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        this.executors = new PlayerApiExecutors(config.executors());
+        this.api = new TestPlayerApi(channel, executors, config);
+    }
+
+    /**
+     * Every optional feature is disabled, like in a config that predates them.
+     */
+    static PluginConfig config() {
+        return new PluginConfig("localhost", 9090, REDIS, null, null, null, null, null, null, null, null, null, null,
+                ExecutorConfiguration.DEFAULT, null, null, null);
+    }
+
+    UUID login(String name) throws Exception {
+        UUID uuid = UUID.randomUUID();
+        api.playerServiceStub.login(LoginRequest.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUsername(name)
+                .setProxyName("proxy-1")
+                .build()).get(5, TimeUnit.SECONDS);
+        return uuid;
+    }
+
+    void logout(UUID uuid) throws Exception {
+        api.playerServiceStub.logout(LogoutRequest.newBuilder().setUniqueId(uuid.toString()).build()).get(5, TimeUnit.SECONDS);
+    }
+
+    void moveTo(UUID uuid, String serverName) throws Exception {
+        api.playerServiceStub.updateConnection(UpdateConnectionRequest.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setConnectedServerName(serverName)
+                .build()).get(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        api.shutdown();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        executors.close();
+    }
+
+    static class TestPlayerApi extends AbstractPlayerApi {
+        private final RedisPubSubHandler redisPubSubHandler;
+
+        TestPlayerApi(ManagedChannel channel, PlayerApiExecutors executors, PluginConfig config) {
+            super(channel, executors, config);
+            this.redisPubSubHandler = new RedisPubSubHandler(REDIS, executors.dispatch(), executors.redisResources());
+        }
+
+        @Override
+        protected RedisPubSubHandler getRedisPubSubHandler() {
+            return redisPubSubHandler;
+        }
+
+        @Override
+        public LocalOnlinePlayerAccessor getLocalOnlinePlayerAccessor() {
+            return new LocalOnlinePlayerAccessor() {
+                @Override
+                public boolean isOnline(UUID uuid) {
+                    return false;
+                }
+
+                @Override
+                public boolean isOnline(String name) {
+                    return false;
+                }
+
+                @Override
+                public Collection<String> getPlayerNames() {
+                    return List.of();
+                }
+            };
+        }
+
+        @Override
+        public CompletableFuture<ServerConnectResult> connectPlayer(UUID uuid, String serviceName) {
+            return CompletableFuture.completedFuture(ServerConnectResult.PLAYER_NOT_FOUND);
+        }
+    }
+}
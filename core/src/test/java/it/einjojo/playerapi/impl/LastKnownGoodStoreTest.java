@@ -0,0 +1,92 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.Status;
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.config.CircuitBreakerConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LastKnownGoodStoreTest {
+    private static final String METHOD = "GetOfflinePlayerByUniqueId";
+    private final LastKnownGoodStore store = new LastKnownGoodStore(new CircuitBreakerConfiguration(true, 5, 5_000, 10_000, true, 100, 600));
+
+    private static OfflineNetworkPlayer player(UUID uuid, String name) {
+        return new OfflineNetworkPlayerImpl(uuid, name, 1, 2, 3, false);
+    }
+
+    private static <T> CompletableFuture<T> failed(Status status) {
+        return CompletableFuture.failedFuture(status.asRuntimeException());
+    }
+
+    @Test
+    void unavailableCallIsAnsweredWithTheLastResponseMarkedStale() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        OfflineNetworkPlayer fresh = store.serve(METHOD, uuid, CompletableFuture.completedFuture(player(uuid, "Known"))).get();
+        assertFalse(fresh.isStale());
+        OfflineNetworkPlayer stale = store.serve(METHOD, uuid, LastKnownGoodStoreTest.<OfflineNetworkPlayer>failed(Status.UNAVAILABLE)).get();
+        assertTrue(stale.isStale());
+        assertEquals("Known", stale.getName());
+        assertEquals(1, store.servedCount());
+    }
+
+    @Test
+    void otherFailuresAreNotAnswered() {
+        UUID uuid = UUID.randomUUID();
+        store.serve(METHOD, uuid, CompletableFuture.completedFuture(player(uuid, "Known")));
+        CompletableFuture<OfflineNetworkPlayer> call = store.serve(METHOD, uuid, failed(Status.INVALID_ARGUMENT));
+        ExecutionException thrown = assertThrows(ExecutionException.class, call::get);
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(thrown.getCause()).getCode());
+        assertEquals(0, store.servedCount());
+    }
+
+    @Test
+    void unknownPlayersAreNotRemembered() {
+        UUID uuid = UUID.randomUUID();
+        store.serve(METHOD, uuid, CompletableFuture.completedFuture(null));
+        assertEquals(0, store.size());
+        CompletableFuture<OfflineNetworkPlayer> call = store.serve(METHOD, uuid, failed(Status.UNAVAILABLE));
+        assertThrows(ExecutionException.class, call::get);
+    }
+
+    @Test
+    void responsesAreKeyedByMethod() {
+        UUID uuid = UUID.randomUUID();
+        store.serve(METHOD, uuid, CompletableFuture.completedFuture(player(uuid, "Known")));
+        CompletableFuture<OfflineNetworkPlayer> call = store.serve("GetOnlinePlayerByUniqueId", uuid, failed(Status.UNAVAILABLE));
+        assertThrows(ExecutionException.class, call::get);
+    }
+
+    @Test
+    void batchIsAnsweredPerKeyFromTheSingleLookups() throws Exception {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        store.serve(METHOD, known, CompletableFuture.completedFuture(player(known, "Known")));
+        Map<UUID, OfflineNetworkPlayer> players = store.serveAll(METHOD, Set.of(known, unknown), uuid -> uuid,
+                LastKnownGoodStoreTest.<Map<UUID, OfflineNetworkPlayer>>failed(Status.UNAVAILABLE)).get();
+        assertEquals(Set.of(known), players.keySet());
+        assertTrue(players.get(known).isStale());
+    }
+
+    @Test
+    void batchResponsesAnswerSingleLookups() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        store.serveAll(METHOD, Set.of(uuid), key -> key, CompletableFuture.completedFuture(Map.of(uuid, player(uuid, "Batched"))));
+        OfflineNetworkPlayer stale = store.serve(METHOD, uuid, LastKnownGoodStoreTest.<OfflineNetworkPlayer>failed(Status.UNAVAILABLE)).get();
+        assertEquals("Batched", stale.getName());
+        assertTrue(stale.isStale());
+    }
+
+    @Test
+    void batchWithoutAnyKnownKeyKeepsFailing() {
+        CompletableFuture<Map<String, UUID>> call = store.serveAll("GetUniqueIdByName", Set.of("Name"), name -> name,
+                failed(Status.UNAVAILABLE));
+        assertThrows(ExecutionException.class, call::get);
+    }
+}
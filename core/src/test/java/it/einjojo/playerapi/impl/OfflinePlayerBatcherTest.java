@@ -0,0 +1,117 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.config.BatchingConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfflinePlayerBatcherTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final List<Set<UUID>> batches = new CopyOnWriteArrayList<>();
+    private final Map<UUID, OfflineNetworkPlayer> known = new HashMap<>();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private OfflinePlayerBatcher batcher(long windowMicros, int maxBatchSize) {
+        return new OfflinePlayerBatcher(uuids -> {
+            batches.add(Set.copyOf(uuids));
+            Map<UUID, OfflineNetworkPlayer> players = new HashMap<>();
+            for (UUID uuid : uuids) {
+                if (known.containsKey(uuid)) players.put(uuid, known.get(uuid));
+            }
+            return CompletableFuture.completedFuture(players);
+        }, executor, new BatchingConfiguration(true, windowMicros, maxBatchSize));
+    }
+
+    private UUID known(String name) {
+        UUID uuid = UUID.randomUUID();
+        known.put(uuid, new OfflineNetworkPlayerImpl(uuid, name, 1, 2, 3, false));
+        return uuid;
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        // the window would only elapse after a minute
+        OfflinePlayerBatcher batcher = batcher(60_000_000, 3);
+        UUID first = known("First");
+        UUID second = known("Second");
+        UUID third = known("Third");
+        CompletableFuture<OfflineNetworkPlayer> a = batcher.getOfflinePlayer(first);
+        CompletableFuture<OfflineNetworkPlayer> b = batcher.getOfflinePlayer(second);
+        assertTrue(batches.isEmpty());
+        CompletableFuture<OfflineNetworkPlayer> c = batcher.getOfflinePlayer(third);
+        assertEquals(List.of(Set.of(first, second, third)), batches);
+        assertEquals("First", a.get(1, TimeUnit.SECONDS).getName());
+        assertEquals("Second", b.get(1, TimeUnit.SECONDS).getName());
+        assertEquals("Third", c.get(1, TimeUnit.SECONDS).getName());
+        assertEquals(1, batcher.batchCount());
+    }
+
+    @Test
+    void partialBatchIsSentWhenTheWindowElapses() throws Exception {
+        OfflinePlayerBatcher batcher = batcher(5_000, 64);
+        UUID first = known("First");
+        UUID second = known("Second");
+        CompletableFuture<OfflineNetworkPlayer> a = batcher.getOfflinePlayer(first);
+        CompletableFuture<OfflineNetworkPlayer> b = batcher.getOfflinePlayer(second);
+        CompletableFuture<OfflineNetworkPlayer> again = batcher.getOfflinePlayer(first);
+        assertSame(a, again, "lookups of the same UUID within a window share a future");
+        assertEquals("First", a.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("Second", b.get(5, TimeUnit.SECONDS).getName());
+        assertEquals(List.of(Set.of(first, second)), batches);
+        assertEquals(3, batcher.lookupCount());
+    }
+
+    @Test
+    void unknownPlayersCompleteWithNull() throws Exception {
+        OfflinePlayerBatcher batcher = batcher(5_000, 2);
+        UUID first = known("First");
+        CompletableFuture<OfflineNetworkPlayer> found = batcher.getOfflinePlayer(first);
+        CompletableFuture<OfflineNetworkPlayer> unknown = batcher.getOfflinePlayer(UUID.randomUUID());
+        assertEquals("First", found.get(1, TimeUnit.SECONDS).getName());
+        assertNull(unknown.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedBatchFailsEveryCaller() {
+        IllegalStateException failure = new IllegalStateException("service unavailable");
+        OfflinePlayerBatcher batcher = new OfflinePlayerBatcher(uuids -> CompletableFuture.failedFuture(failure),
+                executor, new BatchingConfiguration(true, 5_000, 64));
+        List<CompletableFuture<OfflineNetworkPlayer>> lookups = List.of(
+                batcher.getOfflinePlayer(UUID.randomUUID()),
+                batcher.getOfflinePlayer(UUID.randomUUID()),
+                batcher.getOfflinePlayer(UUID.randomUUID()));
+        for (CompletableFuture<OfflineNetworkPlayer> lookup : lookups) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> lookup.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+    }
+
+    @Test
+    void throwingLookupFailsEveryCaller() {
+        OfflinePlayerBatcher batcher = new OfflinePlayerBatcher(uuids -> {
+            throw new IllegalStateException("channel shut down");
+        }, executor, new BatchingConfiguration(true, 5_000, 2));
+        CompletableFuture<OfflineNetworkPlayer> a = batcher.getOfflinePlayer(UUID.randomUUID());
+        CompletableFuture<OfflineNetworkPlayer> b = batcher.getOfflinePlayer(UUID.randomUUID());
+        assertTrue(a.isCompletedExceptionally());
+        assertTrue(b.isCompletedExceptionally());
+    }
+}
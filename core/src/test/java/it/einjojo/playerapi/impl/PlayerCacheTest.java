@@ -0,0 +1,70 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.OfflineNetworkPlayer;
+import it.einjojo.playerapi.config.PlayerCacheConfiguration;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerCacheTest {
+    private final PlayerCache cache = new PlayerCache(new PlayerCacheConfiguration(true, 100, 60_000));
+
+    private static OfflineNetworkPlayer player(UUID uuid, String name) {
+        return new OfflineNetworkPlayerImpl(uuid, name, 1, 2, 3, false);
+    }
+
+    private static LoginNotify login(UUID uuid, String name) {
+        return LoginNotify.newBuilder().setPlayer(OnlinePlayerDefinition.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUsername(name)
+                .setConnectedProxyName("proxy")
+                .build()).build();
+    }
+
+    @Test
+    void fetchIsCachedWhenOtherPlayersChange() {
+        UUID uuid = UUID.randomUUID();
+        long mark = cache.mark();
+        cache.handleLogin(login(UUID.randomUUID(), "Other"));
+        cache.put(player(uuid, "Fetched"), mark);
+        assertNotNull(cache.getOfflinePlayer(uuid));
+    }
+
+    @Test
+    void fetchIsDiscardedWhenTheSamePlayerChanged() {
+        UUID uuid = UUID.randomUUID();
+        long mark = cache.mark();
+        cache.handleLogin(login(uuid, "Fetched"));
+        cache.put(player(uuid, "Fetched"), mark);
+        OfflineNetworkPlayer cached = cache.getOfflinePlayer(uuid);
+        assertNotNull(cached);
+        assertTrue(cached.isOnline(), "the notification must win over the older fetch");
+    }
+
+    @Test
+    void fetchByNameIsDiscardedWhenTheNameChanged() {
+        long mark = cache.mark();
+        cache.handleLogin(login(UUID.randomUUID(), "Name"));
+        UUID other = UUID.randomUUID();
+        cache.put(player(other, "name"), mark);
+        assertNull(cache.getOfflinePlayer(other));
+    }
+
+    @Test
+    void gapDiscardsEveryFetch() {
+        UUID uuid = UUID.randomUUID();
+        long mark = cache.mark();
+        cache.handleGap();
+        cache.put(player(uuid, "Fetched"), mark);
+        assertNull(cache.getOfflinePlayer(uuid));
+    }
+
+    @Test
+    void hitRateIsZeroWithoutLookups() {
+        assertEquals(0.0, cache.hitRate());
+    }
+}
@@ -0,0 +1,159 @@
+package it.einjojo.playerapi.impl;
+
+import com.sun.management.ThreadMXBean;
+import it.einjojo.playerapi.NetworkPlayer;
+import it.einjojo.protocol.player.GetOnlinePlayersResponse;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import it.einjojo.protocol.player.PlayerIdRequest;
+import it.einjojo.protocol.player.UniqueIdLookupResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerMapperTest {
+    private static final int ITERATIONS = 20;
+
+    private static List<UUID> uuids(int count) {
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+        return uuids;
+    }
+
+    /**
+     * How a service serializes the unique ids: the string form only (services that predate the binary fields), both
+     * forms (services that still serve old clients) or the binary form only.
+     */
+    private enum WireForm {
+        STRING, BOTH, BINARY
+    }
+
+    private static byte[] response(List<UUID> uuids, WireForm form) {
+        GetOnlinePlayersResponse.Builder response = GetOnlinePlayersResponse.newBuilder();
+        for (UUID uuid : uuids) {
+            OnlinePlayerDefinition.Builder player = OnlinePlayerDefinition.newBuilder().setUsername("player");
+            if (form != WireForm.BINARY) {
+                player.setUniqueId(uuid.toString());
+            }
+            if (form != WireForm.STRING) {
+                player.setUuidMsb(uuid.getMostSignificantBits()).setUuidLsb(uuid.getLeastSignificantBits());
+            }
+            response.addPlayers(player);
+        }
+        return response.build().toByteArray();
+    }
+
+    @Test
+    void binaryFormIsPreferred() {
+        UUID uuid = UUID.randomUUID();
+        // the string form is not parsed at all if the binary form is set
+        assertEquals(uuid, PlayerMapper.readUniqueId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), "not-a-uuid"));
+    }
+
+    @Test
+    void stringFormIsReadFromOldServices() {
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, PlayerMapper.readUniqueId(0, 0, uuid.toString()));
+    }
+
+    @Test
+    void requestCarriesBothForms() {
+        UUID uuid = UUID.randomUUID();
+        PlayerIdRequest request = PlayerMapper.toRequest(uuid);
+        assertEquals(uuid.toString(), request.getUniqueId());
+        assertEquals(uuid, new UUID(request.getUuidMsb(), request.getUuidLsb()));
+    }
+
+    @Test
+    void lookupResponseIsDecoded() {
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, PlayerMapper.readUniqueIdResponse(UniqueIdLookupResponse.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUuidMsb(uuid.getMostSignificantBits())
+                .setUuidLsb(uuid.getLeastSignificantBits())
+                .build()));
+        assertNull(PlayerMapper.readUniqueIdResponse(UniqueIdLookupResponse.newBuilder().setNotFound(true).build()));
+    }
+
+    @Test
+    void allWireFormsDecodeToTheSamePlayers() throws Exception {
+        List<UUID> uuids = uuids(1000);
+        for (WireForm form : WireForm.values()) {
+            List<NetworkPlayer> players = PlayerMapper.toLocal(GetOnlinePlayersResponse.parseFrom(response(uuids, form)).getPlayersList());
+            assertEquals(uuids.size(), players.size());
+            for (int i = 0; i < uuids.size(); i++) {
+                assertEquals(uuids.get(i), players.get(i).getUniqueId(), form.name());
+            }
+        }
+    }
+
+    @Test
+    void binaryOnlyDefinitionsDoNotNeedTheStringForm() {
+        UUID uuid = UUID.randomUUID();
+        OnlinePlayerDefinition definition = OnlinePlayerDefinition.newBuilder()
+                .setUuidMsb(uuid.getMostSignificantBits())
+                .setUuidLsb(uuid.getLeastSignificantBits())
+                .build();
+        assertEquals("", definition.getUniqueId());
+        assertEquals(uuid, PlayerMapper.readUniqueId(definition));
+        assertEquals(uuid, PlayerMapper.toLocal(definition).getUniqueId());
+    }
+
+    /**
+     * Compares the decode path of the wire forms by time and by allocated bytes per player. Run with
+     * {@code -Dbenchmark=true}, the numbers are printed, only the allocation order is asserted.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkDecode() throws Exception {
+        List<UUID> uuids = uuids(10_000);
+        Map<WireForm, byte[]> responses = new EnumMap<>(WireForm.class);
+        for (WireForm form : WireForm.values()) {
+            responses.put(form, response(uuids, form));
+        }
+        Map<WireForm, Long> allocated = new EnumMap<>(WireForm.class);
+        for (int round = 0; round < 5; round++) {
+            StringBuilder line = new StringBuilder("round " + round + ":");
+            for (WireForm form : WireForm.values()) {
+                byte[] serialized = responses.get(form);
+                long start = System.nanoTime();
+                long bytes = decode(serialized);
+                long nanos = (System.nanoTime() - start) / ITERATIONS;
+                allocated.put(form, bytes / ITERATIONS / uuids.size());
+                line.append(String.format(" %s %d ns/player %d B/player (%d bytes on the wire),", form,
+                        nanos / uuids.size(), allocated.get(form), serialized.length));
+            }
+            System.out.println(line);
+        }
+        assertTrue(allocated.get(WireForm.BINARY) < allocated.get(WireForm.STRING), allocated.toString());
+    }
+
+    /**
+     * Decodes the response and every unique id, the way a caller iterating the online players does.
+     *
+     * @return the bytes allocated by the current thread
+     */
+    private static long decode(byte[] serialized) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long checksum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (NetworkPlayer player : PlayerMapper.toLocal(GetOnlinePlayersResponse.parseFrom(serialized).getPlayersList())) {
+                checksum += player.getUniqueId().getLeastSignificantBits();
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertNotEquals(1, checksum); // keeps the loop from being optimized away
+        return allocated;
+    }
+}
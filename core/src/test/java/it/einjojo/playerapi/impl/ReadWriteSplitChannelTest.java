@@ -0,0 +1,115 @@
+package it.einjojo.playerapi.impl;
+
+import it.einjojo.playerapi.config.ReadWriteSplitConfiguration;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.PlayerIdsRequest;
+import it.einjojo.protocol.player.PlayerNamesRequest;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteSplitChannelTest {
+    private final RecordingServer primary;
+    private final RecordingServer replica;
+    private ReadWriteSplitChannel channel;
+    private PlayerServiceGrpc.PlayerServiceBlockingStub stub;
+
+    ReadWriteSplitChannelTest() throws Exception {
+        primary = new RecordingServer("primary");
+        replica = new RecordingServer("replica");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        primary.close();
+        replica.close();
+    }
+
+    private void connect(boolean readYourWrites, long readYourWritesMillis) {
+        channel = new ReadWriteSplitChannel(primary.channel, replica.channel,
+                new ReadWriteSplitConfiguration(true, List.of("replica:9090"), readYourWrites, readYourWritesMillis));
+        stub = PlayerServiceGrpc.newBlockingStub(channel);
+    }
+
+    private UUID login(String name) {
+        UUID uuid = UUID.randomUUID();
+        stub.login(LoginRequest.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUsername(name)
+                .setProxyName("proxy-1")
+                .build());
+        return uuid;
+    }
+
+    private void clearCalls() {
+        primary.calls.clear();
+        replica.calls.clear();
+    }
+
+    @Test
+    void writesGoToThePrimaryAndReadsToTheReplicas() {
+        connect(false, 0);
+        UUID uuid = login("Alice");
+        assertEquals(List.of("Login"), primary.calls);
+        clearCalls();
+        // the replica has not seen the login
+        assertTrue(stub.getOnlinePlayerByUniqueId(PlayerMapper.toRequest(uuid)).getNotFound());
+        stub.getUniqueIdByName(PlayerMapper.toRequest("Alice"));
+        assertEquals(List.of(), primary.calls);
+        assertEquals(List.of("GetOnlinePlayerByUniqueId", "GetUniqueIdByName"), replica.calls);
+        assertEquals(0, channel.readsOnPrimaryCount());
+    }
+
+    @Test
+    void readsOfRecentlyWrittenPlayersGoToThePrimary() {
+        connect(true, 60_000);
+        UUID uuid = login("Alice");
+        clearCalls();
+        assertFalse(stub.getOnlinePlayerByUniqueId(PlayerMapper.toRequest(uuid)).getNotFound());
+        assertFalse(stub.getOnlinePlayerByName(PlayerMapper.toRequest("ALICE")).getNotFound());
+        stub.getOnlinePlayerByUniqueId(PlayerMapper.toRequest(UUID.randomUUID()));
+        assertEquals(List.of("GetOnlinePlayerByUniqueId", "GetOnlinePlayerByName"), primary.calls);
+        assertEquals(List.of("GetOnlinePlayerByUniqueId"), replica.calls);
+        assertEquals(2, channel.readsOnPrimaryCount());
+    }
+
+    @Test
+    void batchesWithARecentlyWrittenPlayerGoToThePrimary() {
+        connect(true, 60_000);
+        UUID uuid = login("Alice");
+        clearCalls();
+        assertEquals(1, stub.getOfflinePlayersByUniqueIds(PlayerIdsRequest.newBuilder()
+                .addUniqueIds(UUID.randomUUID().toString())
+                .addUniqueIds(uuid.toString())
+                .build()).getPlayersCount());
+        assertTrue(stub.getUniqueIdsByNames(PlayerNamesRequest.newBuilder()
+                .addNames("Nobody")
+                .addNames("alice")
+                .build()).containsUniqueIds("alice"));
+        stub.getOfflinePlayersByUniqueIds(PlayerIdsRequest.newBuilder()
+                .addUniqueIds(UUID.randomUUID().toString())
+                .addUniqueIds(UUID.randomUUID().toString())
+                .build());
+        stub.getUniqueIdsByNames(PlayerNamesRequest.newBuilder().addNames("Nobody").build());
+        assertEquals(List.of("GetOfflinePlayersByUniqueIds", "GetUniqueIdsByNames"), primary.calls);
+        assertEquals(List.of("GetOfflinePlayersByUniqueIds", "GetUniqueIdsByNames"), replica.calls);
+    }
+
+    @Test
+    void readsGoBackToTheReplicasAfterTheWindow() throws Exception {
+        connect(true, 50);
+        UUID uuid = login("Alice");
+        Thread.sleep(200);
+        clearCalls();
+        stub.getOnlinePlayerByUniqueId(PlayerMapper.toRequest(uuid));
+        assertEquals(List.of(), primary.calls);
+        assertEquals(List.of("GetOnlinePlayerByUniqueId"), replica.calls);
+    }
+}
@@ -0,0 +1,54 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import it.einjojo.playerapi.service.ReferencePlayerService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@link ReferencePlayerService} that records the methods it has been called with, for tests of channels
+ * that route calls between several services.
+ */
+final class RecordingServer implements ServerInterceptor, AutoCloseable {
+    final String name;
+    final List<String> calls = new CopyOnWriteArrayList<>();
+    final Server server;
+    final ManagedChannel channel;
+
+    RecordingServer(String name) throws IOException {
+        this.name = name;
+        String serverName = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(serverName).directExecutor()
+                .addService(ServerInterceptors.intercept(new ReferencePlayerService(), this))
+                .build().start();
+        this.channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        calls.add(call.getMethodDescriptor().getBareMethodName());
+        return next.startCall(call, headers);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,127 @@
+package it.einjojo.playerapi.impl;
+
+import io.grpc.ManagedChannel;
+import it.einjojo.protocol.player.GetOfflinePlayersResponse;
+import it.einjojo.protocol.player.GetOnlinePlayerResponse;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.OfflinePlayerDefinition;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import it.einjojo.protocol.player.UniqueIdLookupResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedChannelTest {
+    private static final int SHARDS = 3;
+    private final List<RecordingServer> shards = new ArrayList<>();
+    private ShardedChannel channel;
+    private PlayerServiceGrpc.PlayerServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, ManagedChannel> channels = new LinkedHashMap<>();
+        for (int i = 0; i < SHARDS; i++) {
+            RecordingServer shard = new RecordingServer("shard-" + i);
+            shards.add(shard);
+            channels.put(shard.name, shard.channel);
+        }
+        channel = new ShardedChannel(channels, 160);
+        stub = PlayerServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        for (RecordingServer shard : shards) {
+            shard.close();
+        }
+    }
+
+    private UUID login(String name) {
+        UUID uuid = UUID.randomUUID();
+        stub.login(LoginRequest.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUsername(name)
+                .setProxyName("proxy-1")
+                .build());
+        return uuid;
+    }
+
+    private RecordingServer owner(UUID uuid) {
+        ManagedChannel owner = channel.getShard(uuid);
+        return shards.stream().filter(shard -> shard.channel == owner).findFirst().orElseThrow();
+    }
+
+    private void clearCalls() {
+        for (RecordingServer shard : shards) {
+            shard.calls.clear();
+        }
+    }
+
+    @Test
+    void lookupByUniqueIdReachesOnlyTheOwningShard() {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            uuids.add(login("Player" + i));
+        }
+        for (UUID uuid : uuids) {
+            clearCalls();
+            GetOnlinePlayerResponse response = stub.getOnlinePlayerByUniqueId(PlayerMapper.toRequest(uuid));
+            assertFalse(response.getNotFound());
+            assertEquals(uuid.toString(), response.getPlayer().getUniqueId());
+            RecordingServer owner = owner(uuid);
+            for (RecordingServer shard : shards) {
+                List<String> expected = shard == owner ? List.of("GetOnlinePlayerByUniqueId") : List.of();
+                assertEquals(expected, shard.calls, shard.name);
+            }
+        }
+    }
+
+    @Test
+    void loginIsStoredOnTheOwningShardOnly() {
+        UUID uuid = login("Alice");
+        RecordingServer owner = owner(uuid);
+        for (RecordingServer shard : shards) {
+            assertEquals(shard == owner ? List.of("Login") : List.of(), shard.calls, shard.name);
+        }
+    }
+
+    @Test
+    void batchLookupIsSplitByOwner() throws Exception {
+        Set<UUID> uuids = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            uuids.add(login("Player" + i));
+        }
+        clearCalls();
+        ShardedRequests requests = new ShardedRequests(channel);
+        GetOfflinePlayersResponse response = requests.getOfflinePlayersByUniqueIds(uuids).get(5, TimeUnit.SECONDS);
+        Set<UUID> found = new HashSet<>();
+        for (OfflinePlayerDefinition definition : response.getPlayersList()) {
+            found.add(PlayerMapper.readUniqueId(definition));
+        }
+        assertEquals(uuids, found);
+        for (RecordingServer shard : shards) {
+            assertTrue(shard.calls.size() <= 1, shard.name + " got " + shard.calls);
+        }
+    }
+
+    @Test
+    void nameLookupIsAnsweredByTheShardThatKnowsThePlayer() throws Exception {
+        UUID uuid = login("Bob");
+        ShardedRequests requests = new ShardedRequests(channel);
+        UniqueIdLookupResponse response = requests.getUniqueIdByName(PlayerMapper.toRequest("bob")).get(5, TimeUnit.SECONDS);
+        assertEquals(uuid.toString(), response.getUniqueId());
+        assertTrue(requests.getUniqueIdByName(PlayerMapper.toRequest("Nobody")).get(5, TimeUnit.SECONDS).getNotFound());
+    }
+}
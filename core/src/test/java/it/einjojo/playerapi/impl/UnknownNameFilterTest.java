@@ -0,0 +1,121 @@
+package it.einjojo.playerapi.impl;
+
+import com.google.protobuf.Empty;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import it.einjojo.playerapi.config.UnknownNamesConfiguration;
+import it.einjojo.playerapi.service.ReferencePlayerService;
+import it.einjojo.protocol.player.KnownPlayerNames;
+import it.einjojo.protocol.player.LoginNotify;
+import it.einjojo.protocol.player.LoginRequest;
+import it.einjojo.protocol.player.OnlinePlayerDefinition;
+import it.einjojo.protocol.player.PlayerServiceGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnknownNameFilterTest {
+    private static final UnknownNamesConfiguration BLOOM_FILTER_ONLY = new UnknownNamesConfiguration(false, 0, 0, true, 0.001, 60);
+    private Server server;
+    private ManagedChannel channel;
+
+    private PlayerServiceGrpc.PlayerServiceStub start(PlayerServiceGrpc.PlayerServiceImplBase service) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        return PlayerServiceGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static LoginNotify login(String name) {
+        return LoginNotify.newBuilder().setPlayer(OnlinePlayerDefinition.newBuilder()
+                .setUniqueId(UUID.randomUUID().toString())
+                .setUsername(name)
+                .build()).build();
+    }
+
+    @Test
+    void syncedNamesAreKnown() throws Exception {
+        ReferencePlayerService service = new ReferencePlayerService();
+        PlayerServiceGrpc.PlayerServiceStub stub = start(service);
+        PlayerServiceGrpc.newBlockingStub(channel).login(LoginRequest.newBuilder()
+                .setUniqueId(UUID.randomUUID().toString())
+                .setUsername("Alice")
+                .setProxyName("proxy-1")
+                .build());
+        UnknownNameFilter filter = new UnknownNameFilter(stub, Runnable::run, BLOOM_FILTER_ONLY);
+        filter.start();
+        await(filter::isBloomFilterActive);
+
+        assertFalse(filter.isUnknown("alice"));
+        assertTrue(filter.isUnknown("Nobody"));
+        filter.handleLogin(login("Bob"));
+        assertFalse(filter.isUnknown("bob"));
+        filter.close();
+    }
+
+    @Test
+    void gapResyncsTheBloomFilter() throws Exception {
+        AtomicInteger syncs = new AtomicInteger();
+        PlayerServiceGrpc.PlayerServiceStub stub = start(new ReferencePlayerService() {
+            @Override
+            public void getKnownPlayerNames(Empty request, StreamObserver<KnownPlayerNames> responseObserver) {
+                syncs.incrementAndGet();
+                super.getKnownPlayerNames(request, responseObserver);
+            }
+        });
+        UnknownNameFilter filter = new UnknownNameFilter(stub, Runnable::run, BLOOM_FILTER_ONLY);
+        filter.start();
+        await(filter::isBloomFilterActive);
+        assertTrue(filter.isUnknown("Missed"));
+
+        filter.handleGap();
+        await(() -> syncs.get() == 2 && filter.isBloomFilterActive());
+        filter.close();
+    }
+
+    @Test
+    void unimplementedSyncDisablesTheBloomFilter() throws Exception {
+        AtomicInteger syncs = new AtomicInteger();
+        PlayerServiceGrpc.PlayerServiceStub stub = start(new PlayerServiceGrpc.PlayerServiceImplBase() {
+            @Override
+            public void getKnownPlayerNames(Empty request, StreamObserver<KnownPlayerNames> responseObserver) {
+                syncs.incrementAndGet();
+                responseObserver.onError(Status.UNIMPLEMENTED.asRuntimeException());
+            }
+        });
+        UnknownNameFilter filter = new UnknownNameFilter(stub, Runnable::run, BLOOM_FILTER_ONLY);
+        filter.start();
+        await(() -> !filter.isBloomFilterSupported());
+
+        filter.handleGap();
+        assertEquals(1, syncs.get(), "an unsupported sync must not be retried");
+        assertFalse(filter.isBloomFilterActive());
+        assertFalse(filter.isUnknown("Anyone"));
+        filter.close();
+    }
+}
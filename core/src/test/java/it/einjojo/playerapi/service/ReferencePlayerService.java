@@ -0,0 +1,361 @@
+package it.einjojo.playerapi.service;
+
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import it.einjojo.playerapi.impl.PlayerMapper;
+import it.einjojo.protocol.player.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * In-memory reference implementation of the player service.
+ * <p>It follows the protocol of the real service closely enough to test the api against it without the real service,
+ * bound to an in-process server. Nothing is persisted.</p>
+ * <p>All state is guarded by a single lock, which also keeps the events of the online player stream in order.</p>
+ */
+public class ReferencePlayerService extends PlayerServiceGrpc.PlayerServiceImplBase {
+    private static final int DEFAULT_HISTORY_SIZE = 1024;
+    private static final int KNOWN_NAMES_CHUNK_SIZE = 1000;
+    private final Object lock = new Object();
+    private final Map<UUID, OfflinePlayerDefinition> profiles = new HashMap<>();
+    private final Map<String, UUID> uniqueIds = new HashMap<>();
+    private final Map<UUID, OnlinePlayerDefinition> onlinePlayers = new LinkedHashMap<>();
+    private final List<StreamObserver<OnlinePlayersEvent>> watchers = new ArrayList<>();
+    private final ArrayDeque<OnlinePlayersEvent> history = new ArrayDeque<>();
+    private final int historySize;
+    private final String epoch = UUID.randomUUID().toString();
+    private long version;
+    private long nextSessionId = 1;
+
+    public ReferencePlayerService() {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * Constructor for ReferencePlayerService.
+     *
+     * @param historySize amount of online player events that are kept to resume streams
+     */
+    public ReferencePlayerService(int historySize) {
+        this.historySize = historySize;
+    }
+
+    @Override
+    public void login(LoginRequest request, StreamObserver<LoginNotify> responseObserver) {
+        UUID uuid = UUID.fromString(request.getUniqueId());
+        long now = System.currentTimeMillis();
+        OnlinePlayerDefinition player;
+        synchronized (lock) {
+            OfflinePlayerDefinition profile = profiles.get(uuid);
+            if (profile != null && !profile.getUsername().equalsIgnoreCase(request.getUsername())) {
+                uniqueIds.remove(key(profile.getUsername()));
+            }
+            profile = OfflinePlayerDefinition.newBuilder()
+                    .setUniqueId(uuid.toString())
+                    .setUuidMsb(uuid.getMostSignificantBits())
+                    .setUuidLsb(uuid.getLeastSignificantBits())
+                    .setUsername(request.getUsername())
+                    .setFirstLogin(profile == null ? now : profile.getFirstLogin())
+                    .setLastLogin(now)
+                    .setOnlineTime(profile == null ? 0 : profile.getOnlineTime())
+                    .setOnline(true)
+                    .build();
+            profiles.put(uuid, profile);
+            uniqueIds.put(key(request.getUsername()), uuid);
+            player = OnlinePlayerDefinition.newBuilder()
+                    .setUniqueId(profile.getUniqueId())
+                    .setUuidMsb(profile.getUuidMsb())
+                    .setUuidLsb(profile.getUuidLsb())
+                    .setUsername(profile.getUsername())
+                    .setFirstLogin(profile.getFirstLogin())
+                    .setLastLogin(profile.getLastLogin())
+                    .setOnlineTime(profile.getOnlineTime())
+                    .setConnectedProxyName(request.getProxyName())
+                    .setSessionId(nextSessionId++)
+                    .build();
+            onlinePlayers.put(uuid, player);
+            publish(OnlinePlayersEvent.newBuilder().setAdded(player));
+        }
+        responseObserver.onNext(LoginNotify.newBuilder().setPlayer(player).setTimestamp(now).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void logout(LogoutRequest request, StreamObserver<LogoutNotify> responseObserver) {
+        UUID uuid = UUID.fromString(request.getUniqueId());
+        LogoutNotify notify;
+        synchronized (lock) {
+            OnlinePlayerDefinition player = onlinePlayers.remove(uuid);
+            if (player == null) {
+                notify = LogoutNotify.newBuilder().setSuccess(false).build();
+            } else {
+                OfflinePlayerDefinition profile = profiles.get(uuid).toBuilder()
+                        .setOnlineTime(player.getOnlineTime() + System.currentTimeMillis() - player.getLastLogin())
+                        .setOnline(false)
+                        .build();
+                profiles.put(uuid, profile);
+                publish(OnlinePlayersEvent.newBuilder().setRemoved(OnlinePlayerRemoved.newBuilder()
+                        .setUniqueId(uuid.toString())
+                        .setUuidMsb(uuid.getMostSignificantBits())
+                        .setUuidLsb(uuid.getLeastSignificantBits())));
+                notify = LogoutNotify.newBuilder()
+                        .setSuccess(true)
+                        .setClosedSessionId(player.getSessionId())
+                        .setPlayer(profile)
+                        .build();
+            }
+        }
+        responseObserver.onNext(notify);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void updateConnection(UpdateConnectionRequest request, StreamObserver<UpdateConnectionResponse> responseObserver) {
+        UUID uuid = UUID.fromString(request.getUniqueId());
+        boolean success;
+        synchronized (lock) {
+            OnlinePlayerDefinition player = onlinePlayers.get(uuid);
+            success = player != null;
+            if (success) {
+                onlinePlayers.put(uuid, player.toBuilder().setConnectedServerName(request.getConnectedServerName()).build());
+                publish(OnlinePlayersEvent.newBuilder().setMoved(OnlinePlayerMoved.newBuilder()
+                        .setUniqueId(uuid.toString())
+                        .setUuidMsb(uuid.getMostSignificantBits())
+                        .setUuidLsb(uuid.getLeastSignificantBits())
+                        .setConnectedServerName(request.getConnectedServerName())));
+            }
+        }
+        responseObserver.onNext(UpdateConnectionResponse.newBuilder().setSuccess(success).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getOfflinePlayerByUniqueId(PlayerIdRequest request, StreamObserver<GetOfflinePlayerResponse> responseObserver) {
+        OfflinePlayerDefinition profile;
+        synchronized (lock) {
+            profile = profiles.get(readUniqueId(request));
+        }
+        respondOffline(profile, request.getNotFoundAsResponse(), responseObserver);
+    }
+
+    @Override
+    public void getOfflinePlayerByName(PlayerNameRequest request, StreamObserver<GetOfflinePlayerResponse> responseObserver) {
+        OfflinePlayerDefinition profile;
+        synchronized (lock) {
+            UUID uuid = uniqueIds.get(key(request.getName()));
+            profile = uuid == null ? null : profiles.get(uuid);
+        }
+        respondOffline(profile, request.getNotFoundAsResponse(), responseObserver);
+    }
+
+    @Override
+    public void getOnlinePlayerByUniqueId(PlayerIdRequest request, StreamObserver<GetOnlinePlayerResponse> responseObserver) {
+        OnlinePlayerDefinition player;
+        synchronized (lock) {
+            player = onlinePlayers.get(readUniqueId(request));
+        }
+        respondOnline(player, request.getNotFoundAsResponse(), responseObserver);
+    }
+
+    @Override
+    public void getOnlinePlayerByName(PlayerNameRequest request, StreamObserver<GetOnlinePlayerResponse> responseObserver) {
+        OnlinePlayerDefinition player;
+        synchronized (lock) {
+            UUID uuid = uniqueIds.get(key(request.getName()));
+            player = uuid == null ? null : onlinePlayers.get(uuid);
+        }
+        respondOnline(player, request.getNotFoundAsResponse(), responseObserver);
+    }
+
+    @Override
+    public void getOnlinePlayers(Empty request, StreamObserver<GetOnlinePlayersResponse> responseObserver) {
+        GetOnlinePlayersResponse response;
+        synchronized (lock) {
+            response = GetOnlinePlayersResponse.newBuilder().addAllPlayers(onlinePlayers.values()).build();
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getOnlinePlayerNames(Empty request, StreamObserver<GetOnlinePlayerNamesResponse> responseObserver) {
+        GetOnlinePlayerNamesResponse.Builder response = GetOnlinePlayerNamesResponse.newBuilder();
+        synchronized (lock) {
+            for (OnlinePlayerDefinition player : onlinePlayers.values()) {
+                response.addNames(player.getUsername());
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getUniqueIdByName(PlayerNameRequest request, StreamObserver<UniqueIdLookupResponse> responseObserver) {
+        UUID uuid;
+        synchronized (lock) {
+            uuid = uniqueIds.get(key(request.getName()));
+        }
+        if (uuid == null) {
+            if (request.getNotFoundAsResponse()) {
+                responseObserver.onNext(UniqueIdLookupResponse.newBuilder().setNotFound(true).build());
+                responseObserver.onCompleted();
+            } else {
+                responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+            }
+            return;
+        }
+        responseObserver.onNext(UniqueIdLookupResponse.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUuidMsb(uuid.getMostSignificantBits())
+                .setUuidLsb(uuid.getLeastSignificantBits())
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getOfflinePlayersByUniqueIds(PlayerIdsRequest request, StreamObserver<GetOfflinePlayersResponse> responseObserver) {
+        GetOfflinePlayersResponse.Builder response = GetOfflinePlayersResponse.newBuilder();
+        synchronized (lock) {
+            for (String uniqueId : request.getUniqueIdsList()) {
+                OfflinePlayerDefinition profile = profiles.get(UUID.fromString(uniqueId));
+                if (profile != null) {
+                    response.addPlayers(profile);
+                }
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getUniqueIdsByNames(PlayerNamesRequest request, StreamObserver<UniqueIdsLookupResponse> responseObserver) {
+        UniqueIdsLookupResponse.Builder response = UniqueIdsLookupResponse.newBuilder();
+        synchronized (lock) {
+            for (String name : request.getNamesList()) {
+                UUID uuid = uniqueIds.get(key(name));
+                if (uuid != null) {
+                    response.putUniqueIds(name, uuid.toString());
+                }
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getKnownPlayerNames(Empty request, StreamObserver<KnownPlayerNames> responseObserver) {
+        List<String> names;
+        synchronized (lock) {
+            names = new ArrayList<>(profiles.size());
+            for (OfflinePlayerDefinition profile : profiles.values()) {
+                names.add(profile.getUsername());
+            }
+        }
+        int offset = 0;
+        do {
+            int end = Math.min(names.size(), offset + KNOWN_NAMES_CHUNK_SIZE);
+            KnownPlayerNames.Builder chunk = KnownPlayerNames.newBuilder().addAllNames(names.subList(offset, end));
+            if (offset == 0) {
+                chunk.setTotal(names.size());
+            }
+            responseObserver.onNext(chunk.build());
+            offset = end;
+        } while (offset < names.size());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void watchOnlinePlayers(WatchOnlinePlayersRequest request, StreamObserver<OnlinePlayersEvent> responseObserver) {
+        synchronized (lock) {
+            if (canResume(request)) {
+                for (OnlinePlayersEvent event : history) {
+                    if (event.getVersion() > request.getResumeFromVersion()) {
+                        responseObserver.onNext(event);
+                    }
+                }
+            } else {
+                responseObserver.onNext(OnlinePlayersEvent.newBuilder()
+                        .setEpoch(epoch)
+                        .setVersion(version)
+                        .setSnapshot(OnlinePlayersSnapshot.newBuilder().addAllPlayers(onlinePlayers.values()))
+                        .build());
+            }
+            watchers.add(responseObserver);
+        }
+        if (responseObserver instanceof ServerCallStreamObserver<OnlinePlayersEvent> serverCallStreamObserver) {
+            serverCallStreamObserver.setOnCancelHandler(() -> {
+                synchronized (lock) {
+                    watchers.remove(responseObserver);
+                }
+            });
+        }
+    }
+
+    /**
+     * A stream can be resumed if it belongs to this epoch and no event after the requested version has been dropped.
+     *
+     * @param request the request
+     * @return true if the missed events can be replayed
+     */
+    private boolean canResume(WatchOnlinePlayersRequest request) {
+        if (!request.getEpoch().equals(epoch) || request.getResumeFromVersion() > version) {
+            return false;
+        }
+        long oldestVersion = history.isEmpty() ? version + 1 : history.peekFirst().getVersion();
+        return request.getResumeFromVersion() >= oldestVersion - 1;
+    }
+
+    private void publish(OnlinePlayersEvent.Builder builder) {
+        OnlinePlayersEvent event = builder.setEpoch(epoch).setVersion(++version).build();
+        history.addLast(event);
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+        for (Iterator<StreamObserver<OnlinePlayersEvent>> it = watchers.iterator(); it.hasNext(); ) {
+            try {
+                it.next().onNext(event);
+            } catch (RuntimeException e) {
+                it.remove(); // the stream has been cancelled
+            }
+        }
+    }
+
+    private static void respondOffline(@Nullable OfflinePlayerDefinition profile, boolean notFoundAsResponse, StreamObserver<GetOfflinePlayerResponse> responseObserver) {
+        if (profile == null) {
+            if (notFoundAsResponse) {
+                responseObserver.onNext(GetOfflinePlayerResponse.newBuilder().setNotFound(true).build());
+                responseObserver.onCompleted();
+            } else {
+                responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+            }
+            return;
+        }
+        responseObserver.onNext(GetOfflinePlayerResponse.newBuilder().setPlayer(profile).build());
+        responseObserver.onCompleted();
+    }
+
+    private static void respondOnline(@Nullable OnlinePlayerDefinition player, boolean notFoundAsResponse, StreamObserver<GetOnlinePlayerResponse> responseObserver) {
+        if (player == null) {
+            if (notFoundAsResponse) {
+                responseObserver.onNext(GetOnlinePlayerResponse.newBuilder().setNotFound(true).build());
+                responseObserver.onCompleted();
+            } else {
+                responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+            }
+            return;
+        }
+        responseObserver.onNext(GetOnlinePlayerResponse.newBuilder().setPlayer(player).build());
+        responseObserver.onCompleted();
+    }
+
+    private static UUID readUniqueId(PlayerIdRequest request) {
+        return PlayerMapper.readUniqueId(request.getUuidMsb(), request.getUuidLsb(), request.getUniqueId());
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,5 @@
 package it.einjojo.playerapi;
 
-import io.lettuce.core.api.StatefulRedisConnection;
 import it.einjojo.protocol.player.ConnectRequest;
 import it.einjojo.protocol.player.ConnectResponse;
 import org.jspecify.annotations.NullMarked;
@@ -9,7 +8,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.security.SecureRandom;
-import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -20,13 +18,14 @@ import java.util.function.Consumer;
 public class ConnectionRequestManager implements Consumer<ConnectResponse> {
     private static final SecureRandom random = new SecureRandom();
     private static final Logger log = LoggerFactory.getLogger(ConnectionRequestManager.class);
-    private final StatefulRedisConnection<byte[], byte[]> connection;
+    private final RedisPubSubHandler pubSubHandler;
+    private final RedisSubscription responseSubscription;
     private final LinkedBlockingDeque<PendingRequest> pendingRequests = new LinkedBlockingDeque<>();
 
 
     public ConnectionRequestManager(RedisPubSubHandler pubSubHandler) {
-        pubSubHandler.setConnectResponseConsumer(this);
-        this.connection = Objects.requireNonNull(pubSubHandler.getConnection());
+        this.pubSubHandler = pubSubHandler;
+        this.responseSubscription = pubSubHandler.setConnectResponseConsumer(this);
     }
 
     /**
@@ -74,7 +73,7 @@ public class ConnectionRequestManager implements Consumer<ConnectResponse> {
     }
 
     public void fireAndForget(UUID uuid, String serviceName) {
-        connection.sync().publish(RedisPubSubHandler.CONNECT_REQ_CHANNEL, ConnectRequest.newBuilder()
+        pubSubHandler.publish(RedisPubSubHandler.CONNECT_REQ_CHANNEL, ConnectRequest.newBuilder()
                 .setUniqueId(uuid.toString())
                 .setServerName(serviceName)
                 .build().toByteArray());
@@ -84,11 +83,16 @@ public class ConnectionRequestManager implements Consumer<ConnectResponse> {
         int responseKey = random.nextInt(Integer.MAX_VALUE);
         CompletableFuture<ServerConnectResult> future = new CompletableFuture<>();
         pendingRequests.add(new PendingRequest(responseKey, future, System.currentTimeMillis() + 10_000));
-        connection.sync().publish(RedisPubSubHandler.CONNECT_REQ_CHANNEL, ConnectRequest.newBuilder()
+        byte[] request = ConnectRequest.newBuilder()
                 .setUniqueId(uuid.toString())
                 .setServerName(serviceName)
                 .setResponseKey(responseKey)
-                .build().toByteArray());
+                .build().toByteArray();
+        // the response would be missed if it arrived before the response channel is subscribed
+        responseSubscription.subscribed().thenCompose(ignored -> pubSubHandler.publish(RedisPubSubHandler.CONNECT_REQ_CHANNEL, request)).exceptionally(throwable -> {
+            future.completeExceptionally(throwable);
+            return null;
+        });
         // Ensure we remove the matching PendingRequest (by responseKey) when the future completes
         return future.orTimeout(10, TimeUnit.SECONDS)
                 .whenComplete((result, throwable) -> pendingRequests.removeIf(p -> p.responseKey == responseKey));
@@ -1,14 +1,15 @@
 package it.einjojo.playerapi;
 
 import io.grpc.ManagedChannel;
+import it.einjojo.playerapi.config.PluginConfig;
 import it.einjojo.playerapi.config.RedisConnectionConfiguration;
 import it.einjojo.playerapi.impl.AbstractPlayerApi;
+import it.einjojo.playerapi.impl.PlayerApiExecutors;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 
 /**
  * Can be obtained by {@link PlayerApiProvider} on paper servers.
@@ -23,13 +24,14 @@ public class PaperPlayerApi extends AbstractPlayerApi {
     /**
      * Constructor for AbstractPlayerApi.
      *
-     * @param channel  the gRPC channel to communicate with the player service
-     * @param executor the executor to run the callbacks on
+     * @param channel   the gRPC channel to communicate with the player service
+     * @param executors the executors of the plugin
+     * @param config    the plugin config
      */
-    public PaperPlayerApi(ManagedChannel channel, Executor executor, RedisConnectionConfiguration redisConnectionConfiguration) {
-        super(channel, executor);
+    public PaperPlayerApi(ManagedChannel channel, PlayerApiExecutors executors, PluginConfig config, RedisConnectionConfiguration redisConnectionConfiguration) {
+        super(channel, executors, config);
         this.localOnlinePlayerAccessor = new PaperLocalPlayerAccessor();
-        this.redisPubSubHandler = new RedisPubSubHandler(redisConnectionConfiguration, executor);
+        this.redisPubSubHandler = new RedisPubSubHandler(redisConnectionConfiguration, executors.dispatch(), executors.redisResources());
 
     }
 
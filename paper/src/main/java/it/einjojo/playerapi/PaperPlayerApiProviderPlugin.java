@@ -2,11 +2,10 @@ package it.einjojo.playerapi;
 
 
 import io.grpc.ManagedChannel;
-import io.lettuce.core.RedisClient;
 import it.einjojo.playerapi.config.PluginConfig;
 import it.einjojo.playerapi.config.RedisConnectionConfiguration;
 import it.einjojo.playerapi.config.SharedConnectionConfiguration;
-import it.einjojo.playerapi.impl.AbstractPlayerApi;
+import it.einjojo.playerapi.impl.PlayerApiExecutors;
 import it.einjojo.playerapi.listener.PaperConnectionVerifyListener;
 import it.einjojo.playerapi.listener.PaperProxylessConnectionListener;
 import it.einjojo.protocol.player.PlayerServiceGrpc;
@@ -14,8 +13,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.slf4j.Logger;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 
@@ -26,8 +23,9 @@ import java.util.concurrent.TimeUnit;
 public class PaperPlayerApiProviderPlugin extends JavaPlugin {
     private final Logger log = getSLF4JLogger();
     public static PaperPlayerApiProviderPlugin INSTANCE;
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private PlayerApiExecutors executors;
     private ManagedChannel channel;
+    private PaperPlayerApi playerApi;
 
 
     /**
@@ -39,30 +37,32 @@ public class PaperPlayerApiProviderPlugin extends JavaPlugin {
         PluginConfig config = PluginConfig.load(getDataPath());
         var sharedConfig = SharedConnectionConfiguration.load();
         RedisConnectionConfiguration redisConfig = sharedConfig.map(SharedConnectionConfiguration::redis).orElseGet(config::redis);
-        try (var client = RedisClient.create(redisConfig.createUri("playerapi")); var con = client.connect()) {
-            log.info("Pinging redis server {}... ", con.sync().ping());
-        } catch (Exception ex) {
-            log.error("{} | SharedConfig available: {} \n  ==> Your {} \n", ex.getMessage(), sharedConfig.isPresent(), redisConfig);
-            getSLF4JLogger().info("Disabling PlayerApi plugin.");
-            getServer().getPluginManager().disablePlugin(this);
-            return;
-        }
-
-        channel = config.createChannel(executor);
+        executors = new PlayerApiExecutors(config.executors());
+        channel = config.createChannel(executors);
         var state = channel.getState(true);
         log.info("gRPC channel to PlayerApi server is in state: {}", state);
         channel.notifyWhenStateChanged(state, () -> {
             var newState = channel.getState(true);
             log.info("gRPC channel to PlayerApi server changed state: {}", newState);
         });
-        PaperPlayerApi playerApi = new PaperPlayerApi(channel, executor, redisConfig);
+        playerApi = new PaperPlayerApi(channel, executors, config, redisConfig);
+        // the ping runs on the publish connection of the api, which is kept
+        try {
+            log.info("Pinging redis server {}... ", playerApi.getRedisPubSubHandler().ping().get(5, TimeUnit.SECONDS));
+        } catch (Exception ex) {
+            log.error("{} | SharedConfig available: {} \n  ==> Your {} \n", ex.getMessage(), sharedConfig.isPresent(), redisConfig);
+            getSLF4JLogger().info("Disabling PlayerApi plugin.");
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
 
+        warmUp(config);
         PlayerApiProvider.register(playerApi);
         Bukkit.getServer().getMessenger().registerOutgoingPluginChannel(this, "BungeeCord");
         getSLF4JLogger().info("PlayerApi Paper plugin has been initialized.");
         if (getServer().getOnlineMode()) {
             getSLF4JLogger().info("Detected online mode. This Server will handle authentication for players.");
-            getServer().getPluginManager().registerEvents(new PaperProxylessConnectionListener(this, playerApi, executor), this);
+            getServer().getPluginManager().registerEvents(new PaperProxylessConnectionListener(this, playerApi, executors.callbacks()), this);
             ;
         } else {
             getSLF4JLogger().info("Detected offline mode. This Server will verify players' sessions");
@@ -71,30 +71,28 @@ public class PaperPlayerApiProviderPlugin extends JavaPlugin {
     }
 
 
+    /**
+     * Connects to the player service before the api is provided, if configured.
+     */
+    private void warmUp(PluginConfig config) {
+        if (!config.channel().warmUp()) {
+            playerApi.warmUp();
+            return;
+        }
+        if (playerApi.awaitWarmUp(config.channel().warmUpTimeoutMillis())) {
+            log.info("PlayerApi server is ready.");
+        } else {
+            log.warn("PlayerApi server did not answer within {} ms, the api is provided anyway.", config.channel().warmUpTimeoutMillis());
+        }
+    }
+
     @Override
     public void onDisable() {
         log.info("Shutting down...");
-        ((AbstractPlayerApi) PlayerApiProvider.getInstance()).shutdown();
-        // Shutdown executor first to stop new tasks
-        if (!executor.isShutdown()) {
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(3, TimeUnit.SECONDS)) {
-                    log.warn("Executor did not terminate in time, forcing shutdown...");
-                    executor.shutdownNow();
-                    executor.awaitTermination(2, TimeUnit.SECONDS);
-                }
-                getSLF4JLogger().info("Executor service has been shut down.");
-            } catch (InterruptedException e) {
-                log.warn("Interrupted while waiting for executor shutdown.", e);
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        } else {
-            getSLF4JLogger().warn("Executor service was already shut down or not initialized.");
+        if (playerApi != null) {
+            playerApi.shutdown();
         }
-
-        // Then shutdown gRPC channel gracefully
+        // Shutdown gRPC channel gracefully, it still needs the executors and event loops
         if (channel != null && !channel.isShutdown()) {
             channel.shutdown(); // Initiate graceful shutdown first
             try {
@@ -114,6 +112,13 @@ public class PaperPlayerApiProviderPlugin extends JavaPlugin {
         } else {
             getSLF4JLogger().warn("gRPC channel was already shut down or not initialized.");
         }
+
+        // Then shutdown executors and event loops
+        if (executors != null) {
+            executors.close();
+        } else {
+            getSLF4JLogger().warn("Executor services were not initialized.");
+        }
         log.info("PlayerApi Paper plugin has been disabled.");
     }
 }
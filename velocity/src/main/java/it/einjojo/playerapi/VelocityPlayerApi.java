@@ -1,6 +1,5 @@
 package it.einjojo.playerapi;
 
-import com.google.common.base.Preconditions;
 import com.velocitypowered.api.proxy.ConnectionRequestBuilder;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
@@ -8,8 +7,11 @@ import com.velocitypowered.api.proxy.ServerConnection;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
 import com.velocitypowered.api.proxy.server.ServerInfo;
 import io.grpc.ManagedChannel;
+import it.einjojo.playerapi.config.NotificationConfiguration;
+import it.einjojo.playerapi.config.PluginConfig;
 import it.einjojo.playerapi.config.RedisConnectionConfiguration;
 import it.einjojo.playerapi.impl.AbstractPlayerApi;
+import it.einjojo.playerapi.impl.PlayerApiExecutors;
 import it.einjojo.playerapi.impl.PlayerMapper;
 import it.einjojo.protocol.player.*;
 import org.jetbrains.annotations.NotNull;
@@ -19,28 +21,33 @@ import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 public class VelocityPlayerApi extends AbstractPlayerApi implements Consumer<ConnectRequest> {
-    private static final String PROXY_NAME = "velocity";
     private static final Logger log = LoggerFactory.getLogger(VelocityPlayerApi.class);
     private final LocalOnlinePlayerAccessor localOnlinePlayerAccessor;
     private final RedisPubSubHandler redisPubSubHandler;
     private final ProxyServer proxyServer;
+    private final @Nullable RedisPresenceWriter presenceWriter;
+    private final NotificationConfiguration notifications;
+    private final @Nullable RedisEventStreamWriter eventStreamWriter;
 
     /**
      * Constructor for AbstractPlayerApi.
      *
-     * @param channel  the gRPC channel to communicate with the player service
-     * @param executor the executor to run the callbacks on
+     * @param channel   the gRPC channel to communicate with the player service
+     * @param executors the executors of the plugin
+     * @param config    the plugin config
      */
-    public VelocityPlayerApi(ManagedChannel channel, Executor executor, ProxyServer proxyServer, RedisConnectionConfiguration redisConnectionConfiguration) {
-        super(channel, executor);
+    public VelocityPlayerApi(ManagedChannel channel, PlayerApiExecutors executors, PluginConfig config, ProxyServer proxyServer, RedisConnectionConfiguration redisConnectionConfiguration) {
+        super(channel, executors, config);
         this.proxyServer = proxyServer;
         this.localOnlinePlayerAccessor = new VelocityLocalPlayerAccessor(proxyServer);
-        this.redisPubSubHandler = new RedisPubSubHandler(redisConnectionConfiguration, executor);
+        this.redisPubSubHandler = new RedisPubSubHandler(redisConnectionConfiguration, executors.dispatch(), executors.redisResources());
         this.redisPubSubHandler.setConnectRequestConsumer(this);
+        this.notifications = config.notifications();
+        this.eventStreamWriter = config.streams().enabled() && config.streams().writeFromProxy() ? new RedisEventStreamWriter(redisPubSubHandler.getOpenClient(), config.streams()) : null;
+        this.presenceWriter = config.presence().writeFromProxy() ? new RedisPresenceWriter(redisPubSubHandler.getOpenClient(), config.presence()) : null;
     }
 
     @Override
@@ -67,26 +74,97 @@ public class VelocityPlayerApi extends AbstractPlayerApi implements Consumer<Con
         var future = super.playerServiceStub.login(LoginRequest.newBuilder()
                 .setUniqueId(player.getUniqueId().toString())
                 .setUsername(player.getUsername())
-                .setProxyName(PROXY_NAME)
+                .setProxyName(notifications.proxyName())
                 .setSkinTexture(skinTexture)
                 .setSkinSignature(skinSignature)
                 .build());
-        return createCallback(future, (response) -> PlayerMapper.toLocal(response.getPlayer()));
+        return createCallback(future, (response) -> {
+            if (presenceWriter != null) presenceWriter.put(response.getPlayer());
+            publishShard(RedisPubSubHandler.LOGIN_NOTIFY_CHANNEL, response.toByteArray());
+            if (eventStreamWriter != null) eventStreamWriter.append(response);
+            return PlayerMapper.toLocal(response.getPlayer());
+        });
     }
 
     public CompletableFuture<Boolean> handleLogout(Player player) {
         var future = super.playerServiceStub.logout(LogoutRequest.newBuilder().setUniqueId(player.getUniqueId().toString()).build());
-        return createCallback(future, LogoutNotify::getSuccess);
+        return createCallback(future, (response) -> {
+            if (presenceWriter != null) presenceWriter.remove(player.getUniqueId(), player.getUsername());
+            publishShard(RedisPubSubHandler.LOGOUT_NOTIFY_CHANNEL, response.toByteArray());
+            if (eventStreamWriter != null) eventStreamWriter.append(response);
+            return response.getSuccess();
+        });
     }
 
 
-    public CompletableFuture<Boolean> handleServerChange(Player player) {
+    /**
+     * Updates the connection at the player service and publishes a {@link ServerSwitchNotify} if it was successful.
+     *
+     * @param player             the player
+     * @param previousServerName the server the player has left or null after the login
+     * @return whether the service has accepted the update
+     */
+    public CompletableFuture<Boolean> handleServerChange(Player player, @Nullable String previousServerName) {
         String serverName = player.getCurrentServer().map(ServerConnection::getServerInfo).map(ServerInfo::getName).orElse(null);
         var future = super.playerServiceStub.updateConnection(UpdateConnectionRequest.newBuilder()
                 .setUniqueId(player.getUniqueId().toString())
                 .setConnectedServerName(serverName)
                 .build());
-        return createCallback(future, UpdateConnectionResponse::getSuccess);
+        return createCallback(future, (response) -> {
+            if (response.getSuccess()) {
+                if (presenceWriter != null) presenceWriter.moveTo(player.getUniqueId(), serverName);
+                if (serverName != null) publishServerSwitch(player, previousServerName, serverName);
+            }
+            return response.getSuccess();
+        });
+    }
+
+    /**
+     * Published to all subscribers and to the shard of the target server, and appended to the event stream if configured.
+     */
+    private void publishServerSwitch(Player player, @Nullable String previousServerName, String serverName) {
+        UUID uuid = player.getUniqueId();
+        ServerSwitchNotify notify = ServerSwitchNotify.newBuilder()
+                .setUniqueId(uuid.toString())
+                .setUuidMsb(uuid.getMostSignificantBits())
+                .setUuidLsb(uuid.getLeastSignificantBits())
+                .setUsername(player.getUsername())
+                .setPreviousServerName(previousServerName == null ? "" : previousServerName)
+                .setConnectedServerName(serverName)
+                .setProxyName(notifications.proxyName())
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+        if (eventStreamWriter != null) eventStreamWriter.append(notify);
+        byte[] message = notify.toByteArray();
+        CompletableFuture.allOf(
+                redisPubSubHandler.publish(RedisPubSubHandler.SERVER_SWITCH_CHANNEL, message),
+                redisPubSubHandler.publish(RedisPubSubHandler.shardChannel(RedisPubSubHandler.SERVER_SWITCH_CHANNEL, serverName), message)
+        ).exceptionally(throwable -> {
+            log.warn("Failed to publish server switch of {} to {}", player.getUsername(), serverName, throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Publishes a notification to the shard of this proxy, if configured.
+     */
+    private void publishShard(byte[] channel, byte[] message) {
+        if (!notifications.publishShards()) return;
+        redisPubSubHandler.publish(RedisPubSubHandler.shardChannel(channel, notifications.proxyName()), message).exceptionally(throwable -> {
+            log.warn("Failed to publish notification to the shard of {}", notifications.proxyName(), throwable);
+            return null;
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        if (presenceWriter != null) {
+            presenceWriter.close();
+        }
+        if (eventStreamWriter != null) {
+            eventStreamWriter.close();
+        }
+        super.shutdown();
     }
 
     @Override
@@ -154,9 +232,10 @@ public class VelocityPlayerApi extends AbstractPlayerApi implements Consumer<Con
             case ERROR -> ConnectResult.CONNECTION_ERROR;
         };
         ConnectResponse resp = ConnectResponse.newBuilder().setResponseKey(req.getResponseKey()).setResult(protoBufResult).build();
-        var conn = getRedisPubSubHandler().getConnection();
-        Preconditions.checkNotNull(conn, "Redis must not be null on response");
-        conn.async().publish(RedisPubSubHandler.CONNECT_RES_CHANNEL, resp.toByteArray());
+        getRedisPubSubHandler().publish(RedisPubSubHandler.CONNECT_RES_CHANNEL, resp.toByteArray()).exceptionally(throwable -> {
+            log.error("Failed to respond to connect request {}", req.getResponseKey(), throwable);
+            return null;
+        });
     }
 
     /**
@@ -12,12 +12,11 @@ import it.einjojo.playerapi.config.PluginConfig;
 import it.einjojo.playerapi.config.RedisConnectionConfiguration;
 import it.einjojo.playerapi.config.SharedConnectionConfiguration;
 import it.einjojo.playerapi.impl.AbstractPlayerApi;
+import it.einjojo.playerapi.impl.PlayerApiExecutors;
 import it.einjojo.playerapi.listener.ConnectionListener;
 import org.slf4j.Logger;
 
 import java.nio.file.Path;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @Plugin(
@@ -30,7 +29,7 @@ import java.util.concurrent.TimeUnit;
 
 )
 public class VelocityPlayerApiProviderPlugin {
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private PlayerApiExecutors executors;
     private final ProxyServer server;
     private final Logger logger;
     private final Path dataDirectory;
@@ -46,11 +45,19 @@ public class VelocityPlayerApiProviderPlugin {
     @Subscribe
     public void onProxyInitialization(ProxyInitializeEvent event) {
         PluginConfig config = PluginConfig.load(dataDirectory);
-        channel = config.createChannel(executor);
+        executors = new PlayerApiExecutors(config.executors());
+        channel = config.createChannel(executors);
         RedisConnectionConfiguration redis = SharedConnectionConfiguration.load().map(SharedConnectionConfiguration::redis).orElseGet(config::redis);
-        VelocityPlayerApi playerApi = new VelocityPlayerApi(channel, executor, server, redis);
+        VelocityPlayerApi playerApi = new VelocityPlayerApi(channel, executors, config, server, redis);
+        if (!config.channel().warmUp()) {
+            playerApi.warmUp();
+        } else if (playerApi.awaitWarmUp(config.channel().warmUpTimeoutMillis())) {
+            logger.info("PlayerApi server is ready.");
+        } else {
+            logger.warn("PlayerApi server did not answer within {} ms, logins are denied until it does.", config.channel().warmUpTimeoutMillis());
+        }
         PlayerApiProvider.register(playerApi);
-        server.getEventManager().register(this, new ConnectionListener(playerApi, logger));
+        server.getEventManager().register(this, new ConnectionListener(playerApi, logger, config.channel().warmUp()));
         logger.info("PlayerApi Velocity plugin has been initialized.");
     }
 
@@ -58,26 +65,7 @@ public class VelocityPlayerApiProviderPlugin {
     public void onProxyShutdown(ProxyShutdownEvent event) {
         logger.info("Shutting down.");
         ((AbstractPlayerApi) PlayerApiProvider.getInstance()).shutdown();
-        // Shutdown executor first to stop new tasks
-        if (!executor.isShutdown()) {
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(3, TimeUnit.SECONDS)) {
-                    logger.warn("Executor did not terminate in time, forcing shutdown...");
-                    executor.shutdownNow();
-                    executor.awaitTermination(2, TimeUnit.SECONDS);
-                }
-                logger.info("Executor service has been shut down.");
-            } catch (InterruptedException e) {
-                logger.warn("Interrupted while waiting for executor shutdown.", e);
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        } else {
-            logger.warn("Executor service was already shut down or not initialized.");
-        }
-
-        // Then shutdown gRPC channel gracefully
+        // Shutdown gRPC channel gracefully, it still needs the executors and event loops
         if (channel != null && !channel.isShutdown()) {
             channel.shutdown();
             try {
@@ -97,6 +85,13 @@ public class VelocityPlayerApiProviderPlugin {
         } else {
             logger.warn("gRPC channel was already shut down or not initialized.");
         }
+
+        // Then shutdown executors and event loops
+        if (executors != null) {
+            executors.close();
+        } else {
+            logger.warn("Executor services were not initialized.");
+        }
     }
 
 }
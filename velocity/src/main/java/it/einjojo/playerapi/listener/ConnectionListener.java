@@ -1,7 +1,9 @@
 package it.einjojo.playerapi.listener;
 
+import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.LoginEvent;
 import com.velocitypowered.api.event.connection.PostLoginEvent;
 import com.velocitypowered.api.event.player.ServerPostConnectEvent;
 import it.einjojo.playerapi.NetworkPlayer;
@@ -16,10 +18,30 @@ import java.util.concurrent.TimeUnit;
 public class ConnectionListener {
     private final VelocityPlayerApi playerApi;
     private final Logger logger;
+    private final boolean denyUntilReady;
 
-    public ConnectionListener(VelocityPlayerApi playerApi, Logger logger) {
+    /**
+     * Constructor for ConnectionListener.
+     *
+     * @param playerApi      the api
+     * @param logger         the logger
+     * @param denyUntilReady whether logins are denied until the warm-up has reached the player service
+     */
+    public ConnectionListener(VelocityPlayerApi playerApi, Logger logger, boolean denyUntilReady) {
         this.playerApi = playerApi;
         this.logger = logger;
+        this.denyUntilReady = denyUntilReady;
+    }
+
+    /**
+     * If the warm-up is enabled, logins are denied until the player service has been reached, they would fail on the
+     * first request anyway.
+     */
+    @Subscribe
+    public void denyUntilReady(LoginEvent event) {
+        if (denyUntilReady && !playerApi.isReady() && event.getResult().isAllowed()) {
+            event.setResult(ResultedEvent.ComponentResult.denied(Component.text("player service is starting, please try again", NamedTextColor.RED)));
+        }
     }
 
     @Subscribe
@@ -53,7 +75,8 @@ public class ConnectionListener {
 
     @Subscribe
     public void changeServer(ServerPostConnectEvent event) {
-        playerApi.handleServerChange(event.getPlayer()).thenAccept(success -> {
+        String previousServerName = event.getPreviousServer() == null ? null : event.getPreviousServer().getServerInfo().getName();
+        playerApi.handleServerChange(event.getPlayer(), previousServerName).thenAccept(success -> {
             if (success) {
                 logger.info("Successfully handled server change for player {}", event.getPlayer().getUsername());
             } else {